@@ -0,0 +1,24 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+
+// Starting positions shared by the benchmarks
+public enum BoardFixture {
+
+    EMPTY(0),
+    HALF_FULL(ChessBoard.MAX_BOARD_WIDTH / 2),
+    FULL_PAWN_RANKS(ChessBoard.MAX_BOARD_WIDTH);
+
+    private final int pawnsPerColor;
+
+    BoardFixture(int pawnsPerColor) {
+        this.pawnsPerColor = pawnsPerColor;
+    }
+
+    // The half-full board leaves the king's side files empty
+    public ChessBoard Create() {
+        return TestBoards.PawnRanks(PieceColor.WHITE, pawnsPerColor);
+    }
+}
@@ -0,0 +1,175 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.BoardMetrics;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Evaluation;
+import com.solarwindsmsp.chess.MoveResult;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessBoardBenchmark {
+
+    @Param
+    public BoardFixture fixture;
+
+    private ChessBoard board;
+    private ChessBoard measuredBoard;
+    private Pawn whitePawn;
+    private Pawn measuredPawn;
+    private Pawn extraPawn;
+    private int[] moves;
+    private int pushMove;
+    private final StampedLock lock = new StampedLock();
+
+    @Setup
+    public void setUp() {
+        board = fixture.Create();
+        // Every fixture has a white pawn free to move on the king's side file
+        whitePawn = new Pawn(PieceColor.WHITE);
+        board.Add(whitePawn, ChessBoard.MAX_BOARD_WIDTH - 1, 2);
+        extraPawn = new Pawn(PieceColor.BLACK, false);
+        measuredBoard = fixture.Create();
+        measuredBoard.SetMetrics(new BoardMetrics());
+        measuredPawn = new Pawn(PieceColor.WHITE);
+        measuredBoard.Add(measuredPawn, ChessBoard.MAX_BOARD_WIDTH - 1, 2);
+        moves = new int[Moves.MAX_MOVES];
+        pushMove = Moves.Encode(Bitboards.Square(ChessBoard.MAX_BOARD_WIDTH - 1, 2),
+                Bitboards.Square(ChessBoard.MAX_BOARD_WIDTH - 1, 3), MovementType.MOVE);
+    }
+
+    @Benchmark
+    public Object getPieceAt() {
+        return board.GetPieceAt(ChessBoard.MAX_BOARD_WIDTH - 1, TestBoards.FAR_PAWN_RANK);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return board.Contains(whitePawn);
+    }
+
+    @Benchmark
+    public int getPieceCount() {
+        return board.GetPieceCount(Pawn.class, PieceColor.BLACK);
+    }
+
+    // Add followed by Remove, so the board is unchanged between invocations
+    @Benchmark
+    public boolean addAndRemove() {
+        board.Add(extraPawn, 4, 4);
+        return board.Remove(extraPawn);
+    }
+
+    // A speculative move the rules reject, the common path when validating input
+    @Benchmark
+    public boolean moveRejected() {
+        return whitePawn.Move(MovementType.MOVE, ChessBoard.MAX_BOARD_WIDTH - 1, 1);
+    }
+
+    // The same move with the reason returned, on a board without and with metrics
+    @Benchmark
+    public MoveResult tryMoveRejected() {
+        return board.TryMove(whitePawn, MovementType.MOVE, ChessBoard.MAX_BOARD_WIDTH - 1, 1);
+    }
+
+    @Benchmark
+    public MoveResult tryMoveRejectedMeasured() {
+        return measuredBoard.TryMove(measuredPawn, MovementType.MOVE, ChessBoard.MAX_BOARD_WIDTH - 1, 1);
+    }
+
+    // A legal move followed by Remove and Add to put the pawn back
+    @Benchmark
+    public boolean moveAndRestore() {
+        boolean moved = whitePawn.Move(MovementType.MOVE, ChessBoard.MAX_BOARD_WIDTH - 1, 3);
+        board.Remove(whitePawn);
+        board.Add(whitePawn, ChessBoard.MAX_BOARD_WIDTH - 1, 2);
+        return moved;
+    }
+
+    @Benchmark
+    public boolean isMoveLegal() {
+        return whitePawn.IsMoveLegal(MovementType.MOVE, ChessBoard.MAX_BOARD_WIDTH - 1, 3);
+    }
+
+    // Cached after the first call, as the position does not change
+    @Benchmark
+    public long getLegalTargets() {
+        return board.GetLegalTargets(whitePawn);
+    }
+
+    // The same answer from the move rules, checking every square
+    @Benchmark
+    public long legalTargetsByRules() {
+        long targets = 0;
+        for (int y = 0; y < ChessBoard.MAX_BOARD_HEIGHT; y++) {
+            for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+                MovementType movementType = board.GetPieceAt(x, y) == null ? MovementType.MOVE : MovementType.CAPTURE;
+                if (whitePawn.IsMoveLegal(movementType, x, y))
+                    targets |= Bitboards.Bit(Bitboards.Square(x, y));
+            }
+        }
+        return targets;
+    }
+
+    @Benchmark
+    public int getAttackerCount() {
+        return board.GetAttackerCount(3, 2, PieceColor.WHITE);
+    }
+
+    // Only the files touched by the move are scored again
+    @Benchmark
+    public int makeMoveAndEvaluate() {
+        board.MakeMove(pushMove);
+        int score = board.Evaluate(PieceColor.WHITE);
+        board.UnmakeMove();
+        return score;
+    }
+
+    @Benchmark
+    public int evaluateFromScratch() {
+        return Evaluation.Evaluate(board, PieceColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean makeAndUnmakeMove() {
+        board.MakeMove(pushMove);
+        return board.UnmakeMove();
+    }
+
+    // What each change to the board pays for snapshot readers: the uncontended
+    // write stamp taken around it
+    @Benchmark
+    public long writeStamp() {
+        long stamp = lock.writeLock();
+        lock.unlockWrite(stamp);
+        return stamp;
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return board.GenerateMoves(PieceColor.WHITE, moves);
+    }
+}
@@ -0,0 +1,90 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.CompactChessBoard;
+import com.solarwindsmsp.chess.FenCodec;
+import com.solarwindsmsp.chess.PositionCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Encodes and decodes per second for the binary and FEN codecs, all into
+// reused buffers and boards
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param
+    public BoardFixture fixture;
+
+    private ChessBoard board;
+    private CompactChessBoard compact;
+    private ByteBuffer binary;
+    private ByteBuffer fenBytes;
+    private StringBuilder fenText;
+    private FenCodec fenCodec;
+
+    @Setup
+    public void setUp() {
+        board = fixture.Create();
+        compact = new CompactChessBoard();
+        binary = ByteBuffer.allocate(PositionCodec.ENCODED_SIZE);
+        fenBytes = ByteBuffer.allocate(FenCodec.MAX_LENGTH);
+        fenText = new StringBuilder(FenCodec.MAX_LENGTH);
+        fenCodec = new FenCodec();
+
+        PositionCodec.Encode(board, binary);
+        fenCodec.Write(board, fenText);
+        fenCodec.Write(board, fenBytes);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        binary.clear();
+        PositionCodec.Encode(board, binary);
+        return binary;
+    }
+
+    @Benchmark
+    public CompactChessBoard decodeBinary() {
+        binary.rewind();
+        PositionCodec.Decode(binary, compact);
+        return compact;
+    }
+
+    @Benchmark
+    public StringBuilder encodeFen() {
+        fenText.setLength(0);
+        fenCodec.Write(board, fenText);
+        return fenText;
+    }
+
+    @Benchmark
+    public CompactChessBoard decodeFen() {
+        fenCodec.Read(fenText, compact);
+        return compact;
+    }
+
+    @Benchmark
+    public CompactChessBoard decodeFenBytes() {
+        fenBytes.flip();
+        fenCodec.Read(fenBytes, compact);
+        fenBytes.limit(fenBytes.capacity());
+        return compact;
+    }
+}
@@ -0,0 +1,84 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.BoardGeometry;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.LargeChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceKind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Move generation for full pawn ranks on boards of each size, against the
+// 8x8 ChessBoard, and the bounds check every board call makes
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeChessBoardBenchmark {
+
+    @Param({"8", "16", "32"})
+    public int size;
+
+    private ChessBoard board;
+    private LargeChessBoard largeBoard;
+    private int[] moves;
+    private int[] largeMoves;
+    private int[] xs;
+    private int[] ys;
+
+    @Setup
+    public void setUp() {
+        board = new ChessBoard();
+        for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+            board.AddPiece(PieceKind.WHITE_PAWN, true, x, 1);
+            board.AddPiece(PieceKind.BLACK_PAWN, true, x, ChessBoard.MAX_BOARD_HEIGHT - 2);
+        }
+        largeBoard = new LargeChessBoard(BoardGeometry.Of(size, size));
+        for (int x = 0; x < size; x++) {
+            largeBoard.Add(PieceColor.WHITE, true, x, 1);
+            largeBoard.Add(PieceColor.BLACK, true, x, size - 2);
+        }
+        moves = new int[Moves.MAX_MOVES];
+        largeMoves = new int[largeBoard.GetMaxMoves()];
+        Random random = new Random(1);
+        xs = new int[100];
+        ys = new int[100];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(12) - 2;
+            ys[i] = random.nextInt(12) - 2;
+        }
+    }
+
+    @Benchmark
+    public int chessBoardGenerateMoves() {
+        return board.GenerateMoves(PieceColor.WHITE, moves);
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return largeBoard.GenerateMoves(PieceColor.WHITE, largeMoves);
+    }
+
+    // Checks coordinates on and off the 8x8 board, from a set the JIT cannot fold
+    @Benchmark
+    public void isLegalBoardPosition(Blackhole blackhole) {
+        for (int i = 0; i < xs.length; i++)
+            blackhole.consume(board.IsLegalBoardPosition(xs[i], ys[i]));
+    }
+}
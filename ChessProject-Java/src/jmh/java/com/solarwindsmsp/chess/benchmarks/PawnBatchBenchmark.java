@@ -0,0 +1,106 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.batch.PawnBatch;
+import com.solarwindsmsp.chess.batch.PawnBatchKernel;
+import com.solarwindsmsp.chess.batch.PawnBatchKernels;
+import com.solarwindsmsp.chess.batch.ScalarPawnBatchKernel;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Validates one move for each of BATCH_SIZE boards. Build with -Pjmh,vector to
+// include the Vector API kernel; scores are per board.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PawnBatchBenchmark {
+    private static final int BATCH_SIZE = 4096;
+
+    private ChessBoard[] boards;
+    private PawnBatch batch;
+    private int[] moves;
+    private boolean[] results;
+    private long[] pushTargets;
+    private long[] captureTargets;
+    private PawnBatchKernel scalar;
+    private PawnBatchKernel best;
+
+    @Setup
+    public void setUp() {
+        BoardFixture[] fixtures = {BoardFixture.HALF_FULL, BoardFixture.FULL_PAWN_RANKS};
+        boards = new ChessBoard[BATCH_SIZE];
+        batch = new PawnBatch(BATCH_SIZE);
+        moves = new int[BATCH_SIZE];
+        int[] generated = new int[Moves.MAX_MOVES];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            boards[i] = fixtures[i % fixtures.length].Create();
+            batch.Add(boards[i]);
+            int count = boards[i].GenerateMoves(PieceColor.WHITE, generated);
+            moves[i] = generated[i % count];
+        }
+        results = new boolean[BATCH_SIZE];
+        pushTargets = new long[BATCH_SIZE];
+        captureTargets = new long[BATCH_SIZE];
+        scalar = new ScalarPawnBatchKernel();
+        best = PawnBatchKernels.Best();
+    }
+
+    // The per-game path: look the piece up and ask its rules, one board at a time
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void isMoveLegalPerBoard(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int from = Moves.From(moves[i]);
+            int to = Moves.To(moves[i]);
+            ChessPiece piece = boards[i].GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+            blackhole.consume(piece.IsMoveLegal(Moves.GetMovementType(moves[i]), Bitboards.FileOf(to), Bitboards.RankOf(to)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public boolean[] validateScalar() {
+        scalar.ValidateMoves(batch, moves, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public boolean[] validateBest() {
+        best.ValidateMoves(batch, moves, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] generateScalar() {
+        scalar.GenerateTargets(batch, PieceColor.WHITE, pushTargets, captureTargets);
+        return pushTargets;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] generateBest() {
+        best.GenerateTargets(batch, PieceColor.WHITE, pushTargets, captureTargets);
+        return pushTargets;
+    }
+}
@@ -0,0 +1,75 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.search.ParallelPerft;
+import com.solarwindsmsp.chess.search.Perft;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    // Reported alongside the benchmark score as nodes per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Param({"HALF_FULL", "FULL_PAWN_RANKS"})
+    public BoardFixture fixture;
+
+    @Param({"4", "5"})
+    public int depth;
+
+    private ChessBoard board;
+    private Perft perft;
+    private ParallelPerft parallelPerft;
+
+    @Setup
+    public void setUp() {
+        board = fixture.Create();
+        perft = new Perft(depth);
+        parallelPerft = new ParallelPerft(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public long perft(Nodes counter) {
+        long nodes = perft.Count(board, PieceColor.WHITE, depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+
+    // Splits the tree across the common ForkJoinPool
+    @Benchmark
+    public long parallelPerft(Nodes counter) {
+        long nodes = parallelPerft.Count(board, PieceColor.WHITE, depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.search.AlphaBetaSearch;
+import com.solarwindsmsp.chess.search.SearchLimits;
+import com.solarwindsmsp.chess.search.SearchResult;
+import com.solarwindsmsp.chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    // Reported alongside the benchmark score as nodes per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Param({"HALF_FULL", "FULL_PAWN_RANKS"})
+    public BoardFixture fixture;
+
+    @Param({"6"})
+    public int depth;
+
+    private ChessBoard board;
+    private TranspositionTable table;
+    private AlphaBetaSearch search;
+    private SearchLimits limits;
+
+    @Setup
+    public void setUp() {
+        board = fixture.Create();
+        table = new TranspositionTable(16);
+        search = new AlphaBetaSearch(table);
+        limits = SearchLimits.Depth(depth);
+    }
+
+    // Each search starts from an empty table, as a bot's first move would
+    @Benchmark
+    public int search(Nodes counter) {
+        table.Clear();
+        SearchResult result = search.Search(board, PieceColor.WHITE, limits);
+        counter.nodes += result.getNodes();
+        return result.getBestMove();
+    }
+}
@@ -0,0 +1,61 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceKind;
+import com.solarwindsmsp.chess.search.AlphaBetaSearch;
+import com.solarwindsmsp.chess.search.SearchLimits;
+import com.solarwindsmsp.chess.search.TranspositionTable;
+import com.solarwindsmsp.chess.tablebase.PawnTablebase;
+import com.solarwindsmsp.chess.tablebase.TablebaseGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Probing a three pawn ending against searching it out
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablebaseBenchmark {
+    private ChessBoard board;
+    private PawnTablebase tablebase;
+    private AlphaBetaSearch search;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("tablebase");
+        new TablebaseGenerator(ForkJoinPool.commonPool()).Generate(directory, 3);
+        tablebase = PawnTablebase.Open(directory);
+        board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, true, 0, 1);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 7, 5);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 3, 6);
+        search = new AlphaBetaSearch(new TranspositionTable(16));
+    }
+
+    @Benchmark
+    public int probe() {
+        return tablebase.Probe(board, PieceColor.WHITE);
+    }
+
+    @Benchmark
+    public int search() {
+        return search.Search(board, PieceColor.WHITE, SearchLimits.Depth(24)).getScore();
+    }
+}
@@ -0,0 +1,56 @@
+package com.solarwindsmsp.chess.benchmarks;
+
+import com.solarwindsmsp.chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Probes and stores against one table shared by every benchmark thread
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TranspositionTableBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Table {
+        public TranspositionTable table;
+
+        @Setup
+        public void setUp() {
+            table = new TranspositionTable(64);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        public long next = System.identityHashCode(this);
+
+        public long Next() {
+            next += 0x9E3779B97F4A7C15L;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public long probe(Table table, Keys keys) {
+        return table.table.Probe(keys.Next());
+    }
+
+    @Benchmark
+    public void store(Table table, Keys keys) {
+        table.table.Store(keys.Next(), 1, 0, 4, TranspositionTable.BOUND_EXACT);
+    }
+}
@@ -0,0 +1,38 @@
+package com.solarwindsmsp.chess;
+
+// Helpers for the 64 bit board representation used by ChessBoard. Square
+// indexes run along each rank first, so square = y * 8 + x and (0, 0) is bit 0.
+public final class Bitboards {
+    public static final int SIZE = 8;
+    public static final int SQUARE_COUNT = SIZE * SIZE;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << (SIZE - 1);
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << (SQUARE_COUNT - SIZE);
+
+    private Bitboards() {
+    }
+
+    // Whether (x, y) is on the 8x8 board: every coordinate on it fits in the low
+    // bits, so a single mask test covers all four bounds
+    public static boolean IsOnBoard(int x, int y) {
+        return ((x | y) & ~(SIZE - 1)) == 0;
+    }
+
+    public static int Square(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    public static int FileOf(int square) {
+        return square & (SIZE - 1);
+    }
+
+    public static int RankOf(int square) {
+        return square >>> 3;
+    }
+
+    public static long Bit(int square) {
+        return 1L << square;
+    }
+}
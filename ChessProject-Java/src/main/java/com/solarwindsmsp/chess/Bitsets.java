@@ -0,0 +1,66 @@
+package com.solarwindsmsp.chess;
+
+// Helpers for bitsets of any size held as arrays of longs, bit i being bit
+// (i % 64) of word i / 64. These are the multi-word counterparts of the
+// single-long operations Bitboards and ChessBoard use on the 8x8 board.
+final class Bitsets {
+
+    private Bitsets() {
+    }
+
+    static int WordCount(int bits) {
+        return (bits + Long.SIZE - 1) >>> 6;
+    }
+
+    static boolean Get(long[] set, int index) {
+        return (set[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void Set(long[] set, int index) {
+        set[index >>> 6] |= 1L << index;
+    }
+
+    static void Clear(long[] set, int index) {
+        set[index >>> 6] &= ~(1L << index);
+    }
+
+    static int Count(long[] set) {
+        int count = 0;
+        for (long word : set)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    static void And(long[] a, long[] b, long[] target) {
+        for (int i = 0; i < target.length; i++)
+            target[i] = a[i] & b[i];
+    }
+
+    // target = (source << distance) & mask, for distance >= 0. The target may
+    // be the source.
+    static void ShiftUp(long[] source, int distance, long[] mask, long[] target) {
+        int wordShift = distance >>> 6;
+        int bitShift = distance & (Long.SIZE - 1);
+        for (int i = target.length - 1; i >= 0; i--) {
+            int from = i - wordShift;
+            long word = from >= 0 ? source[from] << bitShift : 0;
+            if (bitShift != 0 && from > 0)
+                word |= source[from - 1] >>> (Long.SIZE - bitShift);
+            target[i] = word & mask[i];
+        }
+    }
+
+    // target = (source >>> distance) & mask, for distance >= 0. The target may
+    // be the source.
+    static void ShiftDown(long[] source, int distance, long[] mask, long[] target) {
+        int wordShift = distance >>> 6;
+        int bitShift = distance & (Long.SIZE - 1);
+        for (int i = 0; i < target.length; i++) {
+            int from = i + wordShift;
+            long word = from < source.length ? source[from] >>> bitShift : 0;
+            if (bitShift != 0 && from + 1 < source.length)
+                word |= source[from + 1] << (Long.SIZE - bitShift);
+            target[i] = word & mask[i];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.solarwindsmsp.chess;
+
+// The size of a board, fixed for the board's lifetime. ChessBoard and
+// CompactChessBoard are specialised for the STANDARD 8x8 geometry, where a
+// square fits one bit of a long; LargeChessBoard takes any geometry up to
+// MAX_SIZE on each side.
+public final class BoardGeometry {
+    public static final int MAX_SIZE = 128;
+    public static final BoardGeometry STANDARD = new BoardGeometry(Bitboards.SIZE, Bitboards.SIZE);
+
+    private final int width;
+    private final int height;
+
+    private BoardGeometry(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public static BoardGeometry Of(int width, int height) {
+        // Pawns need a rank to start on, one to move through and one to reach
+        if (width < 1 || width > MAX_SIZE || height < 3 || height > MAX_SIZE)
+            throw new IllegalArgumentException("Boards are 1 to " + MAX_SIZE + " wide and 3 to " + MAX_SIZE + " high, not " + width + "x" + height);
+        if (width == STANDARD.width && height == STANDARD.height)
+            return STANDARD;
+        return new BoardGeometry(width, height);
+    }
+
+    public int GetWidth() {
+        return width;
+    }
+
+    public int GetHeight() {
+        return height;
+    }
+
+    public int GetSquareCount() {
+        return width * height;
+    }
+
+    // Most pawns of one color the board may hold: a full rank
+    public int GetMaxPawns() {
+        return width;
+    }
+
+    public boolean IsOnBoard(int x, int y) {
+        // Negative coordinates have the sign bit set, so one test covers both lower bounds
+        return (x | y) >= 0 && x < width && y < height;
+    }
+
+    // Square index, running along each rank first as Bitboards.Square does
+    public int Square(int x, int y) {
+        return y * width + x;
+    }
+
+    public int FileOf(int square) {
+        return square % width;
+    }
+
+    public int RankOf(int square) {
+        return square / width;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof BoardGeometry))
+            return false;
+        BoardGeometry geometry = (BoardGeometry) other;
+        return width == geometry.width && height == geometry.height;
+    }
+
+    @Override
+    public int hashCode() {
+        return width * 31 + height;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
+}
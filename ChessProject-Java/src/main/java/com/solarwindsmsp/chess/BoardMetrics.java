@@ -0,0 +1,137 @@
+package com.solarwindsmsp.chess;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for the validation done by ChessBoard: how many adds and moves each
+// rule refused, how many were accepted, how long they took and how often the
+// piece rules (such as Pawn.IsMoveLegal) were consulted. A board records into
+// its metrics only once SetMetrics has been called, and one instance can be
+// shared by any number of boards on any number of threads.
+//
+// Counts are exact. Reading the clock costs more than a rejected move, so each
+// board times one call in LATENCY_SAMPLE_MASK + 1 and the histograms hold that
+// sample. Adds and moves are sampled together, and piece rule checks on their
+// own, so a sampled move may include a timed rule check.
+public final class BoardMetrics {
+    static final int LATENCY_SAMPLE_MASK = 63;
+
+    private static final MoveResult[] RESULTS = MoveResult.values();
+
+    private final LongAdder[] addResults = new LongAdder[RESULTS.length];
+    private final LongAdder[] moveResults = new LongAdder[RESULTS.length];
+    private final LongAdder pieceRuleChecks = new LongAdder();
+    private final LatencyHistogram addLatency = new LatencyHistogram();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram pieceRuleLatency = new LatencyHistogram();
+
+    public BoardMetrics() {
+        for (int i = 0; i < RESULTS.length; i++) {
+            addResults[i] = new LongAdder();
+            moveResults[i] = new LongAdder();
+        }
+    }
+
+    void RecordAdd(MoveResult result) {
+        addResults[result.ordinal()].increment();
+    }
+
+    void RecordAdd(MoveResult result, long latencyNanos) {
+        RecordAdd(result);
+        addLatency.Record(latencyNanos);
+    }
+
+    void RecordMove(MoveResult result) {
+        moveResults[result.ordinal()].increment();
+    }
+
+    void RecordMove(MoveResult result, long latencyNanos) {
+        RecordMove(result);
+        moveLatency.Record(latencyNanos);
+    }
+
+    void RecordPieceRuleCheck() {
+        pieceRuleChecks.increment();
+    }
+
+    void RecordPieceRuleCheck(long latencyNanos) {
+        RecordPieceRuleCheck();
+        pieceRuleLatency.Record(latencyNanos);
+    }
+
+    // Number of adds with the given result; GetAddCount(ACCEPTED) is the number accepted
+    public long GetAddCount(MoveResult result) {
+        return addResults[result.ordinal()].sum();
+    }
+
+    public long GetMoveCount(MoveResult result) {
+        return moveResults[result.ordinal()].sum();
+    }
+
+    public long GetAddRejectedCount() {
+        return Sum(addResults) - GetAddCount(MoveResult.ACCEPTED);
+    }
+
+    public long GetMoveRejectedCount() {
+        return Sum(moveResults) - GetMoveCount(MoveResult.ACCEPTED);
+    }
+
+    // Calls to a piece's IsMoveLegal made while validating moves
+    public long GetPieceRuleCheckCount() {
+        return pieceRuleChecks.sum();
+    }
+
+    // Latency of the sampled adds
+    public LatencyHistogram GetAddLatency() {
+        return addLatency;
+    }
+
+    // Latency of the sampled moves
+    public LatencyHistogram GetMoveLatency() {
+        return moveLatency;
+    }
+
+    // Latency of the sampled piece rule checks
+    public LatencyHistogram GetPieceRuleLatency() {
+        return pieceRuleLatency;
+    }
+
+    public void Reset() {
+        for (int i = 0; i < RESULTS.length; i++) {
+            addResults[i].reset();
+            moveResults[i].reset();
+        }
+        pieceRuleChecks.reset();
+        addLatency.Reset();
+        moveLatency.Reset();
+        pieceRuleLatency.Reset();
+    }
+
+    private static long Sum(LongAdder[] counters) {
+        long total = 0;
+        for (LongAdder counter : counters)
+            total += counter.sum();
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("adds:");
+        Append(builder, addResults);
+        builder.append(", moves:");
+        Append(builder, moveResults);
+        return builder.append(", piece rule checks: ").append(GetPieceRuleCheckCount())
+                .append(", move p50/p99: ").append(moveLatency.GetPercentileNanos(0.5))
+                .append('/').append(moveLatency.GetPercentileNanos(0.99)).append(" ns")
+                .append(", piece rule p50/p99: ").append(pieceRuleLatency.GetPercentileNanos(0.5))
+                .append('/').append(pieceRuleLatency.GetPercentileNanos(0.99)).append(" ns")
+                .toString();
+    }
+
+    private static void Append(StringBuilder builder, LongAdder[] counters) {
+        for (MoveResult result : RESULTS) {
+            long count = counters[result.ordinal()].sum();
+            if (count != 0)
+                builder.append(' ').append(result).append('=').append(count);
+        }
+    }
+}
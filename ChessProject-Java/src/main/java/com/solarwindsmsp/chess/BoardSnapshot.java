@@ -0,0 +1,81 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+
+// A consistent copy of a board position taken by ChessBoard.ReadSnapshot. A
+// snapshot can be refilled over and over, so reader threads can keep one each
+// and take copies without allocating. Pieces are the board's own instances,
+// located by the square they occupied in the snapshot rather than by their
+// (live) coordinates. Pieces added with ChessBoard.AddPiece may have no instance
+// yet, so GetPieceKindAt is the reliable way to see what is on a square.
+public class BoardSnapshot {
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final int COLOR_COUNT = PieceColor.values().length;
+    private static final PieceKind[] PIECE_KINDS = PieceKind.values();
+
+    final long[] pieceBitboards = new long[PIECE_TYPES.length * COLOR_COUNT];
+    final long[] occupancy = new long[COLOR_COUNT];
+    final byte[] kinds = new byte[Bitboards.SQUARE_COUNT];
+    final ChessPiece[] squares = new ChessPiece[Bitboards.SQUARE_COUNT];
+    long initialMoves;
+    long positionKey;
+    long version;
+
+    public ChessPiece GetPieceAt(int x, int y) {
+        if (x < 0 || x >= Bitboards.SIZE || y < 0 || y >= Bitboards.SIZE)
+            return null;
+        return squares[Bitboards.Square(x, y)];
+    }
+
+    public PieceKind GetPieceKindAt(int x, int y) {
+        if (x < 0 || x >= Bitboards.SIZE || y < 0 || y >= Bitboards.SIZE)
+            return null;
+        int kind = kinds[Bitboards.Square(x, y)];
+        return kind == 0 ? null : PIECE_KINDS[kind - 1];
+    }
+
+    public boolean Contains(ChessPiece piece) {
+        long occupied = GetOccupancy();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            if (squares[square] == piece)
+                return true;
+        }
+        return false;
+    }
+
+    public int GetPieceCount(Class<? extends ChessPiece> aClass, PieceColor pieceColor) {
+        int count = 0;
+        for (PieceType pieceType : PIECE_TYPES) {
+            if (aClass.isAssignableFrom(pieceType.getPieceClass()))
+                count += Long.bitCount(GetBitboard(pieceType, pieceColor));
+        }
+        return count;
+    }
+
+    public long GetBitboard(PieceType pieceType, PieceColor pieceColor) {
+        return pieceBitboards[pieceType.ordinal() * COLOR_COUNT + pieceColor.ordinal()];
+    }
+
+    public long GetOccupancy(PieceColor pieceColor) {
+        return occupancy[pieceColor.ordinal()];
+    }
+
+    public long GetOccupancy() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    public long GetInitialMoves() {
+        return initialMoves;
+    }
+
+    public long GetPositionKey() {
+        return positionKey;
+    }
+
+    // The board's version when the snapshot was taken
+    public long GetVersion() {
+        return version;
+    }
+}
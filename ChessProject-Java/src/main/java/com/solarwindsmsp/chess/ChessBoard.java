@@ -3,9 +3,13 @@ package com.solarwindsmsp.chess;
 import com.solarwindsmsp.chess.pieces.ChessPiece;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
 
 public class ChessBoard {
     // This class is the reference given to any added piece to provide
@@ -21,16 +25,75 @@ public class ChessBoard {
         }
     }
 
-    public static int MAX_BOARD_WIDTH = 8;
-    public static int MAX_BOARD_HEIGHT = 8;
+    // The bitboard representation fixes the board at 8x8 (see LargeChessBoard
+    // for other sizes)
+    public static final int MAX_BOARD_WIDTH = Bitboards.SIZE;
+    public static final int MAX_BOARD_HEIGHT = Bitboards.SIZE;
+
+    // Returned by the handle methods when there is no piece
+    public static final int NO_PIECE = -1;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final int COLOR_COUNT = PieceColor.values().length;
+    private static final int UNDO_INITIAL_MOVE = 1 << 17;
+    // Failed optimistic reads yielded through before a reader parks for a
+    // growing time (see ReadSnapshot)
+    private static final int READ_YIELDS = 16;
+    private static final long MAX_READ_PARK_NANOS = 100000;
+    private static final PieceKind[] PIECE_KINDS = PieceKind.values();
 
     private PieceColor positiveDirectionColor;
 
-    private List<ChessPiece> pieces = new ArrayList<ChessPiece>();
-    private Map<PieceColor, List<ChessPiece>> capturedPieces = new HashMap<PieceColor, List<ChessPiece>>() {{
-        put(PieceColor.WHITE, new ArrayList<ChessPiece>());
-        put(PieceColor.BLACK, new ArrayList<ChessPiece>());
-    }};
+    // Position is held as one bitboard per (piece type, color) plus an occupancy
+    // bitboard per color, with the kind (ordinal + 1, or 0 if empty) and the piece
+    // instance indexed by square so that lookups never need to scan the pieces on
+    // the board. Pieces added with AddPiece have no instance until GetPieceAt asks
+    // for one.
+    private long[] pieceBitboards = new long[PIECE_TYPES.length * COLOR_COUNT];
+    private long[] occupancy = new long[COLOR_COUNT];
+    private byte[] kinds = new byte[Bitboards.SQUARE_COUNT];
+    private ChessPiece[] squares = new ChessPiece[Bitboards.SQUARE_COUNT];
+    // Squares holding a piece that has not made its first move yet
+    private long initialMoves;
+    // Zobrist key of the position, kept up to date as pieces are placed and lifted
+    private long positionKey;
+    // Undo stack for MakeMove. Each entry is the move made, with the moving piece's
+    // prior first-move state in bit 17, plus the piece it captured (if any)
+    private int[] undoEntries = new int[32];
+    private ChessPiece[] undoCaptures = new ChessPiece[32];
+    private int undoCount;
+    // The board has a single writer. Every public change to the position takes
+    // the write stamp once, around all of its work, and bumps the version, so
+    // readers on other threads can copy a consistent position with an optimistic
+    // read (see ReadSnapshot). The private helpers that change the position
+    // expect the caller to hold the stamp. Uncontended, the stamp is one CAS to
+    // take and one to release (see ChessBoardBenchmark.writeStamp).
+    private final StampedLock lock = new StampedLock();
+    private long version;
+    private final Map<PieceColor, List<ChessPiece>> capturedPieces = new EnumMap<PieceColor, List<ChessPiece>>(PieceColor.class);
+    // Shared by every piece on this board
+    private final Reference reference = new Reference();
+    // Null unless SetMetrics has been called, so unmeasured boards pay one field read
+    private BoardMetrics metrics;
+    // Adds and moves made while measured, to pick the calls whose latency is sampled
+    private int metricsCalls;
+    // Piece rule checks made while measured, sampled the same way
+    private int pieceRuleCalls;
+    // Legal targets of the piece on each square, as returned by GetLegalTargets.
+    // Entries are valid for the squares in legalTargetsCached, and placing or
+    // lifting a piece clears only the squares whose moves depend on it
+    private long[] legalTargets = new long[Bitboards.SQUARE_COUNT];
+    private long legalTargetsCached;
+    // Squares each color attacks, kept up to date as pieces are placed and lifted
+    private long[] attacks = new long[COLOR_COUNT];
+    // Evaluation terms from white's point of view (see Evaluation). The piece
+    // square sum is updated as pieces are placed and lifted; the structure score
+    // of the files marked dirty is worked out again when Evaluate is next called
+    private int pieceSquareScore;
+    private int[] fileScores = new int[Bitboards.SIZE];
+    private int structureScore;
+    private int dirtyFiles;
+    private boolean evaluationCheck;
 
     public ChessBoard() {
         // By default, white pieces move "up" the board (+ve Y), and black down (-ve Y)
@@ -39,65 +102,161 @@ public class ChessBoard {
 
     public ChessBoard(PieceColor positiveDirectionColor) {
         this.positiveDirectionColor = positiveDirectionColor;
+        this.positionKey = Zobrist.PositiveDirectionKey(positiveDirectionColor);
+        capturedPieces.put(PieceColor.WHITE, new ArrayList<ChessPiece>());
+        capturedPieces.put(PieceColor.BLACK, new ArrayList<ChessPiece>());
+    }
+
+    // Creates an independent copy of the source board, including copies of its
+    // pieces and captured pieces
+    public ChessBoard(ChessBoard source) {
+        this(source.positiveDirectionColor);
+        long occupied = source.GetOccupancy();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int x = Bitboards.FileOf(square);
+            int y = Bitboards.RankOf(square);
+            if (source.squares[square] != null)
+                Add(source.squares[square].Copy(), x, y);
+            else
+                AddPiece(source.KindAt(square), (source.initialMoves & Bitboards.Bit(square)) != 0, x, y);
+        }
+        for (Map.Entry<PieceColor, List<ChessPiece>> entry : source.capturedPieces.entrySet()) {
+            for (ChessPiece piece : entry.getValue())
+                capturedPieces.get(entry.getKey()).add(piece.Copy());
+        }
     }
 
     public PieceColor GetPositiveDirectionColor() {
         return positiveDirectionColor;
     }
 
+    public BoardGeometry GetGeometry() {
+        return BoardGeometry.STANDARD;
+    }
+
     public boolean Add(ChessPiece piece, int x, int y) {
+        return TryAdd(piece, x, y) == MoveResult.ACCEPTED;
+    }
+
+    // As Add, but returns which rule refused the piece rather than false
+    public MoveResult TryAdd(ChessPiece piece, int x, int y) {
+        BoardMetrics metrics = this.metrics;
+        if (metrics == null)
+            return AddChecked(piece, x, y);
+        if ((++metricsCalls & BoardMetrics.LATENCY_SAMPLE_MASK) != 0) {
+            MoveResult result = AddChecked(piece, x, y);
+            metrics.RecordAdd(result);
+            return result;
+        }
+        long start = System.nanoTime();
+        MoveResult result = AddChecked(piece, x, y);
+        metrics.RecordAdd(result, System.nanoTime() - start);
+        return result;
+    }
+
+    // As ChessPiece.Move, but returns which rule refused the move rather than false
+    public MoveResult TryMove(ChessPiece piece, MovementType movementType, int newX, int newY) {
+        BoardMetrics metrics = this.metrics;
+        if (metrics == null)
+            return MoveChecked(piece, movementType, newX, newY, null);
+        if ((++metricsCalls & BoardMetrics.LATENCY_SAMPLE_MASK) != 0) {
+            MoveResult result = MoveChecked(piece, movementType, newX, newY, metrics);
+            metrics.RecordMove(result);
+            return result;
+        }
+        long start = System.nanoTime();
+        MoveResult result = MoveChecked(piece, movementType, newX, newY, metrics);
+        metrics.RecordMove(result, System.nanoTime() - start);
+        return result;
+    }
+
+    // Starts recording rejections, acceptances and latencies of adds and moves
+    // into the given metrics, or stops recording if it is null
+    public void SetMetrics(BoardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public BoardMetrics GetMetrics() {
+        return metrics;
+    }
+
+    private MoveResult AddChecked(ChessPiece piece, int x, int y) {
         // Can't add the same piece twice
         if (Contains(piece))
-            return false;
+            return MoveResult.ALREADY_ON_BOARD;
 
         // Must not exceed piece limit
-        Integer pieceLimit = piece.GetMaxInstances();
+        Integer pieceLimit = piece.GetMaxInstances(GetGeometry());
         if (pieceLimit != null && GetPieceCount(piece.getClass(), piece.getPieceColor()) >= pieceLimit)
-            return false;
+            return MoveResult.INSTANCE_LIMIT;
 
         // New position must be valid
         if (!IsLegalBoardPosition(x, y))
-            return false;
+            return MoveResult.ILLEGAL_POSITION;
 
         // Must be unoccupied
-        ChessPiece targetPiece = GetPieceAt(x, y);
-        if (!IsTargetOccupationLegal(MovementType.MOVE, piece, targetPiece))
-            return false;
+        int square = Bitboards.Square(x, y);
+        MoveResult occupation = CheckTargetOccupation(MovementType.MOVE, piece.getPieceColor(), square);
+        if (occupation != MoveResult.ACCEPTED)
+            return occupation;
 
         // Perform add
-        piece.setChessBoard(new Reference());
-        piece.setX(x);
-        piece.setY(y);
-        pieces.add(piece);
-        return true;
+        piece.setChessBoard(reference);
+        long stamp = lock.writeLock();
+        try {
+            piece.setHandle(square);
+            Place(PieceKind.Of(piece.getPieceType(), piece.getPieceColor()), piece.isInitialMove(), piece, square);
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return MoveResult.ACCEPTED;
     }
 
     private boolean Move(ChessPiece piece, MovementType movementType, int newX, int newY) {
+        return TryMove(piece, movementType, newX, newY) == MoveResult.ACCEPTED;
+    }
+
+    private MoveResult MoveChecked(ChessPiece piece, MovementType movementType, int newX, int newY, BoardMetrics metrics) {
         // Can't move a piece that's not on the board
         if (!Contains(piece))
-            return false;
+            return MoveResult.NOT_ON_BOARD;
 
         // New position must be valid
         if (!IsLegalBoardPosition(newX, newY))
-            return false;
+            return MoveResult.ILLEGAL_POSITION;
 
         // Check target space occupation is valid
-        ChessPiece targetPiece = GetPieceAt(newX, newY);
-        if (!IsTargetOccupationLegal(movementType, piece, targetPiece))
-            return false;
+        int targetSquare = Bitboards.Square(newX, newY);
+        MoveResult occupation = CheckTargetOccupation(movementType, piece.getPieceColor(), targetSquare);
+        if (occupation != MoveResult.ACCEPTED)
+            return occupation;
 
         // Apply piece specific rules
-        if (!piece.IsMoveLegal(movementType, newX, newY))
-            return false;
+        boolean legal;
+        if (metrics == null) {
+            legal = piece.IsMoveLegal(movementType, newX, newY);
+        } else if ((++pieceRuleCalls & BoardMetrics.LATENCY_SAMPLE_MASK) != 0) {
+            legal = piece.IsMoveLegal(movementType, newX, newY);
+            metrics.RecordPieceRuleCheck();
+        } else {
+            long start = System.nanoTime();
+            legal = piece.IsMoveLegal(movementType, newX, newY);
+            metrics.RecordPieceRuleCheck(System.nanoTime() - start);
+        }
+        if (!legal)
+            return MoveResult.PIECE_RULE;
 
         // Perform move
-        if (targetPiece != null) {
-            Remove(targetPiece);
-            capturedPieces.get(piece.getPieceColor()).add(targetPiece);
+        long stamp = lock.writeLock();
+        try {
+            ApplyMove(piece.getHandle(), targetSquare);
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        piece.setX(newX);
-        piece.setY(newY);
-        return true;
+        return MoveResult.ACCEPTED;
     }
 
     public boolean Remove(ChessPiece piece) {
@@ -105,55 +264,518 @@ public class ChessBoard {
         if (!Contains(piece))
             return false;
 
-        piece.setX(-1);
-        piece.setY(-1);
-        return pieces.remove(piece);
+        long stamp = lock.writeLock();
+        try {
+            Lift(piece.getHandle());
+            piece.setHandle(NO_PIECE);
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return true;
     }
 
     public boolean Contains(ChessPiece piece) {
-        return pieces.contains(piece);
+        int handle = piece.getHandle();
+        return handle >= 0 && handle < Bitboards.SQUARE_COUNT && squares[handle] == piece;
     }
 
     public int GetPieceCount(Class<? extends ChessPiece> aClass, PieceColor pieceColor) {
         int count = 0;
-        for (ChessPiece piece : pieces) {
-            if (aClass.isInstance(piece) && piece.getPieceColor().equals(pieceColor))
-                count++;
+        for (PieceType pieceType : PIECE_TYPES) {
+            if (aClass.isAssignableFrom(pieceType.getPieceClass()))
+                count += Long.bitCount(GetBitboard(pieceType, pieceColor));
         }
         return count;
     }
 
     public ChessPiece GetPieceAt(int x, int y) {
-        for (ChessPiece piece : pieces) {
-            if (piece.IsAt(x, y))
-                return piece;
+        if (!IsLegalBoardPosition(x, y))
+            return null;
+        int square = Bitboards.Square(x, y);
+        ChessPiece piece = squares[square];
+        if (piece != null || kinds[square] == 0)
+            return piece;
+
+        // The position is unchanged, so the version is too
+        long stamp = lock.writeLock();
+        try {
+            return Materialize(square);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Adds a piece held only as its kind, with no piece object, and returns its
+    // handle, or NO_PIECE if the board refuses it. A handle is the index of the
+    // square the piece is on (see Bitboards.Square), so it changes when the piece
+    // moves. The usual rules of Add apply.
+    public int AddPiece(PieceKind kind, boolean initialMove, int x, int y) {
+        // Must not exceed piece limit
+        Integer pieceLimit = kind.GetMaxInstances(GetGeometry());
+        if (pieceLimit != null && Long.bitCount(GetBitboard(kind.getPieceType(), kind.getPieceColor())) >= pieceLimit)
+            return NO_PIECE;
+
+        // New position must be valid and unoccupied
+        if (!IsLegalBoardPosition(x, y))
+            return NO_PIECE;
+        int square = Bitboards.Square(x, y);
+        if (CheckTargetOccupation(MovementType.MOVE, kind.getPieceColor(), square) != MoveResult.ACCEPTED)
+            return NO_PIECE;
+
+        long stamp = lock.writeLock();
+        try {
+            Place(kind, initialMove, null, square);
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return square;
+    }
+
+    // Moves the piece with the given handle under the same rules as
+    // ChessPiece.Move, returning its new handle, or NO_PIECE if the move is refused
+    public int MovePiece(int handle, MovementType movementType, int newX, int newY) {
+        if (!ContainsPiece(handle) || !IsLegalBoardPosition(newX, newY))
+            return NO_PIECE;
+
+        PieceKind kind = KindAt(handle);
+        int targetSquare = Bitboards.Square(newX, newY);
+        if (CheckTargetOccupation(movementType, kind.getPieceColor(), targetSquare) != MoveResult.ACCEPTED)
+            return NO_PIECE;
+
+        // A piece with an object follows that object's rules
+        ChessPiece piece = squares[handle];
+        boolean legal = piece != null
+                ? piece.IsMoveLegal(movementType, newX, newY)
+                : kind.IsMoveLegal(kind.getPieceColor() == positiveDirectionColor, (initialMoves & Bitboards.Bit(handle)) != 0,
+                        handle, movementType, targetSquare);
+        if (!legal)
+            return NO_PIECE;
+
+        long stamp = lock.writeLock();
+        try {
+            ApplyMove(handle, targetSquare);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return targetSquare;
+    }
+
+    public boolean RemovePiece(int handle) {
+        if (!ContainsPiece(handle))
+            return false;
+
+        long stamp = lock.writeLock();
+        try {
+            ChessPiece piece = squares[handle];
+            Lift(handle);
+            if (piece != null) {
+                piece.setHandle(NO_PIECE);
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    public boolean ContainsPiece(int handle) {
+        return handle >= 0 && handle < Bitboards.SQUARE_COUNT && kinds[handle] != 0;
+    }
+
+    // Handle of the piece at (x, y), or NO_PIECE if the square is empty
+    public int GetPieceHandleAt(int x, int y) {
+        if (!IsLegalBoardPosition(x, y))
+            return NO_PIECE;
+        int square = Bitboards.Square(x, y);
+        return kinds[square] != 0 ? square : NO_PIECE;
+    }
+
+    public PieceKind GetPieceKind(int handle) {
+        return ContainsPiece(handle) ? KindAt(handle) : null;
+    }
+
+    public boolean IsInitialMove(int handle) {
+        return ContainsPiece(handle) && (initialMoves & Bitboards.Bit(handle)) != 0;
+    }
+
+    // Squares the piece with the given handle may move or capture to, as a
+    // bitboard, or 0 if there is no such piece. A target is a capture if it is
+    // occupied. Answers are cached until a change nearby could alter them.
+    public long GetLegalTargets(int handle) {
+        if (!ContainsPiece(handle))
+            return 0;
+        long bit = Bitboards.Bit(handle);
+        if ((legalTargetsCached & bit) != 0)
+            return legalTargets[handle];
+
+        PieceKind kind = KindAt(handle);
+        boolean up = kind.getPieceColor() == positiveDirectionColor;
+        long targets = kind.MoveTargets(up, (initialMoves & bit) != 0, handle) & ~GetOccupancy()
+                | kind.CaptureTargets(up, handle) & GetOccupancy(kind.getPieceColor().Opposite());
+        legalTargets[handle] = targets;
+        legalTargetsCached |= bit;
+        return targets;
+    }
+
+    public long GetLegalTargets(ChessPiece piece) {
+        return Contains(piece) ? GetLegalTargets(piece.getHandle()) : 0;
+    }
+
+    // Squares attacked by the given color, whether or not they are occupied
+    public long GetAttacks(PieceColor pieceColor) {
+        return attacks[pieceColor.ordinal()];
+    }
+
+    public boolean IsAttacked(int square, PieceColor byColor) {
+        return (attacks[byColor.ordinal()] & Bitboards.Bit(square)) != 0;
+    }
+
+    public boolean IsAttacked(int x, int y, PieceColor byColor) {
+        return IsLegalBoardPosition(x, y) && IsAttacked(Bitboards.Square(x, y), byColor);
+    }
+
+    public int GetAttackerCount(int square, PieceColor byColor) {
+        if ((attacks[byColor.ordinal()] & Bitboards.Bit(square)) == 0)
+            return 0;
+        boolean up = byColor == positiveDirectionColor;
+        int count = 0;
+        for (PieceType pieceType : PIECE_TYPES)
+            count += Long.bitCount(PieceKind.Of(pieceType, byColor).Attackers(up, square) & GetBitboard(pieceType, byColor));
+        return count;
+    }
+
+    public int GetAttackerCount(int x, int y, PieceColor byColor) {
+        return IsLegalBoardPosition(x, y) ? GetAttackerCount(Bitboards.Square(x, y), byColor) : 0;
+    }
+
+    // Score of the position from the point of view of the given color, as
+    // Evaluation.Evaluate would work it out
+    public int Evaluate(PieceColor color) {
+        if (dirtyFiles != 0)
+            UpdateStructureScore();
+        int score = pieceSquareScore + structureScore;
+        if (evaluationCheck && score != Evaluation.Evaluate(this, PieceColor.WHITE))
+            throw new IllegalStateException("Incremental evaluation " + score + " differs from "
+                    + Evaluation.Evaluate(this, PieceColor.WHITE));
+        return color == PieceColor.WHITE ? score : -score;
+    }
+
+    // Makes Evaluate check every score against one worked out from scratch,
+    // throwing IllegalStateException if they differ. For debugging only.
+    public void SetEvaluationCheck(boolean evaluationCheck) {
+        this.evaluationCheck = evaluationCheck;
+    }
+
+    boolean IsLegalTargetsCached(int handle) {
+        return (legalTargetsCached & Bitboards.Bit(handle)) != 0;
+    }
+
+    public long GetBitboard(PieceType pieceType, PieceColor pieceColor) {
+        return pieceBitboards[BitboardIndex(pieceType, pieceColor)];
+    }
+
+    public long GetOccupancy(PieceColor pieceColor) {
+        return occupancy[pieceColor.ordinal()];
+    }
+
+    public long GetOccupancy() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    public long GetInitialMoves() {
+        return initialMoves;
+    }
+
+    // 64 bit Zobrist key identifying the position, stable across JVM runs
+    public long GetPositionKey() {
+        return positionKey;
+    }
+
+    // Writes every pseudo-legal move for the given color into the supplied buffer
+    // (see Moves for the encoding) and returns the number of moves written. The
+    // moves are exactly those Move would accept, captures first. The buffer must
+    // have room for Moves.MAX_MOVES entries.
+    public int GenerateMoves(PieceColor color, int[] moves) {
+        long pawns = GetBitboard(PieceType.PAWN, color);
+        long empty = ~GetOccupancy();
+        long enemies = GetOccupancy(color.Opposite());
+        long leftPawns = pawns & ~Bitboards.FILE_A;
+        long rightPawns = pawns & ~Bitboards.FILE_H;
+        long unmovedPawns = pawns & initialMoves;
+
+        int count = 0;
+        if (color == positiveDirectionColor) {
+            count = WriteMoves(moves, count, (leftPawns << 7) & enemies, -7, MovementType.CAPTURE);
+            count = WriteMoves(moves, count, (rightPawns << 9) & enemies, -9, MovementType.CAPTURE);
+            count = WriteMoves(moves, count, (pawns << 8) & empty, -8, MovementType.MOVE);
+            count = WriteMoves(moves, count, (unmovedPawns << 16) & empty, -16, MovementType.MOVE);
+        } else {
+            count = WriteMoves(moves, count, (leftPawns >>> 9) & enemies, 9, MovementType.CAPTURE);
+            count = WriteMoves(moves, count, (rightPawns >>> 7) & enemies, 7, MovementType.CAPTURE);
+            count = WriteMoves(moves, count, (pawns >>> 8) & empty, 8, MovementType.MOVE);
+            count = WriteMoves(moves, count, (unmovedPawns >>> 16) & empty, 16, MovementType.MOVE);
+        }
+        return count;
+    }
+
+    // Applies a move produced by GenerateMoves for the current position without
+    // re-validating it, recording what UnmakeMove needs to take it back
+    public void MakeMove(int move) {
+        int from = Moves.From(move);
+        int to = Moves.To(move);
+        boolean initialMove = (initialMoves & Bitboards.Bit(from)) != 0;
+
+        if (undoCount == undoEntries.length) {
+            undoEntries = Arrays.copyOf(undoEntries, undoCount * 2);
+            undoCaptures = Arrays.copyOf(undoCaptures, undoCount * 2);
+        }
+        long stamp = lock.writeLock();
+        try {
+            undoEntries[undoCount] = initialMove ? move | UNDO_INITIAL_MOVE : move;
+            // A captured piece needs an object to go on the captured list
+            undoCaptures[undoCount] = Materialize(to);
+            undoCount++;
+            ApplyMove(from, to);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Number of moves made with MakeMove that UnmakeMove can still take back
+    public int GetMoveHistoryLength() {
+        return undoCount;
+    }
+
+    // The move at the given index of the history, oldest first
+    public int GetHistoryMove(int index) {
+        if (index < 0 || index >= undoCount)
+            throw new IndexOutOfBoundsException("No move " + index + " in a history of " + undoCount);
+        return undoEntries[index] & ~UNDO_INITIAL_MOVE;
+    }
+
+    // Takes back the most recent MakeMove, returning false if there is none
+    public boolean UnmakeMove() {
+        if (undoCount == 0)
+            return false;
+
+        undoCount--;
+        int entry = undoEntries[undoCount];
+        ChessPiece targetPiece = undoCaptures[undoCount];
+        undoCaptures[undoCount] = null;
+        int from = Moves.From(entry);
+        int to = Moves.To(entry);
+        boolean initialMove = (entry & UNDO_INITIAL_MOVE) != 0;
+
+        long stamp = lock.writeLock();
+        try {
+            PieceKind kind = KindAt(to);
+            ChessPiece piece = squares[to];
+            Lift(to);
+            Place(kind, initialMove, piece, from);
+            if (piece != null) {
+                piece.setInitialMove(initialMove);
+                piece.setHandle(from);
+            }
+            if (targetPiece != null) {
+                List<ChessPiece> captured = capturedPieces.get(kind.getPieceColor());
+                captured.remove(captured.size() - 1);
+                Place(PieceKind.Of(targetPiece.getPieceType(), targetPiece.getPieceColor()), targetPiece.isInitialMove(), targetPiece, to);
+                targetPiece.setHandle(to);
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return null;
+        return true;
+    }
+
+    // Copies a consistent view of the position into the supplied snapshot and
+    // returns it. Safe to call from any thread while the owning thread keeps
+    // moving pieces: the copy is taken optimistically and retried if a change
+    // was published meanwhile. Readers never take the lock, so they never hold
+    // up the writer. A reader that keeps losing the race yields, then parks for
+    // a growing time between attempts, so it gives way to the writer rather
+    // than competing with it for the CPU.
+    public BoardSnapshot ReadSnapshot(BoardSnapshot snapshot) {
+        long parkNanos = 1000;
+        for (int attempt = 0; ; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                CopyInto(snapshot);
+                if (lock.validate(stamp))
+                    return snapshot;
+            }
+            if (attempt < READ_YIELDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos * 2, MAX_READ_PARK_NANOS);
+            }
+        }
+    }
+
+    public BoardSnapshot GetSnapshot() {
+        return ReadSnapshot(new BoardSnapshot());
+    }
+
+    // Number of changes made to the position since the board was created
+    public long GetVersion() {
+        return version;
+    }
+
+    public List<ChessPiece> GetCapturedPieces(PieceColor capturingColor) {
+        return Collections.unmodifiableList(capturedPieces.get(capturingColor));
+    }
+
+    private void CopyInto(BoardSnapshot snapshot) {
+        System.arraycopy(pieceBitboards, 0, snapshot.pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(kinds, 0, snapshot.kinds, 0, kinds.length);
+        System.arraycopy(squares, 0, snapshot.squares, 0, squares.length);
+        System.arraycopy(occupancy, 0, snapshot.occupancy, 0, occupancy.length);
+        snapshot.initialMoves = initialMoves;
+        snapshot.positionKey = positionKey;
+        snapshot.version = version;
+    }
+
+    private static int WriteMoves(int[] moves, int count, long targets, int fromOffset, MovementType movementType) {
+        while (targets != 0) {
+            int toSquare = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[count++] = Moves.Encode(toSquare + fromOffset, toSquare, movementType);
+        }
+        return count;
+    }
+
+    private static int BitboardIndex(PieceType pieceType, PieceColor pieceColor) {
+        return pieceType.ordinal() * COLOR_COUNT + pieceColor.ordinal();
+    }
+
+    // Moves the piece on the from square to the to square, capturing whatever is
+    // there, and uses up its first move. The caller holds the write stamp.
+    private void ApplyMove(int from, int to) {
+        PieceKind kind = KindAt(from);
+        ChessPiece piece = squares[from];
+        if (kinds[to] != 0) {
+            ChessPiece targetPiece = Materialize(to);
+            Lift(to);
+            targetPiece.setHandle(NO_PIECE);
+            capturedPieces.get(kind.getPieceColor()).add(targetPiece);
+        }
+        Lift(from);
+        // Any successful move uses up the piece's first move
+        Place(kind, false, piece, to);
+        if (piece != null) {
+            piece.setInitialMove(false);
+            piece.setHandle(to);
+        }
+        version++;
+    }
+
+    // The piece object on the square, creating and keeping one for a piece added
+    // with AddPiece. Keeping the object changes what snapshots copy, so the caller
+    // holds the write stamp.
+    private ChessPiece Materialize(int square) {
+        ChessPiece piece = squares[square];
+        if (piece != null || kinds[square] == 0)
+            return piece;
+        piece = KindAt(square).NewPiece((initialMoves & Bitboards.Bit(square)) != 0);
+        piece.setChessBoard(reference);
+        piece.setHandle(square);
+        squares[square] = piece;
+        return piece;
+    }
+
+    private PieceKind KindAt(int square) {
+        return PIECE_KINDS[kinds[square] - 1];
+    }
+
+    private void Place(PieceKind kind, boolean initialMove, ChessPiece piece, int square) {
+        long bit = Bitboards.Bit(square);
+        legalTargetsCached &= ~PieceKind.Dependents(square);
+        kinds[square] = (byte) (kind.ordinal() + 1);
+        squares[square] = piece;
+        pieceBitboards[BitboardIndex(kind.getPieceType(), kind.getPieceColor())] |= bit;
+        occupancy[kind.getPieceColor().ordinal()] |= bit;
+        positionKey ^= Zobrist.PieceKey(kind.getPieceType(), kind.getPieceColor(), square);
+        if (initialMove) {
+            initialMoves |= bit;
+            positionKey ^= Zobrist.InitialMoveKey(square);
+        }
+        UpdateAttacks(kind.getPieceColor());
+        UpdateEvaluation(kind, square, 1);
+    }
+
+    private void Lift(int square) {
+        PieceKind kind = KindAt(square);
+        long bit = Bitboards.Bit(square);
+        legalTargetsCached &= ~PieceKind.Dependents(square);
+        kinds[square] = 0;
+        squares[square] = null;
+        pieceBitboards[BitboardIndex(kind.getPieceType(), kind.getPieceColor())] &= ~bit;
+        occupancy[kind.getPieceColor().ordinal()] &= ~bit;
+        positionKey ^= Zobrist.PieceKey(kind.getPieceType(), kind.getPieceColor(), square);
+        if ((initialMoves & bit) != 0) {
+            initialMoves &= ~bit;
+            positionKey ^= Zobrist.InitialMoveKey(square);
+        }
+        UpdateAttacks(kind.getPieceColor());
+        UpdateEvaluation(kind, square, -1);
+    }
+
+    private void UpdateEvaluation(PieceKind kind, int square, int sign) {
+        int value = Evaluation.PieceSquare(kind.getPieceColor() == positiveDirectionColor, square);
+        pieceSquareScore += kind.getPieceColor() == PieceColor.WHITE ? sign * value : -sign * value;
+        // The structure of the file and the files beside it may have changed
+        dirtyFiles |= (0x7 << Bitboards.FileOf(square)) >>> 1;
+    }
+
+    private void UpdateStructureScore() {
+        long whitePawns = GetBitboard(PieceType.PAWN, PieceColor.WHITE);
+        long blackPawns = GetBitboard(PieceType.PAWN, PieceColor.BLACK);
+        boolean whiteUp = positiveDirectionColor == PieceColor.WHITE;
+        int files = dirtyFiles & ((1 << Bitboards.SIZE) - 1);
+        while (files != 0) {
+            int file = Integer.numberOfTrailingZeros(files);
+            files &= files - 1;
+            int fileScore = Evaluation.FileScore(file, whitePawns, blackPawns, whiteUp);
+            structureScore += fileScore - fileScores[file];
+            fileScores[file] = fileScore;
+        }
+        dirtyFiles = 0;
     }
 
-    private boolean IsTargetOccupationLegal(MovementType movementType, ChessPiece piece, ChessPiece targetPiece) {
+    private void UpdateAttacks(PieceColor pieceColor) {
+        boolean up = pieceColor == positiveDirectionColor;
+        long colorAttacks = 0;
+        for (PieceType pieceType : PIECE_TYPES)
+            colorAttacks |= PieceKind.Of(pieceType, pieceColor).Attacks(up, GetBitboard(pieceType, pieceColor));
+        attacks[pieceColor.ordinal()] = colorAttacks;
+    }
+
+    private MoveResult CheckTargetOccupation(MovementType movementType, PieceColor pieceColor, int targetSquare) {
+        long target = Bitboards.Bit(targetSquare);
         switch (movementType) {
             case MOVE:
                 // MOVE must be to an empty space
-                if (targetPiece != null)
-                    return false;
+                if ((GetOccupancy() & target) != 0)
+                    return MoveResult.TARGET_OCCUPIED;
                 break;
             case CAPTURE:
                 // Capture must be to an occupied space
-                if (targetPiece == null)
-                    return false;
+                if ((GetOccupancy() & target) == 0)
+                    return MoveResult.TARGET_EMPTY;
 
                 // Capture must be of opposite color
-                if (targetPiece.getPieceColor().equals(piece.getPieceColor()))
-                    return false;
+                if ((GetOccupancy(pieceColor) & target) != 0)
+                    return MoveResult.TARGET_OWN_PIECE;
                 break;
         }
-        return true;
+        return MoveResult.ACCEPTED;
     }
 
     public boolean IsLegalBoardPosition(int x, int y) {
-        boolean xOkay = x >= 0 && x < MAX_BOARD_WIDTH;
-        boolean yOkay = y >= 0 && y < MAX_BOARD_HEIGHT;
-        return xOkay && yOkay;
+        return Bitboards.IsOnBoard(x, y);
     }
 }
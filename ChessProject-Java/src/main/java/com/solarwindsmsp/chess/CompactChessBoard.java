@@ -0,0 +1,180 @@
+package com.solarwindsmsp.chess;
+
+// A pawn-only board held entirely in primitive fields, for keeping very large
+// numbers of games resident. Pieces are not objects here: a square holds a
+// color or nothing, and captures are kept as counts. Applies the same rules as
+// ChessBoard, and can be Reset and reused once a game is finished.
+public class CompactChessBoard {
+    private long whitePawns;
+    private long blackPawns;
+    // Squares holding a pawn that has not made its first move yet
+    private long initialMoves;
+    private int whiteCaptures;
+    private int blackCaptures;
+    private boolean whiteUp;
+
+    public CompactChessBoard() {
+        // By default, white pieces move "up" the board (+ve Y), and black down (-ve Y)
+        this(PieceColor.WHITE);
+    }
+
+    public CompactChessBoard(PieceColor positiveDirectionColor) {
+        Reset(positiveDirectionColor);
+    }
+
+    // Empties the board so it can be used for a new game
+    public void Reset(PieceColor positiveDirectionColor) {
+        whitePawns = 0;
+        blackPawns = 0;
+        initialMoves = 0;
+        whiteCaptures = 0;
+        blackCaptures = 0;
+        whiteUp = positiveDirectionColor == PieceColor.WHITE;
+    }
+
+    // Replaces the whole position. The caller is responsible for passing a
+    // position the board could have reached through Add and Move.
+    void Load(long whitePawns, long blackPawns, long initialMoves, PieceColor positiveDirectionColor) {
+        Reset(positiveDirectionColor);
+        this.whitePawns = whitePawns;
+        this.blackPawns = blackPawns;
+        this.initialMoves = initialMoves;
+    }
+
+    public PieceColor GetPositiveDirectionColor() {
+        return whiteUp ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    public boolean Add(PieceColor pieceColor, boolean initialMove, int x, int y) {
+        // New position must be valid
+        if (!IsLegalBoardPosition(x, y))
+            return false;
+
+        // Must be unoccupied
+        long bit = Bitboards.Bit(Bitboards.Square(x, y));
+        if (((whitePawns | blackPawns) & bit) != 0)
+            return false;
+
+        // Must not exceed piece limit
+        if (GetPieceCount(pieceColor) >= PieceKind.Of(PieceType.PAWN, pieceColor).GetMaxInstances(BoardGeometry.STANDARD))
+            return false;
+
+        if (pieceColor == PieceColor.WHITE)
+            whitePawns |= bit;
+        else
+            blackPawns |= bit;
+        if (initialMove)
+            initialMoves |= bit;
+        return true;
+    }
+
+    public boolean Remove(int x, int y) {
+        if (!IsLegalBoardPosition(x, y))
+            return false;
+
+        long bit = Bitboards.Bit(Bitboards.Square(x, y));
+        if (((whitePawns | blackPawns) & bit) == 0)
+            return false;
+
+        whitePawns &= ~bit;
+        blackPawns &= ~bit;
+        initialMoves &= ~bit;
+        return true;
+    }
+
+    public boolean Move(int x, int y, MovementType movementType, int newX, int newY) {
+        if (!IsLegalBoardPosition(x, y) || !IsLegalBoardPosition(newX, newY))
+            return false;
+        return Move(Moves.Encode(Bitboards.Square(x, y), Bitboards.Square(newX, newY), movementType));
+    }
+
+    // Applies the encoded move (see Moves) if ChessBoard.Move would accept it
+    public boolean Move(int move) {
+        if (!PawnMoves.IsLegal(whitePawns, blackPawns, initialMoves, whiteUp, move))
+            return false;
+
+        long fromBit = Bitboards.Bit(Moves.From(move));
+        long toBit = Bitboards.Bit(Moves.To(move));
+        boolean white = (whitePawns & fromBit) != 0;
+        if (Moves.IsCapture(move)) {
+            if (white) {
+                blackPawns &= ~toBit;
+                whiteCaptures++;
+            } else {
+                whitePawns &= ~toBit;
+                blackCaptures++;
+            }
+            initialMoves &= ~toBit;
+        }
+        if (white)
+            whitePawns ^= fromBit | toBit;
+        else
+            blackPawns ^= fromBit | toBit;
+        // Any successful move uses up the pawn's first move
+        initialMoves &= ~fromBit;
+        return true;
+    }
+
+    // Color of the pawn on the given square, or null if it is empty
+    public PieceColor GetPieceColorAt(int x, int y) {
+        if (!IsLegalBoardPosition(x, y))
+            return null;
+        long bit = Bitboards.Bit(Bitboards.Square(x, y));
+        if ((whitePawns & bit) != 0)
+            return PieceColor.WHITE;
+        if ((blackPawns & bit) != 0)
+            return PieceColor.BLACK;
+        return null;
+    }
+
+    public boolean IsInitialMove(int x, int y) {
+        return IsLegalBoardPosition(x, y) && (initialMoves & Bitboards.Bit(Bitboards.Square(x, y))) != 0;
+    }
+
+    public int GetPieceCount(PieceColor pieceColor) {
+        return Long.bitCount(GetOccupancy(pieceColor));
+    }
+
+    // Number of pieces captured by the given color
+    public int GetCapturedCount(PieceColor capturingColor) {
+        return capturingColor == PieceColor.WHITE ? whiteCaptures : blackCaptures;
+    }
+
+    public long GetOccupancy(PieceColor pieceColor) {
+        return pieceColor == PieceColor.WHITE ? whitePawns : blackPawns;
+    }
+
+    public long GetOccupancy() {
+        return whitePawns | blackPawns;
+    }
+
+    public long GetInitialMoves() {
+        return initialMoves;
+    }
+
+    // Same key ChessBoard.GetPositionKey gives for the same position
+    public long GetPositionKey() {
+        long key = Zobrist.PositiveDirectionKey(GetPositiveDirectionColor());
+        key ^= PieceKeys(whitePawns, PieceColor.WHITE);
+        key ^= PieceKeys(blackPawns, PieceColor.BLACK);
+        long unmoved = initialMoves;
+        while (unmoved != 0) {
+            key ^= Zobrist.InitialMoveKey(Long.numberOfTrailingZeros(unmoved));
+            unmoved &= unmoved - 1;
+        }
+        return key;
+    }
+
+    public boolean IsLegalBoardPosition(int x, int y) {
+        return Bitboards.IsOnBoard(x, y);
+    }
+
+    private static long PieceKeys(long pawns, PieceColor pieceColor) {
+        long key = 0;
+        while (pawns != 0) {
+            key ^= Zobrist.PieceKey(PieceType.PAWN, pieceColor, Long.numberOfTrailingZeros(pawns));
+            pawns &= pawns - 1;
+        }
+        return key;
+    }
+}
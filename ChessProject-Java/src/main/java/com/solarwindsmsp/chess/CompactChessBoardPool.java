@@ -0,0 +1,35 @@
+package com.solarwindsmsp.chess;
+
+// Recycles finished CompactChessBoards so that starting a game does not
+// allocate. Not thread-safe: give each worker thread its own pool.
+public class CompactChessBoardPool {
+    private final CompactChessBoard[] boards;
+    private int size;
+
+    public CompactChessBoardPool(int capacity) {
+        boards = new CompactChessBoard[capacity];
+    }
+
+    // Returns an empty board, reusing a released one when available
+    public CompactChessBoard Acquire(PieceColor positiveDirectionColor) {
+        if (size == 0)
+            return new CompactChessBoard(positiveDirectionColor);
+        CompactChessBoard board = boards[--size];
+        boards[size] = null;
+        board.Reset(positiveDirectionColor);
+        return board;
+    }
+
+    // Hands a finished board back for reuse. Returns false (and drops the
+    // board) if the pool is already full.
+    public boolean Release(CompactChessBoard board) {
+        if (size == boards.length)
+            return false;
+        boards[size++] = board;
+        return true;
+    }
+
+    public int GetSize() {
+        return size;
+    }
+}
@@ -0,0 +1,88 @@
+package com.solarwindsmsp.chess;
+
+// Terms of the static evaluation of a pawn position, in hundredths of a pawn.
+// Each pawn is worth PAWN_VALUE plus a bonus for how far it has advanced, which
+// depends only on its own square. Pawn structure (passed, doubled and isolated
+// pawns) is scored a file at a time, and a file's score depends only on the
+// pawns on that file and the files beside it. ChessBoard keeps both parts up
+// to date as pieces are placed and lifted (see ChessBoard.Evaluate); Evaluate
+// here works the score out from scratch.
+public final class Evaluation {
+    public static final int PAWN_VALUE = 100;
+    public static final int DOUBLED_PENALTY = 15;
+    public static final int ISOLATED_PENALTY = 12;
+
+    // Bonus by the number of ranks a pawn has advanced from the first rank
+    private static final int[] ADVANCEMENT = {0, 0, 4, 10, 20, 35, 60, 0};
+    private static final int[] PASSED = {0, 0, 10, 20, 35, 60, 100, 0};
+
+    private Evaluation() {
+    }
+
+    // Score of the position from the point of view of the given color
+    public static int Evaluate(ChessBoard board, PieceColor color) {
+        boolean whiteUp = board.GetPositiveDirectionColor() == PieceColor.WHITE;
+        long whitePawns = board.GetBitboard(PieceType.PAWN, PieceColor.WHITE);
+        long blackPawns = board.GetBitboard(PieceType.PAWN, PieceColor.BLACK);
+        int score = 0;
+        long pawns = whitePawns | blackPawns;
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            boolean white = (whitePawns & Bitboards.Bit(square)) != 0;
+            int value = PieceSquare(white == whiteUp, square);
+            score += white ? value : -value;
+        }
+        for (int file = 0; file < Bitboards.SIZE; file++)
+            score += FileScore(file, whitePawns, blackPawns, whiteUp);
+        return color == PieceColor.WHITE ? score : -score;
+    }
+
+    // Value of a pawn on the square, for a pawn moving up or down the board
+    public static int PieceSquare(boolean up, int square) {
+        return PAWN_VALUE + ADVANCEMENT[Advanced(up, square)];
+    }
+
+    // Structure score of the pawns on the file, white's minus black's
+    public static int FileScore(int file, long whitePawns, long blackPawns, boolean whiteUp) {
+        return ColorFileScore(file, whitePawns, blackPawns, whiteUp) - ColorFileScore(file, blackPawns, whitePawns, !whiteUp);
+    }
+
+    private static int ColorFileScore(int file, long pawns, long enemies, boolean up) {
+        long fileMask = Bitboards.FILE_A << file;
+        long onFile = pawns & fileMask;
+        if (onFile == 0)
+            return 0;
+
+        int count = Long.bitCount(onFile);
+        int score = -DOUBLED_PENALTY * (count - 1);
+        if ((pawns & AdjacentFiles(fileMask)) == 0)
+            score -= ISOLATED_PENALTY * count;
+        while (onFile != 0) {
+            int square = Long.numberOfTrailingZeros(onFile);
+            onFile &= onFile - 1;
+            if ((enemies & Ahead(square, up)) == 0)
+                score += PASSED[Advanced(up, square)];
+        }
+        return score;
+    }
+
+    private static int Advanced(boolean up, int square) {
+        return up ? Bitboards.RankOf(square) : Bitboards.SIZE - 1 - Bitboards.RankOf(square);
+    }
+
+    private static long AdjacentFiles(long fileMask) {
+        return ((fileMask & ~Bitboards.FILE_H) << 1) | ((fileMask & ~Bitboards.FILE_A) >>> 1);
+    }
+
+    // Squares on the pawn's file and the files beside it that lie ahead of it
+    static long Ahead(int square, boolean up) {
+        long file = Bitboards.FILE_A << Bitboards.FileOf(square);
+        long files = file | AdjacentFiles(file);
+        int rank = Bitboards.RankOf(square);
+        long ranks = up
+                ? (rank == Bitboards.SIZE - 1 ? 0 : -1L << ((rank + 1) * Bitboards.SIZE))
+                : (1L << (rank * Bitboards.SIZE)) - 1;
+        return files & ranks;
+    }
+}
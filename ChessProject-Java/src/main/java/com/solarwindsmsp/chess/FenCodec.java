@@ -0,0 +1,205 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+import java.nio.ByteBuffer;
+
+// Reads and writes positions as FEN-style text. The first field is standard FEN
+// piece placement (rank 8 first, 'P' for a white pawn, 'p' for a black one,
+// digits for runs of empty squares). The second field is the color that moves
+// up the board, 'w' or 'b', and the third lists the squares of pawns that still
+// have their first move (for example "a2b2g7"), or '-' if there are none:
+//
+//     8/pppppppp/8/8/8/8/PPPPPPPP/8 w a2b2c2d2e2f2g2h2a7b7c7d7e7f7g7h7
+//
+// Text is built in a scratch buffer owned by the codec and copied straight to
+// the caller's StringBuilder or ByteBuffer, so no Strings are created. A codec
+// is not thread-safe; give each thread its own.
+public final class FenCodec {
+    // Longest text the format can produce: full placement, both flags and 16 squares
+    public static final int MAX_LENGTH = 71 + 3 + 2 * 2 * ChessBoard.MAX_BOARD_WIDTH;
+
+    private final char[] scratch = new char[MAX_LENGTH + 1];
+    private long whitePawns;
+    private long blackPawns;
+    private long initialMoves;
+    private PieceColor positiveDirectionColor;
+
+    public void Write(ChessBoard board, StringBuilder target) {
+        target.append(scratch, 0, Format(board.GetOccupancy(PieceColor.WHITE), board.GetOccupancy(PieceColor.BLACK),
+                board.GetInitialMoves(), board.GetPositiveDirectionColor()));
+    }
+
+    public void Write(CompactChessBoard board, StringBuilder target) {
+        target.append(scratch, 0, Format(board.GetOccupancy(PieceColor.WHITE), board.GetOccupancy(PieceColor.BLACK),
+                board.GetInitialMoves(), board.GetPositiveDirectionColor()));
+    }
+
+    // Writes the text as ASCII bytes
+    public void Write(ChessBoard board, ByteBuffer target) {
+        Put(Format(board.GetOccupancy(PieceColor.WHITE), board.GetOccupancy(PieceColor.BLACK),
+                board.GetInitialMoves(), board.GetPositiveDirectionColor()), target);
+    }
+
+    public void Write(CompactChessBoard board, ByteBuffer target) {
+        Put(Format(board.GetOccupancy(PieceColor.WHITE), board.GetOccupancy(PieceColor.BLACK),
+                board.GetInitialMoves(), board.GetPositiveDirectionColor()), target);
+    }
+
+    public void Read(CharSequence source, CompactChessBoard target) {
+        int length = source.length();
+        if (length > MAX_LENGTH)
+            throw new IllegalArgumentException("FEN too long");
+        for (int i = 0; i < length; i++)
+            scratch[i] = source.charAt(i);
+        Parse(length);
+        target.Load(whitePawns, blackPawns, initialMoves, positiveDirectionColor);
+    }
+
+    // Reads ASCII text up to the end of the line ("\n" or "\r\n") or the buffer's
+    // limit, leaving the buffer positioned after the line
+    public void Read(ByteBuffer source, CompactChessBoard target) {
+        int length = 0;
+        while (source.hasRemaining()) {
+            char c = (char) (source.get() & 0xFF);
+            if (c == '\n')
+                break;
+            // One more than the longest text, for the '\r' of a CRLF line end
+            if (length == MAX_LENGTH + 1)
+                throw new IllegalArgumentException("FEN too long");
+            scratch[length++] = c;
+        }
+        if (length > 0 && scratch[length - 1] == '\r')
+            length--;
+        if (length > MAX_LENGTH)
+            throw new IllegalArgumentException("FEN too long");
+        Parse(length);
+        target.Load(whitePawns, blackPawns, initialMoves, positiveDirectionColor);
+    }
+
+    // Reads the text into a new board
+    public ChessBoard Read(CharSequence source) {
+        CompactChessBoard compact = new CompactChessBoard();
+        Read(source, compact);
+        ChessBoard board = new ChessBoard(compact.GetPositiveDirectionColor());
+        long pawns = compact.GetOccupancy();
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            int x = Bitboards.FileOf(square);
+            int y = Bitboards.RankOf(square);
+            board.Add(new Pawn(compact.GetPieceColorAt(x, y), compact.IsInitialMove(x, y)), x, y);
+        }
+        return board;
+    }
+
+    private void Put(int length, ByteBuffer target) {
+        for (int i = 0; i < length; i++)
+            target.put((byte) scratch[i]);
+    }
+
+    private int Format(long whitePawns, long blackPawns, long initialMoves, PieceColor positiveDirectionColor) {
+        int length = 0;
+        for (int y = ChessBoard.MAX_BOARD_HEIGHT - 1; y >= 0; y--) {
+            int empty = 0;
+            for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+                long bit = Bitboards.Bit(Bitboards.Square(x, y));
+                char piece = (whitePawns & bit) != 0 ? 'P' : (blackPawns & bit) != 0 ? 'p' : 0;
+                if (piece == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0)
+                    scratch[length++] = (char) ('0' + empty);
+                empty = 0;
+                scratch[length++] = piece;
+            }
+            if (empty > 0)
+                scratch[length++] = (char) ('0' + empty);
+            if (y > 0)
+                scratch[length++] = '/';
+        }
+
+        scratch[length++] = ' ';
+        scratch[length++] = positiveDirectionColor == PieceColor.WHITE ? 'w' : 'b';
+        scratch[length++] = ' ';
+        if (initialMoves == 0)
+            scratch[length++] = '-';
+        while (initialMoves != 0) {
+            int square = Long.numberOfTrailingZeros(initialMoves);
+            initialMoves &= initialMoves - 1;
+            scratch[length++] = (char) ('a' + Bitboards.FileOf(square));
+            scratch[length++] = (char) ('1' + Bitboards.RankOf(square));
+        }
+        return length;
+    }
+
+    private void Parse(int length) {
+        long white = 0;
+        long black = 0;
+        int i = 0;
+        int x = 0;
+        int y = ChessBoard.MAX_BOARD_HEIGHT - 1;
+        for (; i < length && scratch[i] != ' '; i++) {
+            char c = scratch[i];
+            if (c == '/') {
+                if (x != ChessBoard.MAX_BOARD_WIDTH || y == 0)
+                    throw Invalid("Misplaced rank separator", i);
+                x = 0;
+                y--;
+            } else if (c >= '1' && c <= '8') {
+                x += c - '0';
+                if (x > ChessBoard.MAX_BOARD_WIDTH)
+                    throw Invalid("Rank too long", i);
+            } else if (c == 'P' || c == 'p') {
+                if (x >= ChessBoard.MAX_BOARD_WIDTH)
+                    throw Invalid("Rank too long", i);
+                long bit = Bitboards.Bit(Bitboards.Square(x++, y));
+                if (c == 'P')
+                    white |= bit;
+                else
+                    black |= bit;
+            } else {
+                throw Invalid("Unsupported piece '" + c + "'", i);
+            }
+        }
+        if (x != ChessBoard.MAX_BOARD_WIDTH || y != 0)
+            throw Invalid("Incomplete piece placement", i);
+        if (Long.bitCount(white) > ChessBoard.MAX_BOARD_WIDTH || Long.bitCount(black) > ChessBoard.MAX_BOARD_WIDTH)
+            throw Invalid("Too many pawns", i);
+
+        if (i + 2 >= length || scratch[i + 2] != ' ')
+            throw Invalid("Missing direction field", i);
+        char direction = scratch[i + 1];
+        if (direction != 'w' && direction != 'b')
+            throw Invalid("Direction must be 'w' or 'b'", i + 1);
+        i += 3;
+
+        long initial = 0;
+        if (i < length && scratch[i] == '-') {
+            i++;
+        } else {
+            for (; i + 1 < length && scratch[i] != ' '; i += 2) {
+                int file = scratch[i] - 'a';
+                int rank = scratch[i + 1] - '1';
+                if (file < 0 || file >= ChessBoard.MAX_BOARD_WIDTH || rank < 0 || rank >= ChessBoard.MAX_BOARD_HEIGHT)
+                    throw Invalid("Invalid square", i);
+                long bit = Bitboards.Bit(Bitboards.Square(file, rank));
+                if (((white | black) & bit) == 0)
+                    throw Invalid("First move flag on an empty square", i);
+                initial |= bit;
+            }
+        }
+        if (i != length)
+            throw Invalid("Unexpected trailing text", i);
+
+        whitePawns = white;
+        blackPawns = black;
+        initialMoves = initial;
+        positiveDirectionColor = direction == 'w' ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    private static IllegalArgumentException Invalid(String message, int index) {
+        return new IllegalArgumentException(message + " at index " + index);
+    }
+}
@@ -0,0 +1,262 @@
+package com.solarwindsmsp.chess;
+
+// A pawn-only board of any BoardGeometry, for variants played on boards other
+// than 8x8. Like CompactChessBoard it holds no piece objects: each color's
+// pawns, and the pawns that have not made their first move, are bitsets of as
+// many longs as the board's squares need (see Bitsets), with square =
+// y * width + x. GenerateMoves finds the moves of all of a color's pawns at once
+// by shifting whole bitsets a rank forward, as ChessBoard.GenerateMoves does
+// with single longs. Applies the same rules as ChessBoard, with at most
+// GetMaxPawns pawns of each color.
+//
+// Standard games should use ChessBoard or CompactChessBoard, which are
+// specialised for the 8x8 board.
+public class LargeChessBoard {
+    // Encoded moves hold the source square in the low bits, then the target
+    // square, then the movement type
+    private static final int SQUARE_BITS = 14;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final MovementType[] MOVEMENT_TYPES = MovementType.values();
+
+    private final BoardGeometry geometry;
+    private final int width;
+    private final long[] whitePawns;
+    private final long[] blackPawns;
+    // Squares holding a pawn that has not made its first move yet
+    private final long[] initialMoves;
+    // Squares on the board, and those off the first and last files, from which
+    // a capture does not wrap round to the other side of the board
+    private final long[] squares;
+    private final long[] notFirstFile;
+    private final long[] notLastFile;
+    // Working space for GenerateMoves
+    private final long[] sources;
+    private final long[] targets;
+    private final long[] empty;
+    private int whiteCaptures;
+    private int blackCaptures;
+    private boolean whiteUp;
+
+    public LargeChessBoard(BoardGeometry geometry) {
+        // By default, white pieces move "up" the board (+ve Y), and black down (-ve Y)
+        this(geometry, PieceColor.WHITE);
+    }
+
+    public LargeChessBoard(BoardGeometry geometry, PieceColor positiveDirectionColor) {
+        this.geometry = geometry;
+        this.width = geometry.GetWidth();
+        int words = Bitsets.WordCount(geometry.GetSquareCount());
+        whitePawns = new long[words];
+        blackPawns = new long[words];
+        initialMoves = new long[words];
+        squares = new long[words];
+        notFirstFile = new long[words];
+        notLastFile = new long[words];
+        sources = new long[words];
+        targets = new long[words];
+        empty = new long[words];
+        for (int square = 0; square < geometry.GetSquareCount(); square++) {
+            Bitsets.Set(squares, square);
+            if (geometry.FileOf(square) != 0)
+                Bitsets.Set(notFirstFile, square);
+            if (geometry.FileOf(square) != width - 1)
+                Bitsets.Set(notLastFile, square);
+        }
+        whiteUp = positiveDirectionColor == PieceColor.WHITE;
+    }
+
+    public static int EncodeMove(int fromSquare, int toSquare, MovementType movementType) {
+        return fromSquare | toSquare << SQUARE_BITS | movementType.ordinal() << (2 * SQUARE_BITS);
+    }
+
+    public static int MoveFrom(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int MoveTo(int move) {
+        return (move >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    public static MovementType GetMovementType(int move) {
+        return MOVEMENT_TYPES[move >>> (2 * SQUARE_BITS)];
+    }
+
+    public BoardGeometry GetGeometry() {
+        return geometry;
+    }
+
+    public PieceColor GetPositiveDirectionColor() {
+        return whiteUp ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    // Most pawns of each color the board may hold
+    public int GetMaxPawns() {
+        return PieceKind.WHITE_PAWN.GetMaxInstances(geometry);
+    }
+
+    // Largest number of moves GenerateMoves can return: each pawn has at most a
+    // push, a double step and two captures
+    public int GetMaxMoves() {
+        return 4 * GetMaxPawns();
+    }
+
+    public boolean Add(PieceColor pieceColor, boolean initialMove, int x, int y) {
+        // New position must be valid
+        if (!IsLegalBoardPosition(x, y))
+            return false;
+
+        // Must be unoccupied
+        int square = geometry.Square(x, y);
+        if (Bitsets.Get(whitePawns, square) || Bitsets.Get(blackPawns, square))
+            return false;
+
+        // Must not exceed piece limit
+        if (GetPieceCount(pieceColor) >= GetMaxPawns())
+            return false;
+
+        Bitsets.Set(Pawns(pieceColor), square);
+        if (initialMove)
+            Bitsets.Set(initialMoves, square);
+        return true;
+    }
+
+    public boolean Remove(int x, int y) {
+        if (GetPieceColorAt(x, y) == null)
+            return false;
+
+        int square = geometry.Square(x, y);
+        Bitsets.Clear(whitePawns, square);
+        Bitsets.Clear(blackPawns, square);
+        Bitsets.Clear(initialMoves, square);
+        return true;
+    }
+
+    public boolean Move(int x, int y, MovementType movementType, int newX, int newY) {
+        if (!IsLegalBoardPosition(x, y) || !IsLegalBoardPosition(newX, newY))
+            return false;
+        return Move(EncodeMove(geometry.Square(x, y), geometry.Square(newX, newY), movementType));
+    }
+
+    // Applies the encoded move if ChessBoard.Move would accept it on a board of
+    // this size
+    public boolean Move(int move) {
+        if (!IsLegal(move))
+            return false;
+
+        int from = MoveFrom(move);
+        int to = MoveTo(move);
+        boolean white = Bitsets.Get(whitePawns, from);
+        if (GetMovementType(move) == MovementType.CAPTURE) {
+            Bitsets.Clear(white ? blackPawns : whitePawns, to);
+            Bitsets.Clear(initialMoves, to);
+            if (white)
+                whiteCaptures++;
+            else
+                blackCaptures++;
+        }
+        long[] pawns = white ? whitePawns : blackPawns;
+        Bitsets.Clear(pawns, from);
+        Bitsets.Set(pawns, to);
+        // Any successful move uses up the pawn's first move
+        Bitsets.Clear(initialMoves, from);
+        return true;
+    }
+
+    // Whether Move would accept the encoded move
+    public boolean IsLegal(int move) {
+        int from = MoveFrom(move);
+        int to = MoveTo(move);
+        int squareCount = geometry.GetSquareCount();
+        if (from >= squareCount || to >= squareCount || move >>> (2 * SQUARE_BITS) >= MOVEMENT_TYPES.length)
+            return false;
+
+        boolean white = Bitsets.Get(whitePawns, from);
+        if (!white && !Bitsets.Get(blackPawns, from))
+            return false;
+
+        int direction = white == whiteUp ? 1 : -1;
+        int xDisplacement = geometry.FileOf(to) - geometry.FileOf(from);
+        int yDisplacement = (geometry.RankOf(to) - geometry.RankOf(from)) * direction;
+        if (GetMovementType(move) == MovementType.CAPTURE) {
+            // Pawns can only capture one space diagonally left or right
+            return (xDisplacement == 1 || xDisplacement == -1) && yDisplacement == 1
+                    && Bitsets.Get(white ? blackPawns : whitePawns, to);
+        }
+
+        // Pawns can only move 1 space forward, or 2 on their first move
+        int maxYDisplacement = Bitsets.Get(initialMoves, from) ? 2 : 1;
+        return xDisplacement == 0 && yDisplacement >= 1 && yDisplacement <= maxYDisplacement
+                && !Bitsets.Get(whitePawns, to) && !Bitsets.Get(blackPawns, to);
+    }
+
+    // Writes the encoded moves of every pawn of the color, captures first, and
+    // returns how many there are. The array must hold GetMaxMoves moves.
+    public int GenerateMoves(PieceColor color, int[] moves) {
+        long[] pawns = Pawns(color);
+        long[] enemies = Pawns(color.Opposite());
+        for (int i = 0; i < empty.length; i++)
+            empty[i] = squares[i] & ~(whitePawns[i] | blackPawns[i]);
+        boolean up = (color == PieceColor.WHITE) == whiteUp;
+
+        int count = 0;
+        // Left and right captures, the push and the double step, as the distance
+        // from the source square to the target
+        Bitsets.And(pawns, notFirstFile, sources);
+        count = WriteMoves(moves, count, sources, up ? width - 1 : -width - 1, enemies, MovementType.CAPTURE);
+        Bitsets.And(pawns, notLastFile, sources);
+        count = WriteMoves(moves, count, sources, up ? width + 1 : -width + 1, enemies, MovementType.CAPTURE);
+        count = WriteMoves(moves, count, pawns, up ? width : -width, empty, MovementType.MOVE);
+        Bitsets.And(pawns, initialMoves, sources);
+        count = WriteMoves(moves, count, sources, up ? 2 * width : -2 * width, empty, MovementType.MOVE);
+        return count;
+    }
+
+    private int WriteMoves(int[] moves, int count, long[] from, int distance, long[] mask, MovementType movementType) {
+        if (distance >= 0)
+            Bitsets.ShiftUp(from, distance, mask, targets);
+        else
+            Bitsets.ShiftDown(from, -distance, mask, targets);
+        for (int i = 0; i < targets.length; i++) {
+            long word = targets[i];
+            while (word != 0) {
+                int to = (i << 6) + Long.numberOfTrailingZeros(word);
+                moves[count++] = EncodeMove(to - distance, to, movementType);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    // Color of the pawn on the given square, or null if it is empty
+    public PieceColor GetPieceColorAt(int x, int y) {
+        if (!IsLegalBoardPosition(x, y))
+            return null;
+        int square = geometry.Square(x, y);
+        if (Bitsets.Get(whitePawns, square))
+            return PieceColor.WHITE;
+        if (Bitsets.Get(blackPawns, square))
+            return PieceColor.BLACK;
+        return null;
+    }
+
+    public boolean IsInitialMove(int x, int y) {
+        return IsLegalBoardPosition(x, y) && Bitsets.Get(initialMoves, geometry.Square(x, y));
+    }
+
+    public int GetPieceCount(PieceColor pieceColor) {
+        return Bitsets.Count(Pawns(pieceColor));
+    }
+
+    // Number of pieces captured by the given color
+    public int GetCapturedCount(PieceColor capturingColor) {
+        return capturingColor == PieceColor.WHITE ? whiteCaptures : blackCaptures;
+    }
+
+    public boolean IsLegalBoardPosition(int x, int y) {
+        return geometry.IsOnBoard(x, y);
+    }
+
+    private long[] Pawns(PieceColor pieceColor) {
+        return pieceColor == PieceColor.WHITE ? whitePawns : blackPawns;
+    }
+}
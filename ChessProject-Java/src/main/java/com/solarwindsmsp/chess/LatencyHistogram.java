@@ -0,0 +1,52 @@
+package com.solarwindsmsp.chess;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts latencies in power of two buckets, so percentiles are reported as the
+// upper bound of their bucket. Buckets are LongAdders, so threads recording at
+// the same time do not contend on a shared counter.
+public final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    public void Record(long latencyNanos) {
+        // Bucket i holds latencies from 2^i up to 2^(i+1) - 1
+        buckets[BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(latencyNanos, 1))].increment();
+    }
+
+    public long GetCount() {
+        long total = 0;
+        for (LongAdder bucket : buckets)
+            total += bucket.sum();
+        return total;
+    }
+
+    // Latency that the given fraction (0 to 1) of the recorded calls completed within
+    public long GetPercentileNanos(double fraction) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        long threshold = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold && seen > 0)
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (2L << i) - 1;
+        }
+        return 0;
+    }
+
+    public void Reset() {
+        for (LongAdder bucket : buckets)
+            bucket.reset();
+    }
+}
@@ -0,0 +1,27 @@
+package com.solarwindsmsp.chess;
+
+// Outcome of ChessBoard.TryAdd and TryMove, naming the rule that refused the
+// piece when it was not accepted
+public enum MoveResult {
+    ACCEPTED,
+    // Move of a piece that is not on the board
+    NOT_ON_BOARD,
+    // Add of a piece that is already on the board
+    ALREADY_ON_BOARD,
+    // Add beyond the piece's GetMaxInstances
+    INSTANCE_LIMIT,
+    // Target outside the board
+    ILLEGAL_POSITION,
+    // Add or MOVE to an occupied square
+    TARGET_OCCUPIED,
+    // CAPTURE of an empty square
+    TARGET_EMPTY,
+    // CAPTURE of a piece of the same color
+    TARGET_OWN_PIECE,
+    // Refused by the piece's IsMoveLegal
+    PIECE_RULE;
+
+    public boolean IsAccepted() {
+        return this == ACCEPTED;
+    }
+}
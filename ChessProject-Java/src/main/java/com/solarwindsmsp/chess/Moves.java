@@ -0,0 +1,34 @@
+package com.solarwindsmsp.chess;
+
+// Moves are passed around as primitive ints so that they can be generated into
+// caller supplied buffers without allocating. Bits 0-7 hold the source square,
+// bits 8-15 the target square and bit 16 the movement type.
+public final class Moves {
+    // Upper bound on the number of moves a single color can have in one position
+    public static final int MAX_MOVES = 256;
+
+    private static final MovementType[] MOVEMENT_TYPES = MovementType.values();
+
+    private Moves() {
+    }
+
+    public static int Encode(int fromSquare, int toSquare, MovementType movementType) {
+        return fromSquare | (toSquare << 8) | (movementType.ordinal() << 16);
+    }
+
+    public static int From(int move) {
+        return move & 0xFF;
+    }
+
+    public static int To(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    public static MovementType GetMovementType(int move) {
+        return MOVEMENT_TYPES[move >>> 16];
+    }
+
+    public static boolean IsCapture(int move) {
+        return (move >>> 16) == MovementType.CAPTURE.ordinal();
+    }
+}
@@ -0,0 +1,43 @@
+package com.solarwindsmsp.chess;
+
+// The pawn rules (see Pawn.IsMoveLegal and ChessBoard.Move) expressed over bare
+// bitboards, for board representations that do not hold piece objects
+public final class PawnMoves {
+
+    private PawnMoves() {
+    }
+
+    // Whether the encoded move (see Moves) is one ChessBoard.Move would accept in
+    // the position given by the white and black pawn bitboards, the squares whose
+    // pawn still has its first move, and whether white moves up the board
+    public static boolean IsLegal(long whitePawns, long blackPawns, long initialMoves, boolean whiteUp, int move) {
+        int from = Moves.From(move);
+        int to = Moves.To(move);
+        if (from >= Bitboards.SQUARE_COUNT || to >= Bitboards.SQUARE_COUNT)
+            return false;
+
+        long fromBit = Bitboards.Bit(from);
+        long toBit = Bitboards.Bit(to);
+        boolean moverWhite = (whitePawns & fromBit) != 0;
+        if (!moverWhite && (blackPawns & fromBit) == 0)
+            return false;
+
+        boolean up = whiteUp == moverWhite;
+        if (Moves.IsCapture(move)) {
+            long enemy = moverWhite ? blackPawns : whitePawns;
+            return (PawnTables.CaptureTargets(up, from) & toBit & enemy) != 0;
+        }
+
+        long targets = PawnTables.PushTargets(up, from);
+        if ((initialMoves & fromBit) != 0)
+            targets |= PawnTables.DoublePushTargets(up, from);
+        return (targets & toBit & ~(whitePawns | blackPawns)) != 0;
+    }
+
+    // Squares attacked by the given pawns
+    public static long CaptureTargets(long pawns, boolean up) {
+        long left = pawns & ~Bitboards.FILE_A;
+        long right = pawns & ~Bitboards.FILE_H;
+        return up ? (left << 7) | (right << 9) : (left >>> 9) | (right >>> 7);
+    }
+}
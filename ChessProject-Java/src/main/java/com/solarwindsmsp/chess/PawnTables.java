@@ -0,0 +1,46 @@
+package com.solarwindsmsp.chess;
+
+// Pawn targets for every square, precomputed for both directions of travel so
+// that rule checks are a lookup and a mask test. "Up" is the direction of
+// increasing Y, taken by pawns of the board's positive direction color.
+public final class PawnTables {
+    private static final long[] PUSH = new long[2 * Bitboards.SQUARE_COUNT];
+    private static final long[] DOUBLE_PUSH = new long[2 * Bitboards.SQUARE_COUNT];
+    private static final long[] CAPTURE = new long[2 * Bitboards.SQUARE_COUNT];
+
+    static {
+        for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+            long bit = Bitboards.Bit(square);
+            int up = Index(true, square);
+            int down = Index(false, square);
+            PUSH[up] = bit << 8;
+            PUSH[down] = bit >>> 8;
+            DOUBLE_PUSH[up] = bit << 16;
+            DOUBLE_PUSH[down] = bit >>> 16;
+            CAPTURE[up] = PawnMoves.CaptureTargets(bit, true);
+            CAPTURE[down] = PawnMoves.CaptureTargets(bit, false);
+        }
+    }
+
+    private PawnTables() {
+    }
+
+    // Square one step forward, if it is on the board
+    public static long PushTargets(boolean up, int square) {
+        return PUSH[Index(up, square)];
+    }
+
+    // Square two steps forward, if it is on the board
+    public static long DoublePushTargets(boolean up, int square) {
+        return DOUBLE_PUSH[Index(up, square)];
+    }
+
+    // Squares one step forward and one file to either side that are on the board
+    public static long CaptureTargets(boolean up, int square) {
+        return CAPTURE[Index(up, square)];
+    }
+
+    private static int Index(boolean up, int square) {
+        return up ? square : square + Bitboards.SQUARE_COUNT;
+    }
+}
@@ -4,4 +4,7 @@ public enum PieceColor {
 
     BLACK, WHITE;
 
+    public PieceColor Opposite() {
+        return this == WHITE ? BLACK : WHITE;
+    }
 }
@@ -0,0 +1,109 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+// A piece type and color, shared by every piece of that kind. Boards can hold
+// pieces as bare kinds (see ChessBoard.AddPiece), with the position kept only
+// by the board, and the rules for a kind need nothing but the squares involved.
+public enum PieceKind {
+
+    BLACK_PAWN(PieceType.PAWN, PieceColor.BLACK),
+    WHITE_PAWN(PieceType.PAWN, PieceColor.WHITE);
+
+    private static final PieceKind[] KINDS = values();
+    // For each square, the squares from which a piece's legal moves depend on
+    // what occupies that square, over every kind and direction
+    private static final long[] DEPENDENTS = new long[Bitboards.SQUARE_COUNT];
+
+    static {
+        for (PieceKind kind : KINDS) {
+            for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+                for (boolean up : new boolean[]{true, false}) {
+                    long watched = Bitboards.Bit(square) | kind.MoveTargets(up, true, square) | kind.CaptureTargets(up, square);
+                    while (watched != 0) {
+                        DEPENDENTS[Long.numberOfTrailingZeros(watched)] |= Bitboards.Bit(square);
+                        watched &= watched - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    private final PieceType pieceType;
+    private final PieceColor pieceColor;
+
+    PieceKind(PieceType pieceType, PieceColor pieceColor) {
+        this.pieceType = pieceType;
+        this.pieceColor = pieceColor;
+    }
+
+    public static PieceKind Of(PieceType pieceType, PieceColor pieceColor) {
+        return KINDS[pieceType.ordinal() * PieceColor.values().length + pieceColor.ordinal()];
+    }
+
+    public PieceType getPieceType() {
+        return pieceType;
+    }
+
+    public PieceColor getPieceColor() {
+        return pieceColor;
+    }
+
+    // Most pieces of this kind a board of the given size may hold, as
+    // ChessPiece.GetMaxInstances
+    public Integer GetMaxInstances(BoardGeometry geometry) {
+        return geometry.GetMaxPawns();
+    }
+
+    // Whether a piece of this kind on the square may make the move, ignoring what
+    // occupies the target. up is whether the piece moves towards increasing Y.
+    public boolean IsMoveLegal(boolean up, boolean initialMove, int square, MovementType movementType, int targetSquare) {
+        long target = Bitboards.Bit(targetSquare);
+        switch (movementType) {
+            case MOVE:
+                return (MoveTargets(up, initialMove, square) & target) != 0;
+            case CAPTURE:
+                return (CaptureTargets(up, square) & target) != 0;
+        }
+        return false;
+    }
+
+    // Squares a piece of this kind on the square may MOVE to on an empty board
+    public long MoveTargets(boolean up, boolean initialMove, int square) {
+        // Pawns can only move 1 space forward, or 2 on their first move
+        long targets = PawnTables.PushTargets(up, square);
+        if (initialMove)
+            targets |= PawnTables.DoublePushTargets(up, square);
+        return targets;
+    }
+
+    // Squares a piece of this kind on the square may CAPTURE on, if an enemy is there
+    public long CaptureTargets(boolean up, int square) {
+        // Pawns can only capture one space diagonally left or right
+        return PawnTables.CaptureTargets(up, square);
+    }
+
+    // Squares attacked by pieces of this kind on the given squares
+    public long Attacks(boolean up, long pieces) {
+        return PawnMoves.CaptureTargets(pieces, up);
+    }
+
+    // Squares from which a piece of this kind attacks the given square
+    public long Attackers(boolean up, int square) {
+        // A pawn attacks the squares it could capture on, so its attackers are
+        // the squares a pawn moving the other way could capture on
+        return PawnTables.CaptureTargets(!up, square);
+    }
+
+    // Squares whose occupancy can change the legal moves of a piece on the given
+    // square, including the square itself
+    public static long Dependents(int square) {
+        return DEPENDENTS[square];
+    }
+
+    // Creates a standalone piece object of this kind
+    public ChessPiece NewPiece(boolean initialMove) {
+        return new Pawn(pieceColor, initialMove);
+    }
+}
@@ -0,0 +1,19 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+public enum PieceType {
+
+    PAWN(Pawn.class);
+
+    private final Class<? extends ChessPiece> pieceClass;
+
+    PieceType(Class<? extends ChessPiece> pieceClass) {
+        this.pieceClass = pieceClass;
+    }
+
+    public Class<? extends ChessPiece> getPieceClass() {
+        return pieceClass;
+    }
+}
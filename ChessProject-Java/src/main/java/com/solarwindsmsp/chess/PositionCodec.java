@@ -0,0 +1,76 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+import java.nio.ByteBuffer;
+
+// Fixed size binary encoding of a board position: the white pawn, black pawn and
+// first-move bitboards as three big-endian longs, then a flags byte holding the
+// color that moves up the board. Captured pieces are not part of the position.
+public final class PositionCodec {
+    public static final int ENCODED_SIZE = 3 * 8 + 1;
+
+    private static final int FLAG_WHITE_UP = 1;
+
+    private PositionCodec() {
+    }
+
+    public static void Encode(ChessBoard board, ByteBuffer target) {
+        Encode(board.GetOccupancy(PieceColor.WHITE), board.GetOccupancy(PieceColor.BLACK),
+                board.GetInitialMoves(), board.GetPositiveDirectionColor(), target);
+    }
+
+    public static void Encode(CompactChessBoard board, ByteBuffer target) {
+        Encode(board.GetOccupancy(PieceColor.WHITE), board.GetOccupancy(PieceColor.BLACK),
+                board.GetInitialMoves(), board.GetPositiveDirectionColor(), target);
+    }
+
+    // Reads one encoded position into the board, replacing its contents
+    public static void Decode(ByteBuffer source, CompactChessBoard target) {
+        long whitePawns = source.getLong();
+        long blackPawns = source.getLong();
+        long initialMoves = source.getLong();
+        byte flags = source.get();
+        Validate(whitePawns, blackPawns, initialMoves, flags);
+        target.Load(whitePawns, blackPawns, initialMoves, (flags & FLAG_WHITE_UP) != 0 ? PieceColor.WHITE : PieceColor.BLACK);
+    }
+
+    // Reads one encoded position into a new board
+    public static ChessBoard Decode(ByteBuffer source) {
+        long whitePawns = source.getLong();
+        long blackPawns = source.getLong();
+        long initialMoves = source.getLong();
+        byte flags = source.get();
+        Validate(whitePawns, blackPawns, initialMoves, flags);
+        ChessBoard board = new ChessBoard((flags & FLAG_WHITE_UP) != 0 ? PieceColor.WHITE : PieceColor.BLACK);
+        AddPawns(board, whitePawns, initialMoves, PieceColor.WHITE);
+        AddPawns(board, blackPawns, initialMoves, PieceColor.BLACK);
+        return board;
+    }
+
+    private static void Encode(long whitePawns, long blackPawns, long initialMoves, PieceColor positiveDirectionColor, ByteBuffer target) {
+        target.putLong(whitePawns);
+        target.putLong(blackPawns);
+        target.putLong(initialMoves);
+        target.put((byte) (positiveDirectionColor == PieceColor.WHITE ? FLAG_WHITE_UP : 0));
+    }
+
+    private static void AddPawns(ChessBoard board, long pawns, long initialMoves, PieceColor color) {
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            board.Add(new Pawn(color, (initialMoves & Bitboards.Bit(square)) != 0), Bitboards.FileOf(square), Bitboards.RankOf(square));
+        }
+    }
+
+    private static void Validate(long whitePawns, long blackPawns, long initialMoves, byte flags) {
+        if ((whitePawns & blackPawns) != 0)
+            throw new IllegalArgumentException("Square occupied by both colors");
+        if ((initialMoves & ~(whitePawns | blackPawns)) != 0)
+            throw new IllegalArgumentException("First move flag on an empty square");
+        if (Long.bitCount(whitePawns) > ChessBoard.MAX_BOARD_WIDTH || Long.bitCount(blackPawns) > ChessBoard.MAX_BOARD_WIDTH)
+            throw new IllegalArgumentException("Too many pawns");
+        if ((flags & ~FLAG_WHITE_UP) != 0)
+            throw new IllegalArgumentException("Unknown flags " + flags);
+    }
+}
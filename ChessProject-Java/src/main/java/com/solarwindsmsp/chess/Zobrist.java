@@ -0,0 +1,75 @@
+package com.solarwindsmsp.chess;
+
+// Random keys for Zobrist position hashing. The keys come from a fixed-seed
+// SplitMix64 sequence so position keys are identical across JVM runs and can be
+// persisted; changing the seed or the order keys are drawn in invalidates them.
+public final class Zobrist {
+    private static final long SEED = 0x5EED0F_C4E55L;
+    private static final int COLOR_COUNT = PieceColor.values().length;
+
+    private static final long[] PIECE_KEYS = new long[PieceType.values().length * COLOR_COUNT * Bitboards.SQUARE_COUNT];
+    private static final long[] INITIAL_MOVE_KEYS = new long[Bitboards.SQUARE_COUNT];
+    private static final long[] POSITIVE_DIRECTION_KEYS = new long[COLOR_COUNT];
+
+    // Not part of a board's own key, since the board does not track turns; callers
+    // that alternate sides XOR this in when black is to move
+    public static final long SIDE_TO_MOVE_KEY;
+
+    static {
+        long state = SEED;
+        for (int i = 0; i < PIECE_KEYS.length; i++)
+            PIECE_KEYS[i] = SplitMix64(state += 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < INITIAL_MOVE_KEYS.length; i++)
+            INITIAL_MOVE_KEYS[i] = SplitMix64(state += 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < POSITIVE_DIRECTION_KEYS.length; i++)
+            POSITIVE_DIRECTION_KEYS[i] = SplitMix64(state += 0x9E3779B97F4A7C15L);
+        SIDE_TO_MOVE_KEY = SplitMix64(state + 0x9E3779B97F4A7C15L);
+    }
+
+    private Zobrist() {
+    }
+
+    public static long PieceKey(PieceType pieceType, PieceColor pieceColor, int square) {
+        return PIECE_KEYS[(pieceType.ordinal() * COLOR_COUNT + pieceColor.ordinal()) * Bitboards.SQUARE_COUNT + square];
+    }
+
+    public static long InitialMoveKey(int square) {
+        return INITIAL_MOVE_KEYS[square];
+    }
+
+    public static long PositiveDirectionKey(PieceColor positiveDirectionColor) {
+        return POSITIVE_DIRECTION_KEYS[positiveDirectionColor.ordinal()];
+    }
+
+    public static long SideToMoveKey(PieceColor sideToMove) {
+        return sideToMove == PieceColor.BLACK ? SIDE_TO_MOVE_KEY : 0;
+    }
+
+    // Computes a board's key from scratch; ChessBoard maintains the same value incrementally
+    public static long Compute(ChessBoard board) {
+        long key = PositiveDirectionKey(board.GetPositiveDirectionColor());
+        for (PieceType pieceType : PieceType.values()) {
+            for (PieceColor pieceColor : PieceColor.values()) {
+                long pieces = board.GetBitboard(pieceType, pieceColor);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    key ^= PieceKey(pieceType, pieceColor, square);
+                }
+            }
+        }
+        long initialMoves = board.GetInitialMoves();
+        while (initialMoves != 0) {
+            int square = Long.numberOfTrailingZeros(initialMoves);
+            initialMoves &= initialMoves - 1;
+            key ^= InitialMoveKey(square);
+        }
+        return key;
+    }
+
+    private static long SplitMix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
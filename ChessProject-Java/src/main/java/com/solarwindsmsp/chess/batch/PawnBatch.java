@@ -0,0 +1,68 @@
+package com.solarwindsmsp.chess.batch;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceType;
+
+// Many pawn positions packed into struct-of-arrays primitive buffers, so a
+// PawnBatchKernel can validate or generate moves for every position in one pass
+// over contiguous memory instead of walking one ChessBoard object graph per game.
+public final class PawnBatch {
+    final long[] whitePawns;
+    final long[] blackPawns;
+    final long[] initialMoves;
+    // All ones for positions where white moves up the board, zero where black does,
+    // so kernels can select each side's direction with masks rather than branches
+    final long[] whiteUp;
+    // Per-position working space for kernels
+    final long[] scratch;
+    private int size;
+
+    public PawnBatch(int capacity) {
+        whitePawns = new long[capacity];
+        blackPawns = new long[capacity];
+        initialMoves = new long[capacity];
+        whiteUp = new long[capacity];
+        scratch = new long[capacity];
+    }
+
+    public int GetCapacity() {
+        return whitePawns.length;
+    }
+
+    public int GetSize() {
+        return size;
+    }
+
+    public void Clear() {
+        size = 0;
+    }
+
+    // Appends the board's position and returns its index in the batch
+    public int Add(ChessBoard board) {
+        if (size == whitePawns.length)
+            throw new IllegalStateException("Batch is full");
+        int index = size;
+        Set(index, board);
+        return index;
+    }
+
+    public void Set(int index, ChessBoard board) {
+        long white = board.GetBitboard(PieceType.PAWN, PieceColor.WHITE);
+        long black = board.GetBitboard(PieceType.PAWN, PieceColor.BLACK);
+        if ((white | black) != board.GetOccupancy())
+            throw new IllegalArgumentException("Batches only hold pawn positions");
+        Set(index, white, black, board.GetInitialMoves(), board.GetPositiveDirectionColor());
+    }
+
+    public void Set(int index, long whitePawns, long blackPawns, long initialMoves, PieceColor positiveDirectionColor) {
+        if (index < 0 || index > size || index >= this.whitePawns.length)
+            throw new IndexOutOfBoundsException("Index " + index + " with size " + size);
+        this.whitePawns[index] = whitePawns;
+        this.blackPawns[index] = blackPawns;
+        this.initialMoves[index] = initialMoves & (whitePawns | blackPawns);
+        this.whiteUp[index] = positiveDirectionColor == PieceColor.WHITE ? -1L : 0L;
+        if (index == size)
+            size++;
+    }
+}
@@ -0,0 +1,15 @@
+package com.solarwindsmsp.chess.batch;
+
+import com.solarwindsmsp.chess.PieceColor;
+
+// Validates and generates pawn moves for every position in a PawnBatch. Results
+// match what ChessBoard.Move and ChessBoard.GenerateMoves give for each position.
+public interface PawnBatchKernel {
+    // Checks moves[i] (see Moves for the encoding) against position i, writing
+    // whether ChessBoard.Move would accept it into results[i]
+    void ValidateMoves(PawnBatch batch, int[] moves, boolean[] results);
+
+    // Writes the squares each position's pawns of the given color can move to
+    // (pushTargets) and capture on (captureTargets)
+    void GenerateTargets(PawnBatch batch, PieceColor color, long[] pushTargets, long[] captureTargets);
+}
@@ -0,0 +1,26 @@
+package com.solarwindsmsp.chess.batch;
+
+public final class PawnBatchKernels {
+    private static final String VECTOR_KERNEL = "com.solarwindsmsp.chess.batch.VectorPawnBatchKernel";
+
+    private static final PawnBatchKernel BEST = Load();
+
+    private PawnBatchKernels() {
+    }
+
+    // The Vector API kernel when it was compiled in (the 'vector' Maven profile) and
+    // the JVM runs with --add-modules jdk.incubator.vector, otherwise the scalar one
+    public static PawnBatchKernel Best() {
+        return BEST;
+    }
+
+    private static PawnBatchKernel Load() {
+        try {
+            return (PawnBatchKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return new ScalarPawnBatchKernel();
+        } catch (LinkageError e) {
+            return new ScalarPawnBatchKernel();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.solarwindsmsp.chess.batch;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.PawnMoves;
+import com.solarwindsmsp.chess.PieceColor;
+
+// Plain Java kernel, used wherever the Vector API is unavailable. The vector
+// kernel uses it for the positions left over after its last full vector.
+public final class ScalarPawnBatchKernel implements PawnBatchKernel {
+
+    public void ValidateMoves(PawnBatch batch, int[] moves, boolean[] results) {
+        ValidateMoves(batch, moves, results, 0, batch.GetSize());
+    }
+
+    public void GenerateTargets(PawnBatch batch, PieceColor color, long[] pushTargets, long[] captureTargets) {
+        GenerateTargets(batch, color, pushTargets, captureTargets, 0, batch.GetSize());
+    }
+
+    static void ValidateMoves(PawnBatch batch, int[] moves, boolean[] results, int start, int end) {
+        for (int i = start; i < end; i++)
+            results[i] = IsMoveLegal(batch, i, moves[i]);
+    }
+
+    static void GenerateTargets(PawnBatch batch, PieceColor color, long[] pushTargets, long[] captureTargets, int start, int end) {
+        boolean white = color == PieceColor.WHITE;
+        for (int i = start; i < end; i++) {
+            long own = white ? batch.whitePawns[i] : batch.blackPawns[i];
+            long enemy = white ? batch.blackPawns[i] : batch.whitePawns[i];
+            long empty = ~(own | enemy);
+            long unmoved = own & batch.initialMoves[i];
+            boolean up = (batch.whiteUp[i] != 0) == white;
+            if (up) {
+                pushTargets[i] = ((own << 8) | (unmoved << 16)) & empty;
+                captureTargets[i] = (((own & ~Bitboards.FILE_A) << 7) | ((own & ~Bitboards.FILE_H) << 9)) & enemy;
+            } else {
+                pushTargets[i] = ((own >>> 8) | (unmoved >>> 16)) & empty;
+                captureTargets[i] = (((own & ~Bitboards.FILE_A) >>> 9) | ((own & ~Bitboards.FILE_H) >>> 7)) & enemy;
+            }
+        }
+    }
+
+    private static boolean IsMoveLegal(PawnBatch batch, int index, int move) {
+        return PawnMoves.IsLegal(batch.whitePawns[index], batch.blackPawns[index], batch.initialMoves[index],
+                batch.whiteUp[index] != 0, move);
+    }
+}
@@ -0,0 +1,178 @@
+package com.solarwindsmsp.chess.book;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PawnMoves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceType;
+import com.solarwindsmsp.chess.Zobrist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Read-only book of moves to play in known positions, memory-mapped from a file
+// written by PositionBookBuilder. The file is a 16 byte header (MAGIC, VERSION,
+// entry count, unused) followed by 16 byte entries of position key, move and
+// weight, sorted by key and then by weight, highest first. A position's entries
+// are found by interpolation search, since keys are spread evenly, reading the
+// mapping directly, so a lookup allocates nothing and only the pages it touches
+// are read from disk.
+//
+// Positions are keyed by ChessBoard.GetPositionKey XORed with the side to move
+// key (see Key), as in the search. Lookups may be made from any number of threads.
+public final class PositionBook implements Closeable {
+    public static final int MAGIC = 0x50424B31;
+    public static final int VERSION = 1;
+    public static final int NO_MOVE = -1;
+
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 16;
+    private static final int KEY_OFFSET = 0;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 12;
+    // Below this many entries the search finishes with a linear scan
+    private static final int SCAN_ENTRIES = 8;
+
+    private final ByteBuffer entries;
+    private final int entryCount;
+
+    private PositionBook(ByteBuffer entries, int entryCount) {
+        this.entries = entries;
+        this.entryCount = entryCount;
+    }
+
+    public static PositionBook Open(Path file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+                throw new IOException(file + " is not a position book");
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+            if (mapped.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a position book");
+            if (mapped.getInt(4) != VERSION)
+                throw new IOException(file + " is version " + mapped.getInt(4) + ", expected " + VERSION);
+            int entryCount = mapped.getInt(8);
+            if (entryCount < 0 || (long) entryCount * ENTRY_SIZE != size - HEADER_SIZE)
+                throw new IOException(file + " is truncated");
+            mapped.position(HEADER_SIZE);
+            return new PositionBook(mapped.slice(), entryCount);
+        } finally {
+            // The mapping stays valid after the channel is closed
+            raf.close();
+        }
+    }
+
+    public static long Key(ChessBoard board, PieceColor sideToMove) {
+        return board.GetPositionKey() ^ Zobrist.SideToMoveKey(sideToMove);
+    }
+
+    public int GetEntryCount() {
+        return entryCount;
+    }
+
+    // Copies up to moves.length of the moves stored for the key, and their
+    // weights, into the buffers, best first, returning the number copied
+    public int Probe(long key, int[] moves, int[] weights) {
+        int count = 0;
+        for (int index = Find(key); index < entryCount && KeyAt(index) == key && count < moves.length; index++) {
+            moves[count] = MoveAt(index);
+            weights[count] = WeightAt(index);
+            count++;
+        }
+        return count;
+    }
+
+    public int Probe(ChessBoard board, PieceColor sideToMove, int[] moves, int[] weights) {
+        return Probe(Key(board, sideToMove), moves, weights);
+    }
+
+    // Picks one of the book moves for the position at random, in proportion to
+    // their weights, or returns NO_MOVE if the book has none. Moves that are not
+    // legal on the board, as after a key collision, are never picked.
+    public int ChooseMove(ChessBoard board, PieceColor sideToMove, Random random) {
+        long key = Key(board, sideToMove);
+        int first = Find(key);
+        long total = 0;
+        for (int index = first; index < entryCount && KeyAt(index) == key; index++) {
+            if (IsPlayable(board, sideToMove, MoveAt(index)))
+                total += WeightAt(index);
+        }
+        if (total == 0)
+            return NO_MOVE;
+
+        long pick = (long) (random.nextDouble() * total);
+        for (int index = first; ; index++) {
+            int move = MoveAt(index);
+            if (!IsPlayable(board, sideToMove, move))
+                continue;
+            pick -= WeightAt(index);
+            if (pick < 0)
+                return move;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Mappings are released when the buffer is collected
+    }
+
+    // Index of the first entry with the key, or of the first entry with a greater
+    // key if there is none
+    int Find(long key) {
+        int low = 0;
+        int high = entryCount - 1;
+        for (int step = 0; high - low > SCAN_ENTRIES; step++) {
+            long lowKey = KeyAt(low);
+            long highKey = KeyAt(high);
+            if (key <= lowKey)
+                return low;
+            if (key > highKey)
+                return high + 1;
+            // Guess where the key lies between the end keys, then narrow to
+            // whichever side of the guess it is on. Every other step halves the
+            // range instead, in case the keys are not spread evenly.
+            int probe;
+            if ((step & 1) == 0) {
+                double fraction = ((double) key - (double) lowKey) / ((double) highKey - (double) lowKey);
+                probe = Math.min(Math.max(low + (int) (fraction * (high - low)), low + 1), high - 1);
+            } else {
+                probe = (low + high) >>> 1;
+            }
+            if (KeyAt(probe) < key)
+                low = probe + 1;
+            else
+                high = probe;
+        }
+        while (low <= high && KeyAt(low) < key)
+            low++;
+        return low;
+    }
+
+    private static boolean IsPlayable(ChessBoard board, PieceColor sideToMove, int move) {
+        return PawnMoves.IsLegal(board.GetBitboard(PieceType.PAWN, PieceColor.WHITE),
+                board.GetBitboard(PieceType.PAWN, PieceColor.BLACK), board.GetInitialMoves(),
+                board.GetPositiveDirectionColor() == PieceColor.WHITE, move)
+                && (board.GetOccupancy(sideToMove) & Bitboards.Bit(Moves.From(move))) != 0;
+    }
+
+    private long KeyAt(int index) {
+        return entries.getLong(index * ENTRY_SIZE + KEY_OFFSET);
+    }
+
+    private int MoveAt(int index) {
+        return entries.getInt(index * ENTRY_SIZE + MOVE_OFFSET);
+    }
+
+    private int WeightAt(int index) {
+        return entries.getInt(index * ENTRY_SIZE + WEIGHT_OFFSET);
+    }
+}
@@ -0,0 +1,215 @@
+package com.solarwindsmsp.chess.book;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.pgn.GameListener;
+import com.solarwindsmsp.chess.pgn.GameResult;
+import com.solarwindsmsp.chess.pgn.ImportStats;
+import com.solarwindsmsp.chess.pgn.PgnImporter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// Collects the moves played in the opening plies of games and writes them as a
+// PositionBook file. Each time a move is played it gains weight by how the game
+// went for the side that played it: 2 for a win, 1 for a draw or an unknown
+// result and 0 for a loss. Games played with MakeMove are read from the move
+// history of their final board (see ChessBoard.GetHistoryMove); imported games
+// are collected move by move, so the builder can be fed directly by PgnImporter
+// as a GameListener. It is thread-safe.
+//
+// Run as a program to build a book from PGN files:
+//   PositionBookBuilder <book file> <max ply> <pgn file>...
+public final class PositionBookBuilder implements GameListener {
+    // Highest weight first, then by move so the file is reproducible
+    private static final Comparator<Map.Entry<Integer, Integer>> BY_WEIGHT = new Comparator<Map.Entry<Integer, Integer>>() {
+        @Override
+        public int compare(Map.Entry<Integer, Integer> a, Map.Entry<Integer, Integer> b) {
+            int byWeight = Integer.compare(b.getValue(), a.getValue());
+            return byWeight != 0 ? byWeight : Integer.compare(a.getKey(), b.getKey());
+        }
+    };
+
+    private final int maxPly;
+    // Weight of each move played from each position key
+    private final Map<Long, Map<Integer, Integer>> positions = new HashMap<Long, Map<Integer, Integer>>();
+    // Opening of the game each importer thread is parsing, kept until its result is known
+    private final ThreadLocal<OpeningPlies> importing = new ThreadLocal<OpeningPlies>();
+    private long gameCount;
+
+    // Only moves made within the first maxPly plies of each game are collected
+    public PositionBookBuilder(int maxPly) {
+        if (maxPly < 1)
+            throw new IllegalArgumentException("The book must cover at least one ply");
+        this.maxPly = maxPly;
+    }
+
+    // Adds the game held in the board's move history, which firstToMove started.
+    // The board is stepped back through the game and left as it was found.
+    public synchronized void AddGame(ChessBoard board, PieceColor firstToMove, GameResult result) {
+        int length = board.GetMoveHistoryLength();
+        int[] moves = new int[length];
+        for (int i = 0; i < length; i++)
+            moves[i] = board.GetHistoryMove(i);
+        for (int i = 0; i < length; i++)
+            board.UnmakeMove();
+
+        PieceColor sideToMove = firstToMove;
+        for (int ply = 0; ply < length; ply++) {
+            if (ply < maxPly)
+                AddMove(PositionBook.Key(board, sideToMove), moves[ply], sideToMove, result);
+            board.MakeMove(moves[ply]);
+            sideToMove = sideToMove.Opposite();
+        }
+        gameCount++;
+    }
+
+    @Override
+    public void MoveImported(ChessBoard board, PieceColor sideToMove, int move) {
+        OpeningPlies plies = importing.get();
+        if (plies == null) {
+            plies = new OpeningPlies(maxPly);
+            importing.set(plies);
+        }
+        if (plies.board != board) {
+            plies.board = board;
+            plies.count = 0;
+        }
+        if (plies.count < maxPly) {
+            plies.keys[plies.count] = PositionBook.Key(board, sideToMove);
+            plies.moves[plies.count] = move;
+            plies.movers[plies.count] = sideToMove;
+            plies.count++;
+        }
+    }
+
+    @Override
+    public void GameImported(ChessBoard board, GameResult result, int moveCount, boolean valid) {
+        OpeningPlies plies = importing.get();
+        int count = plies != null && plies.board == board ? plies.count : 0;
+        if (plies != null)
+            plies.board = null;
+        if (!valid)
+            return;
+        synchronized (this) {
+            for (int ply = 0; ply < count; ply++)
+                AddMove(plies.keys[ply], plies.moves[ply], plies.movers[ply], result);
+            gameCount++;
+        }
+    }
+
+    public synchronized long GetGameCount() {
+        return gameCount;
+    }
+
+    public synchronized int GetPositionCount() {
+        return positions.size();
+    }
+
+    // Writes the moves with at least minWeight (and always more than 0) to the
+    // file, replacing it, and returns the number of entries written
+    public synchronized int Write(Path file, int minWeight) throws IOException {
+        long[] keys = new long[positions.size()];
+        int positionCount = 0;
+        for (Long key : positions.keySet())
+            keys[positionCount++] = key;
+        Arrays.sort(keys);
+
+        List<int[]> entries = new ArrayList<int[]>();
+        List<Long> entryKeys = new ArrayList<Long>();
+        for (long key : keys) {
+            List<Map.Entry<Integer, Integer>> moves = new ArrayList<Map.Entry<Integer, Integer>>(positions.get(key).entrySet());
+            Collections.sort(moves, BY_WEIGHT);
+            for (Map.Entry<Integer, Integer> move : moves) {
+                if (move.getValue() > 0 && move.getValue() >= minWeight) {
+                    entryKeys.add(key);
+                    entries.add(new int[]{move.getKey(), move.getValue()});
+                }
+            }
+        }
+
+        // Written beside the book and moved over it, so readers never see half a book
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+        try {
+            out.writeInt(PositionBook.MAGIC);
+            out.writeInt(PositionBook.VERSION);
+            out.writeInt(entries.size());
+            out.writeInt(0);
+            for (int i = 0; i < entries.size(); i++) {
+                out.writeLong(entryKeys.get(i));
+                out.writeInt(entries.get(i)[0]);
+                out.writeInt(entries.get(i)[1]);
+            }
+        } finally {
+            out.close();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return entries.size();
+    }
+
+    private void AddMove(long key, int move, PieceColor mover, GameResult result) {
+        Map<Integer, Integer> weights = positions.get(key);
+        if (weights == null) {
+            weights = new HashMap<Integer, Integer>();
+            positions.put(key, weights);
+        }
+        Integer weight = weights.get(move);
+        weights.put(move, (weight == null ? 0 : weight) + Weight(mover, result));
+    }
+
+    private static int Weight(PieceColor mover, GameResult result) {
+        switch (result) {
+            case WHITE_WINS:
+                return mover == PieceColor.WHITE ? 2 : 0;
+            case BLACK_WINS:
+                return mover == PieceColor.BLACK ? 2 : 0;
+            default:
+                return 1;
+        }
+    }
+
+    private static final class OpeningPlies {
+        final long[] keys;
+        final int[] moves;
+        final PieceColor[] movers;
+        // The board of the game being collected, or null between games
+        ChessBoard board;
+        int count;
+
+        OpeningPlies(int maxPly) {
+            keys = new long[maxPly];
+            moves = new int[maxPly];
+            movers = new PieceColor[maxPly];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PositionBookBuilder <book file> <max ply> <pgn file>...");
+            System.exit(1);
+        }
+        PositionBookBuilder builder = new PositionBookBuilder(Integer.parseInt(args[1]));
+        List<Path> files = new ArrayList<Path>();
+        for (int i = 2; i < args.length; i++)
+            files.add(Paths.get(args[i]));
+        for (ImportStats stats : new PgnImporter(ForkJoinPool.commonPool(), builder).Import(files))
+            System.out.println(stats);
+        int entries = builder.Write(Paths.get(args[0]), 1);
+        System.out.println("Wrote " + entries + " moves for " + builder.GetPositionCount() + " positions from "
+                + builder.GetGameCount() + " games");
+    }
+}
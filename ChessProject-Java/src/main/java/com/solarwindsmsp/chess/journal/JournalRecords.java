@@ -0,0 +1,72 @@
+package com.solarwindsmsp.chess.journal;
+
+import java.nio.ByteBuffer;
+
+// Layout of the fixed-width journal records. Each record is 16 bytes:
+//
+//     0  long  game id
+//     8  byte  record type
+//     9  byte  square (ADD, REMOVE), from square (MOVE) or direction (CREATE)
+//    10  byte  to square (MOVE)
+//    11  byte  flags: white piece, first move still available, capture
+//    12  int   check word over bytes 0-11
+//
+// Segment files are zero-filled when created, so the first record whose check
+// word does not match marks the end of the journal, whether it was never written
+// or only partly written when the process died.
+final class JournalRecords {
+    static final int SIZE = 16;
+
+    static final byte CREATE = 1;
+    static final byte ADD = 2;
+    static final byte MOVE = 3;
+    static final byte REMOVE = 4;
+    static final byte FINISH = 5;
+
+    static final int FLAG_WHITE = 1;
+    static final int FLAG_INITIAL_MOVE = 2;
+    static final int FLAG_CAPTURE = 4;
+
+    private JournalRecords() {
+    }
+
+    static void Write(ByteBuffer buffer, int offset, long gameId, byte type, int a, int b, int flags) {
+        int word = (type & 0xFF) << 24 | (a & 0xFF) << 16 | (b & 0xFF) << 8 | (flags & 0xFF);
+        buffer.putLong(offset, gameId);
+        buffer.putInt(offset + 8, word);
+        buffer.putInt(offset + 12, Check(gameId, word));
+    }
+
+    // Whether the record at the offset is complete and of a known type
+    static boolean IsValid(ByteBuffer buffer, int offset) {
+        int word = buffer.getInt(offset + 8);
+        int type = word >>> 24;
+        return type >= CREATE && type <= FINISH && buffer.getInt(offset + 12) == Check(buffer.getLong(offset), word);
+    }
+
+    static long GameId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    static byte Type(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 8);
+    }
+
+    static int A(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 9) & 0xFF;
+    }
+
+    static int B(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 10) & 0xFF;
+    }
+
+    static int Flags(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 11) & 0xFF;
+    }
+
+    private static int Check(long gameId, int word) {
+        long h = (gameId ^ 0x2545F4914F6CDD1DL) * 0x9E3779B97F4A7C15L + word;
+        h = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32)) | 1;
+    }
+}
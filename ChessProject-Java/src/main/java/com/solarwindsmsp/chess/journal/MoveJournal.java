@@ -0,0 +1,364 @@
+package com.solarwindsmsp.chess.journal;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Append-only journal of successful board changes, so that games survive a
+// restart. Changes are made through the journal (CreateGame, Add, Move, Remove,
+// FinishGame), which applies them to the board and records the ones the board
+// accepts as fixed-width records (see JournalRecords) in memory-mapped segment
+// files named journal-<index>.log. Room for a change's record is reserved
+// before the board is changed, mapping the next segment ahead of time when the
+// current one may run out, so a failure to write the journal (such as a full disk
+// when a segment is created) leaves the board as it was and the two never
+// disagree. The board change itself runs outside the journal's lock, so games
+// on different threads are changed in parallel; each game's board must still be
+// changed by one thread at a time. Only writing the record into the mapped
+// segment is done under the lock.
+//
+// Records reach the page cache as soon as they are appended, which survives a
+// process crash. Sync forces them to disk outside the lock, so appends carry on
+// while it runs. A Sync that finds another in progress waits for it and returns
+// if that one covered its records, so a batch of appends from any number of
+// threads is made durable by one force (group commit); the journal also syncs by
+// itself every syncEveryRecords records when that is positive.
+//
+// Once every game with records in the oldest segments is finished, those
+// segments can be deleted with DeleteFinishedSegments.
+public final class MoveJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int segmentBytes;
+    private final int syncEveryRecords;
+
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int position;
+    // Segments mapped ahead of the one being written, oldest first
+    private final ArrayDeque<MappedByteBuffer> spareSegments = new ArrayDeque<MappedByteBuffer>();
+    // Records with room reserved that are not appended or released yet
+    private int reservedRecords;
+    // Filled segments whose records may not be on disk yet
+    private final List<MappedByteBuffer> unforcedSegments = new ArrayList<MappedByteBuffer>();
+    private long appendedRecords;
+    private long syncedRecords;
+    private boolean syncing;
+    // Oldest segment holding a record of each game that is not finished yet
+    private final Map<Long, Long> liveGames = new HashMap<Long, Long>();
+
+    private MoveJournal(Path directory, int segmentRecords, int syncEveryRecords) {
+        if (segmentRecords < 1)
+            throw new IllegalArgumentException("Segments must hold at least one record");
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.segmentBytes = segmentRecords * JournalRecords.SIZE;
+        this.syncEveryRecords = syncEveryRecords;
+    }
+
+    // Opens the journal in the directory, creating it if needed, and positions it
+    // after the last complete record so that appends continue where the previous
+    // process stopped
+    public static MoveJournal Open(Path directory, int segmentRecords, int syncEveryRecords) throws IOException {
+        Files.createDirectories(directory);
+        MoveJournal journal = new MoveJournal(directory, segmentRecords, syncEveryRecords);
+        List<Long> segments = journal.ListSegments();
+        for (long index : segments) {
+            MappedByteBuffer buffer = journal.MapSegment(index, FileChannel.MapMode.READ_ONLY);
+            int end = 0;
+            for (; end + JournalRecords.SIZE <= buffer.capacity() && JournalRecords.IsValid(buffer, end); end += JournalRecords.SIZE)
+                journal.TrackGame(JournalRecords.GameId(buffer, end), JournalRecords.Type(buffer, end), index);
+            journal.segmentIndex = index;
+            journal.position = end;
+        }
+        journal.segment = journal.MapSegment(journal.segmentIndex, FileChannel.MapMode.READ_WRITE);
+        // Wipe whatever a crash left after the last complete record
+        for (int offset = journal.position; offset < journal.segment.capacity(); offset += 8)
+            journal.segment.putLong(offset, 0);
+        return journal;
+    }
+
+    public ChessBoard CreateGame(long gameId, PieceColor positiveDirectionColor) throws IOException {
+        Reserve();
+        Append(gameId, JournalRecords.CREATE, positiveDirectionColor == PieceColor.WHITE ? 1 : 0, 0, 0);
+        return new ChessBoard(positiveDirectionColor);
+    }
+
+    public boolean Add(long gameId, ChessBoard board, ChessPiece piece, int x, int y) throws IOException {
+        Reserve();
+        boolean added = false;
+        try {
+            added = board.Add(piece, x, y);
+        } finally {
+            if (!added)
+                Release();
+        }
+        if (!added)
+            return false;
+        int flags = piece.getPieceColor() == PieceColor.WHITE ? JournalRecords.FLAG_WHITE : 0;
+        if (piece.isInitialMove())
+            flags |= JournalRecords.FLAG_INITIAL_MOVE;
+        Append(gameId, JournalRecords.ADD, Bitboards.Square(x, y), 0, flags);
+        return true;
+    }
+
+    public boolean Move(long gameId, ChessPiece piece, MovementType movementType, int newX, int newY) throws IOException {
+        Reserve();
+        int from = piece.getHandle();
+        boolean moved = false;
+        try {
+            moved = piece.Move(movementType, newX, newY);
+        } finally {
+            if (!moved)
+                Release();
+        }
+        if (!moved)
+            return false;
+        int flags = movementType == MovementType.CAPTURE ? JournalRecords.FLAG_CAPTURE : 0;
+        Append(gameId, JournalRecords.MOVE, from, Bitboards.Square(newX, newY), flags);
+        return true;
+    }
+
+    public boolean Remove(long gameId, ChessBoard board, ChessPiece piece) throws IOException {
+        Reserve();
+        int square = piece.getHandle();
+        boolean removed = false;
+        try {
+            removed = board.Remove(piece);
+        } finally {
+            if (!removed)
+                Release();
+        }
+        if (!removed)
+            return false;
+        Append(gameId, JournalRecords.REMOVE, square, 0, 0);
+        return true;
+    }
+
+    // Marks the game as over. Replay skips finished games, and their records
+    // become eligible for deletion.
+    public void FinishGame(long gameId) throws IOException {
+        Reserve();
+        Append(gameId, JournalRecords.FINISH, 0, 0, 0);
+    }
+
+    // Forces every record appended so far to disk. The force runs outside the
+    // lock; a caller that finds another force in progress waits for it, and only
+    // forces again if some of its records were appended after that one began.
+    public void Sync() {
+        long target;
+        List<MappedByteBuffer> toForce;
+        boolean interrupted = false;
+        synchronized (this) {
+            target = appendedRecords;
+            while (syncing && syncedRecords < target) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            if (syncedRecords >= target)
+                return;
+            // Everything appended by now goes into this force
+            syncing = true;
+            target = appendedRecords;
+            toForce = new ArrayList<MappedByteBuffer>(unforcedSegments);
+            toForce.add(segment);
+            unforcedSegments.clear();
+        }
+
+        boolean forced = false;
+        try {
+            for (MappedByteBuffer buffer : toForce)
+                buffer.force();
+            forced = true;
+        } finally {
+            synchronized (this) {
+                syncing = false;
+                if (forced)
+                    syncedRecords = Math.max(syncedRecords, target);
+                else
+                    unforcedSegments.addAll(0, toForce.subList(0, toForce.size() - 1));
+                notifyAll();
+            }
+        }
+    }
+
+    // Number of records known to be on disk
+    public synchronized long GetSyncedRecordCount() {
+        return syncedRecords;
+    }
+
+    // Deletes the oldest segments once every game with records in them is
+    // finished, returning the number deleted. The segment being written is kept.
+    public synchronized int DeleteFinishedSegments() throws IOException {
+        long keepFrom = segmentIndex;
+        for (long first : liveGames.values())
+            keepFrom = Math.min(keepFrom, first);
+        int deleted = 0;
+        for (long index : ListSegments()) {
+            if (index < keepFrom && Files.deleteIfExists(SegmentPath(index)))
+                deleted++;
+        }
+        return deleted;
+    }
+
+    // Rebuilds every game that is not finished from the records on disk
+    public Map<Long, ChessBoard> Replay() throws IOException {
+        Sync();
+        Map<Long, ChessBoard> boards = new HashMap<Long, ChessBoard>();
+        for (long index : ListSegments()) {
+            MappedByteBuffer buffer = MapSegment(index, FileChannel.MapMode.READ_ONLY);
+            for (int offset = 0; offset + JournalRecords.SIZE <= buffer.capacity() && JournalRecords.IsValid(buffer, offset); offset += JournalRecords.SIZE)
+                Apply(boards, buffer, offset);
+        }
+        return boards;
+    }
+
+    public synchronized long GetLiveGameCount() {
+        return liveGames.size();
+    }
+
+    public void close() {
+        Sync();
+    }
+
+    private static void Apply(Map<Long, ChessBoard> boards, MappedByteBuffer buffer, int offset) {
+        long gameId = JournalRecords.GameId(buffer, offset);
+        byte type = JournalRecords.Type(buffer, offset);
+        if (type == JournalRecords.CREATE) {
+            boards.put(gameId, new ChessBoard(JournalRecords.A(buffer, offset) != 0 ? PieceColor.WHITE : PieceColor.BLACK));
+            return;
+        }
+        if (type == JournalRecords.FINISH) {
+            boards.remove(gameId);
+            return;
+        }
+
+        // A game with no board here started in a segment that has since been
+        // deleted, which only happens once it is finished
+        ChessBoard board = boards.get(gameId);
+        if (board == null)
+            return;
+
+        int square = JournalRecords.A(buffer, offset);
+        int flags = JournalRecords.Flags(buffer, offset);
+        ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(square), Bitboards.RankOf(square));
+        boolean applied = false;
+        switch (type) {
+            case JournalRecords.ADD:
+                PieceColor color = (flags & JournalRecords.FLAG_WHITE) != 0 ? PieceColor.WHITE : PieceColor.BLACK;
+                applied = board.Add(new Pawn(color, (flags & JournalRecords.FLAG_INITIAL_MOVE) != 0),
+                        Bitboards.FileOf(square), Bitboards.RankOf(square));
+                break;
+            case JournalRecords.MOVE:
+                int to = JournalRecords.B(buffer, offset);
+                MovementType movementType = (flags & JournalRecords.FLAG_CAPTURE) != 0 ? MovementType.CAPTURE : MovementType.MOVE;
+                applied = piece != null && piece.Move(movementType, Bitboards.FileOf(to), Bitboards.RankOf(to));
+                break;
+            case JournalRecords.REMOVE:
+                applied = piece != null && board.Remove(piece);
+                break;
+        }
+        if (!applied)
+            throw new IllegalStateException("Journal record for game " + gameId + " does not apply to its board");
+    }
+
+    // Reserves room for one record, mapping the next segment if the records
+    // already reserved could fill the mapped ones. Once this returns, the
+    // matching Append cannot fail; a change the board rejects must Release it.
+    private synchronized void Reserve() throws IOException {
+        while ((segmentBytes - position) / JournalRecords.SIZE + spareSegments.size() * segmentRecords <= reservedRecords)
+            spareSegments.addLast(MapSegment(segmentIndex + spareSegments.size() + 1, FileChannel.MapMode.READ_WRITE));
+        reservedRecords++;
+    }
+
+    private synchronized void Release() {
+        reservedRecords--;
+    }
+
+    // Writes a record into reserved room, then syncs outside the lock when this
+    // record completes a batch of syncEveryRecords
+    private void Append(long gameId, byte type, int a, int b, int flags) {
+        if (Write(gameId, type, a, b, flags))
+            Sync();
+    }
+
+    private synchronized boolean Write(long gameId, byte type, int a, int b, int flags) {
+        reservedRecords--;
+        if (position + JournalRecords.SIZE > segmentBytes) {
+            // The segment is full; the next one was mapped when this record's
+            // room was reserved
+            unforcedSegments.add(segment);
+            segment = spareSegments.removeFirst();
+            segmentIndex++;
+            position = 0;
+        }
+        JournalRecords.Write(segment, position, gameId, type, a, b, flags);
+        position += JournalRecords.SIZE;
+        TrackGame(gameId, type, segmentIndex);
+        appendedRecords++;
+        return syncEveryRecords > 0 && appendedRecords % syncEveryRecords == 0;
+    }
+
+    private void TrackGame(long gameId, byte type, long index) {
+        if (type == JournalRecords.FINISH)
+            liveGames.remove(gameId);
+        else if (!liveGames.containsKey(gameId))
+            liveGames.put(gameId, index);
+    }
+
+    private MappedByteBuffer MapSegment(long index, FileChannel.MapMode mode) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(SegmentPath(index).toFile(), mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw");
+        try {
+            long size = mode == FileChannel.MapMode.READ_ONLY ? file.length() : segmentBytes;
+            // The mapping stays valid after the file is closed
+            return file.getChannel().map(mode, 0, size);
+        } finally {
+            file.close();
+        }
+    }
+
+    private Path SegmentPath(long index) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> ListSegments() throws IOException {
+        List<Long> segments = new ArrayList<Long>();
+        DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX);
+        try {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        } finally {
+            stream.close();
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+}
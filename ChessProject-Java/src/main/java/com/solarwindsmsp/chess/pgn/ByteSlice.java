@@ -0,0 +1,38 @@
+package com.solarwindsmsp.chess.pgn;
+
+import java.nio.ByteBuffer;
+
+// A reusable CharSequence view of ASCII bytes in a buffer, so that text can be
+// handed to CharSequence based parsers without creating a String
+final class ByteSlice implements CharSequence {
+    private ByteBuffer buffer;
+    private int start;
+    private int length;
+
+    ByteSlice Set(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = end - start;
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        return new ByteSlice().Set(buffer, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            text.append(charAt(i));
+        return text.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.solarwindsmsp.chess.pgn;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+
+// Receives each game's moves and then the game as the importer parses them, on
+// the worker thread that parsed the game, so implementations must be thread-safe
+public interface GameListener {
+    // Called with each move of a game (see Moves) before it is made, so the
+    // board holds the position it is played from. If the board then refuses
+    // the move, the game ends as invalid.
+    void MoveImported(ChessBoard board, PieceColor sideToMove, int move);
+
+    // The board holds the final position, or the position before the first move
+    // that could not be applied when valid is false
+    void GameImported(ChessBoard board, GameResult result, int moveCount, boolean valid);
+}
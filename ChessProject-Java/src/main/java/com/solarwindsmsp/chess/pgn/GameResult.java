@@ -0,0 +1,5 @@
+package com.solarwindsmsp.chess.pgn;
+
+public enum GameResult {
+    WHITE_WINS, BLACK_WINS, DRAW, UNKNOWN
+}
@@ -0,0 +1,71 @@
+package com.solarwindsmsp.chess.pgn;
+
+import java.nio.file.Path;
+
+// Counts for one imported file, or for one chunk of it while the import runs
+public final class ImportStats {
+    private final Path file;
+    long bytes;
+    long games;
+    long invalidGames;
+    long moves;
+    long elapsedNanos;
+    final long[] results = new long[GameResult.values().length];
+
+    ImportStats(Path file) {
+        this.file = file;
+    }
+
+    void Add(ImportStats other) {
+        bytes += other.bytes;
+        games += other.games;
+        invalidGames += other.invalidGames;
+        moves += other.moves;
+        for (int i = 0; i < results.length; i++)
+            results[i] += other.results[i];
+    }
+
+    public Path GetFile() {
+        return file;
+    }
+
+    public long GetBytes() {
+        return bytes;
+    }
+
+    public long GetGames() {
+        return games;
+    }
+
+    // Games containing a move that is not a pawn move, or that the board rejected
+    public long GetInvalidGames() {
+        return invalidGames;
+    }
+
+    // Moves applied to boards, across valid and invalid games
+    public long GetMoves() {
+        return moves;
+    }
+
+    public long GetResultCount(GameResult result) {
+        return results[result.ordinal()];
+    }
+
+    public long GetElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double GetMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e3 / elapsedNanos;
+    }
+
+    public double GetGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d games (%d invalid), %d moves, %.1f MB/s, %.0f games/s",
+                file.getFileName(), games, invalidGames, moves, GetMegabytesPerSecond(), GetGamesPerSecond());
+    }
+}
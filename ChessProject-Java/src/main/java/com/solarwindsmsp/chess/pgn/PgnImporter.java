@@ -0,0 +1,126 @@
+package com.solarwindsmsp.chess.pgn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Replays archives of PGN games through the board rules. Each file is memory
+// mapped in chunks, split where a tag section starts after a blank line, and the
+// chunks are parsed in parallel on a ForkJoinPool, each by its own PgnParser.
+// Files are imported one after another so each gets its own throughput figures.
+public final class PgnImporter {
+    private static final int DEFAULT_CHUNK_BYTES = 8 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+    private final GameListener listener;
+
+    public PgnImporter(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_BYTES, null);
+    }
+
+    public PgnImporter(ForkJoinPool pool, GameListener listener) {
+        this(pool, DEFAULT_CHUNK_BYTES, listener);
+    }
+
+    // The listener, if not null, is called for every game (see GameListener)
+    public PgnImporter(ForkJoinPool pool, int chunkBytes, GameListener listener) {
+        if (chunkBytes < 1)
+            throw new IllegalArgumentException("Chunk size must be positive");
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+        this.listener = listener;
+    }
+
+    public List<ImportStats> Import(List<Path> files) throws IOException {
+        List<ImportStats> stats = new ArrayList<ImportStats>(files.size());
+        for (Path file : files)
+            stats.add(Import(file));
+        return stats;
+    }
+
+    public ImportStats Import(Path file) throws IOException {
+        long start = System.nanoTime();
+        ImportStats total = new ImportStats(file);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+            long size = channel.size();
+            long chunkStart = 0;
+            while (chunkStart < size) {
+                long chunkEnd = FindChunkEnd(channel, chunkStart, size);
+                tasks.add(new ChunkTask(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart), new ImportStats(file)));
+                chunkStart = chunkEnd;
+            }
+            pool.invoke(new JoinAll(tasks));
+            for (ChunkTask task : tasks)
+                total.Add(task.stats);
+        } finally {
+            channel.close();
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        return total;
+    }
+
+    // End of the chunk starting at the given offset: the first game start at
+    // or after chunkBytes into it, or the end of the file
+    private long FindChunkEnd(FileChannel channel, long chunkStart, long size) throws IOException {
+        long offset = chunkStart + chunkBytes;
+        // Window large enough to usually find a game start in one read
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        while (offset < size) {
+            window.clear();
+            // Back up so a blank line spanning two windows is still seen
+            long windowStart = Math.max(offset - 3, chunkStart);
+            int read = channel.read(window, windowStart);
+            if (read <= 0)
+                break;
+            for (int i = (int) (offset - windowStart); i < read; i++) {
+                if (window.get(i) == '[' && i >= 2 && window.get(i - 1) == '\n'
+                        && (window.get(i - 2) == '\n' || (window.get(i - 2) == '\r' && i >= 3 && window.get(i - 3) == '\n')))
+                    return windowStart + i;
+            }
+            offset = windowStart + read;
+        }
+        return size;
+    }
+
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer buffer;
+        private final ImportStats stats;
+
+        ChunkTask(MappedByteBuffer buffer, ImportStats stats) {
+            this.buffer = buffer;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void compute() {
+            new PgnParser(stats, listener).Parse(buffer, 0, buffer.capacity());
+        }
+    }
+
+    private static final class JoinAll extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ChunkTask> tasks;
+
+        JoinAll(List<ChunkTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.solarwindsmsp.chess.pgn;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.FenCodec;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+import java.nio.ByteBuffer;
+
+// Parses PGN games straight from bytes, one token at a time, without creating
+// Strings. Movetext is limited to what the board supports: pawn pushes ("e4")
+// and pawn captures ("exd5"), with optional check and annotation suffixes. A
+// game with any other move is counted as invalid. Games start from both pawn
+// ranks unless a FEN tag (see FenCodec for the format) gives the position.
+// Comments, NAGs and variations are skipped.
+final class PgnParser {
+    private final ImportStats stats;
+    private final GameListener listener;
+    private final FenCodec fenCodec = new FenCodec();
+    private final ByteSlice slice = new ByteSlice();
+
+    private ByteBuffer buffer;
+    private int position;
+    private int end;
+
+    // State of the game being parsed; board is null between games
+    private ChessBoard board;
+    private PieceColor sideToMove;
+    private int moveCount;
+    private boolean valid;
+    private int fenStart = -1;
+    private int fenEnd;
+
+    PgnParser(ImportStats stats, GameListener listener) {
+        this.stats = stats;
+        this.listener = listener;
+    }
+
+    // Parses every game in [start, end) of the buffer. A game left open at the
+    // end (no result token) is still counted.
+    void Parse(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = end;
+        while (SkipWhitespace()) {
+            byte c = buffer.get(position);
+            if (c == '[') {
+                ParseTag();
+            } else if (c == '{') {
+                SkipPast('}');
+            } else if (c == ';') {
+                SkipPast('\n');
+            } else if (c == '(') {
+                SkipVariation();
+            } else if (c == '$') {
+                position++;
+                while (position < end && IsDigit(buffer.get(position)))
+                    position++;
+            } else if (c == '*') {
+                position++;
+                EndGame(GameResult.UNKNOWN);
+            } else if (IsDigit(c)) {
+                ParseNumberOrResult();
+            } else {
+                ParseMove();
+            }
+        }
+        if (board != null)
+            EndGame(GameResult.UNKNOWN);
+        stats.bytes += end - start;
+    }
+
+    private void ParseTag() {
+        // A tag section after movetext means the previous game had no result
+        if (board != null && moveCount > 0)
+            EndGame(GameResult.UNKNOWN);
+        int nameStart = ++position;
+        while (position < end && buffer.get(position) != ' ' && buffer.get(position) != ']')
+            position++;
+        boolean fen = position - nameStart == 3 && buffer.get(nameStart) == 'F' && buffer.get(nameStart + 1) == 'E'
+                && buffer.get(nameStart + 2) == 'N';
+        while (position < end && buffer.get(position) != '"' && buffer.get(position) != ']')
+            position++;
+        if (position < end && buffer.get(position) == '"') {
+            int valueStart = ++position;
+            while (position < end && buffer.get(position) != '"')
+                position++;
+            if (fen) {
+                fenStart = valueStart;
+                fenEnd = position;
+            }
+        }
+        SkipPast(']');
+    }
+
+    private void ParseNumberOrResult() {
+        int tokenStart = position;
+        while (position < end && !IsWhitespace(buffer.get(position)) && buffer.get(position) != '.')
+            position++;
+        int length = position - tokenStart;
+        if (length == 3 && buffer.get(tokenStart + 1) == '-') {
+            EndGame(buffer.get(tokenStart) == '1' ? GameResult.WHITE_WINS : GameResult.BLACK_WINS);
+        } else if (length == 7 && buffer.get(tokenStart + 1) == '/') {
+            EndGame(GameResult.DRAW);
+        } else {
+            // Move number, with its trailing dots
+            while (position < end && buffer.get(position) == '.')
+                position++;
+        }
+    }
+
+    private void ParseMove() {
+        int tokenStart = position;
+        while (position < end && !IsWhitespace(buffer.get(position)) && buffer.get(position) != '{'
+                && buffer.get(position) != '(' && buffer.get(position) != ';')
+            position++;
+        if (board == null)
+            StartGame();
+        if (!valid)
+            return;
+
+        // Pawn moves only: "e4" or "exd5", then optional suffixes
+        boolean capture = position - tokenStart >= 4 && buffer.get(tokenStart + 1) == 'x';
+        int target = capture ? tokenStart + 2 : tokenStart;
+        if (target + 2 > position || !IsFile(buffer.get(tokenStart)) || !IsFile(buffer.get(target))
+                || !IsRank(buffer.get(target + 1)) || !IsSuffix(target + 2)) {
+            valid = false;
+            return;
+        }
+
+        int fromX = buffer.get(tokenStart) - 'a';
+        int toX = buffer.get(target) - 'a';
+        int toY = buffer.get(target + 1) - '1';
+        int direction = sideToMove == board.GetPositiveDirectionColor() ? 1 : -1;
+        ChessPiece piece = OwnPawnAt(fromX, toY - direction);
+        if (piece == null && !capture)
+            piece = OwnPawnAt(fromX, toY - 2 * direction);
+        if (piece == null) {
+            valid = false;
+            return;
+        }
+        MovementType movementType = capture ? MovementType.CAPTURE : MovementType.MOVE;
+        if (listener != null)
+            listener.MoveImported(board, sideToMove,
+                    Moves.Encode(piece.getHandle(), Bitboards.Square(toX, toY), movementType));
+        if (!piece.Move(movementType, toX, toY)) {
+            valid = false;
+            return;
+        }
+        moveCount++;
+        stats.moves++;
+        sideToMove = sideToMove.Opposite();
+    }
+
+    // Whether everything from the index to the end of the token is a check,
+    // mate or annotation suffix
+    private boolean IsSuffix(int index) {
+        for (; index < position; index++) {
+            byte c = buffer.get(index);
+            if (c != '+' && c != '#' && c != '!' && c != '?')
+                return false;
+        }
+        return true;
+    }
+
+    private ChessPiece OwnPawnAt(int x, int y) {
+        ChessPiece piece = board.GetPieceAt(x, y);
+        return piece != null && piece.getPieceColor() == sideToMove ? piece : null;
+    }
+
+    private void StartGame() {
+        if (fenStart >= 0) {
+            try {
+                board = fenCodec.Read(slice.Set(buffer, fenStart, fenEnd));
+                valid = true;
+            } catch (IllegalArgumentException e) {
+                board = new ChessBoard();
+                valid = false;
+            }
+        } else {
+            board = new ChessBoard();
+            for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+                board.Add(new Pawn(PieceColor.WHITE), x, 1);
+                board.Add(new Pawn(PieceColor.BLACK), x, ChessBoard.MAX_BOARD_HEIGHT - 2);
+            }
+            valid = true;
+        }
+        sideToMove = PieceColor.WHITE;
+        moveCount = 0;
+    }
+
+    private void EndGame(GameResult result) {
+        if (board == null)
+            StartGame();
+        stats.games++;
+        if (!valid)
+            stats.invalidGames++;
+        stats.results[result.ordinal()]++;
+        if (listener != null)
+            listener.GameImported(board, result, moveCount, valid);
+        board = null;
+        fenStart = -1;
+    }
+
+    private void SkipVariation() {
+        int depth = 0;
+        for (; position < end; position++) {
+            byte c = buffer.get(position);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                position++;
+                return;
+            }
+        }
+    }
+
+    private void SkipPast(char terminator) {
+        while (position < end && buffer.get(position) != terminator)
+            position++;
+        if (position < end)
+            position++;
+    }
+
+    // Moves past whitespace, returning false at the end of the input
+    private boolean SkipWhitespace() {
+        while (position < end && IsWhitespace(buffer.get(position)))
+            position++;
+        return position < end;
+    }
+
+    private static boolean IsWhitespace(byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean IsDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean IsFile(byte c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean IsRank(byte c) {
+        return c >= '1' && c <= '8';
+    }
+}
@@ -1,5 +1,7 @@
 package com.solarwindsmsp.chess.pieces;
 
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.BoardGeometry;
 import com.solarwindsmsp.chess.ChessBoard;
 import com.solarwindsmsp.chess.MovementType;
 import com.solarwindsmsp.chess.PieceColor;
@@ -7,8 +9,7 @@ import com.solarwindsmsp.chess.PieceColor;
 public abstract class AbstractChessPiece implements ChessPiece {
     private PieceColor pieceColor;
     private ChessBoard.Reference chessBoard;
-    private int x = -1;
-    private int y = -1;
+    private int handle = ChessBoard.NO_PIECE;
 
     public AbstractChessPiece(PieceColor pieceColor) {
         this.pieceColor = pieceColor;
@@ -22,20 +23,20 @@ public abstract class AbstractChessPiece implements ChessPiece {
         this.chessBoard = chessBoard;
     }
 
-    public int getX() {
-        return x;
+    public int getHandle() {
+        return handle;
     }
 
-    public void setX(int value) {
-        this.x = value;
+    public void setHandle(int handle) {
+        this.handle = handle;
     }
 
-    public int getY() {
-        return y;
+    public int getX() {
+        return handle == ChessBoard.NO_PIECE ? -1 : Bitboards.FileOf(handle);
     }
 
-    public void setY(int value) {
-        this.y = value;
+    public int getY() {
+        return handle == ChessBoard.NO_PIECE ? -1 : Bitboards.RankOf(handle);
     }
 
     public PieceColor getPieceColor() {
@@ -48,7 +49,7 @@ public abstract class AbstractChessPiece implements ChessPiece {
 
     public abstract boolean IsMoveLegal(MovementType movementType, int newX, int newY);
 
-    public abstract Integer GetMaxInstances();
+    public abstract Integer GetMaxInstances(BoardGeometry geometry);
 
     @Override
     public String toString() {
@@ -57,7 +58,7 @@ public abstract class AbstractChessPiece implements ChessPiece {
 
     protected String CurrentPositionAsString() {
         String eol = System.lineSeparator();
-        return String.format("Current X: {1}{0}Current Y: {2}{0}Piece Color: {3}", eol, x, y, pieceColor);
+        return String.format("Current X: %d%sCurrent Y: %d%sPiece Color: %s", getX(), eol, getY(), eol, pieceColor);
     }
 
     public boolean IsAt(int x, int y) {
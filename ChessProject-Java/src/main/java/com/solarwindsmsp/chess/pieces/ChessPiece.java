@@ -1,18 +1,28 @@
 package com.solarwindsmsp.chess.pieces;
 
+import com.solarwindsmsp.chess.BoardGeometry;
 import com.solarwindsmsp.chess.ChessBoard;
 import com.solarwindsmsp.chess.MovementType;
 import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceType;
 
 public interface ChessPiece {
     void setChessBoard(ChessBoard.Reference chessBoardReference);
-    void setX(int i);
-    void setY(int i);
+    // Set by the board: the square the piece is on (see Bitboards.Square), or
+    // ChessBoard.NO_PIECE when it is off the board. The coordinates are
+    // worked out from it.
+    void setHandle(int handle);
+    int getHandle();
     int getX();
     int getY();
     PieceColor getPieceColor();
-    Integer GetMaxInstances();
+    PieceType getPieceType();
+    boolean isInitialMove();
+    void setInitialMove(boolean initialMove);
+    // Most pieces like this one a board of the given size may hold, or null for no limit
+    Integer GetMaxInstances(BoardGeometry geometry);
     boolean IsAt(int x, int y);
     boolean IsMoveLegal(MovementType movementType, int x, int y);
     boolean Move(MovementType movementType, int x, int y);
+    ChessPiece Copy();
 }
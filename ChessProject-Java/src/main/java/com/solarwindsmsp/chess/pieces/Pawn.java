@@ -1,13 +1,17 @@
 package com.solarwindsmsp.chess.pieces;
 
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.BoardGeometry;
 import com.solarwindsmsp.chess.ChessBoard;
 import com.solarwindsmsp.chess.MovementType;
 import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceKind;
+import com.solarwindsmsp.chess.PieceType;
 
 public class Pawn extends AbstractChessPiece {
-    private static final Integer MAX_INSTANCES = ChessBoard.MAX_BOARD_WIDTH;
-
     private boolean initialMove;
+    // Whether this pawn moves up the board (+ve Y), fixed once it is on a board
+    private boolean up;
 
     public Pawn(PieceColor pieceColor) {
         this(pieceColor, true);
@@ -18,19 +22,39 @@ public class Pawn extends AbstractChessPiece {
         this.initialMove = initialMove;
     }
 
+    public PieceType getPieceType() {
+        return PieceType.PAWN;
+    }
+
     @Override
-    public boolean Move(MovementType movementType, int x, int y) {
-        if (super.Move(movementType, x, y)) {
-            initialMove = false;
-            return true;
-        }
-        return false;
+    public void setChessBoard(ChessBoard.Reference chessBoard) {
+        super.setChessBoard(chessBoard);
+        up = chessBoard != null && chessBoard.GetPositiveDirectionColor() == getPieceColor();
+    }
+
+    public boolean isInitialMove() {
+        return initialMove;
+    }
+
+    public void setInitialMove(boolean initialMove) {
+        this.initialMove = initialMove;
     }
 
     public boolean IsMoveLegal(MovementType movementType, int newX, int newY) {
+        int x = getX();
+        int y = getY();
+        if (!Bitboards.IsOnBoard(x, y) || !Bitboards.IsOnBoard(newX, newY))
+            return IsMoveLegalOffBoard(movementType, newX, newY);
+
+        return PieceKind.Of(PieceType.PAWN, getPieceColor())
+                .IsMoveLegal(up, initialMove, Bitboards.Square(x, y), movementType, Bitboards.Square(newX, newY));
+    }
+
+    // The same rules worked out from displacements, for coordinates the tables
+    // do not cover
+    private boolean IsMoveLegalOffBoard(MovementType movementType, int newX, int newY) {
         // Pawns can only move towards the opposite side
-        PieceColor positiveDirectionColor = getChessBoard().GetPositiveDirectionColor();
-        int moveDirection = positiveDirectionColor.equals(getPieceColor()) ? 1 : -1;
+        int moveDirection = up ? 1 : -1;
 
         // Calculate Y displacement
         int yDispacement = (newY - getY()) * moveDirection;
@@ -60,7 +84,11 @@ public class Pawn extends AbstractChessPiece {
         return false;
     }
 
-    public Integer GetMaxInstances() {
-        return MAX_INSTANCES;
+    public ChessPiece Copy() {
+        return new Pawn(getPieceColor(), initialMove);
+    }
+
+    public Integer GetMaxInstances(BoardGeometry geometry) {
+        return geometry.GetMaxPawns();
     }
 }
@@ -0,0 +1,328 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceType;
+import com.solarwindsmsp.chess.Zobrist;
+import com.solarwindsmsp.chess.tablebase.PawnTablebase;
+
+import java.util.Arrays;
+
+// Picks a move by iterative deepening alpha-beta search, with a capture search
+// at the leaves scored by ChessBoard.Evaluate. A pawn reaching the far rank
+// wins the game, and a side with no move draws it.
+//
+// Moves are tried in the order: transposition table move, captures, the two
+// killer moves of the ply (quiet moves that caused a cutoff in a sibling), then
+// quiet moves by history score. The search stops when the depth, node or time
+// limit is reached, and returns the result of the deepest iteration it
+// finished, so a best move is available as soon as depth 1 is done. Positions
+// below the root that a PawnTablebase covers are scored from it, not searched.
+//
+// An instance reuses its buffers between searches and must only be used by one
+// thread at a time. The transposition table may be shared.
+public final class AlphaBetaSearch {
+    public static final int MAX_PLY = 64;
+    public static final int WIN_SCORE = 30000;
+    // Scores beyond this are wins or losses a known number of plies away
+    public static final int WIN_THRESHOLD = WIN_SCORE - 2 * MAX_PLY;
+    public static final int NO_MOVE = -1;
+
+    // Limits are checked every this many nodes + 1, since reading the clock is slow
+    private static final int CHECK_INTERVAL = 255;
+    private static final int INFINITY = WIN_SCORE + 1;
+
+    private static final int TT_MOVE_ORDER = 1 << 30;
+    private static final int CAPTURE_ORDER = 1 << 29;
+    private static final int KILLER_ORDER = 1 << 28;
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final TranspositionTable table;
+    private final int[][] moves = new int[MAX_PLY + 1][Moves.MAX_MOVES];
+    private final int[][] order = new int[MAX_PLY + 1][Moves.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // Indexed by color ordinal, source square and target square
+    private final int[] history = new int[2 * Bitboards.SQUARE_COUNT * Bitboards.SQUARE_COUNT];
+    // Triangular principal variation table: pv[ply] is the line from that ply
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private SearchListener listener;
+    private PawnTablebase tablebase;
+
+    private ChessBoard board;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean stopped;
+
+    public AlphaBetaSearch() {
+        this(null);
+    }
+
+    // Searches with the given table, or none if it is null
+    public AlphaBetaSearch(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public void SetListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Scores positions the tablebase covers exactly, or none if it is null
+    public void SetTablebase(PawnTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // Searches the position for sideToMove. The board is used for the search
+    // and left as it was found.
+    public SearchResult Search(ChessBoard board, PieceColor sideToMove, SearchLimits limits) {
+        long start = System.nanoTime();
+        this.board = board;
+        nodes = 0;
+        maxNodes = limits.getMaxNodes() == 0 ? Long.MAX_VALUE : limits.getMaxNodes();
+        deadline = limits.getMaxTimeNanos() == 0 ? Long.MAX_VALUE : start + limits.getMaxTimeNanos();
+        stopped = false;
+        for (int[] plyKillers : killers)
+            Arrays.fill(plyKillers, NO_MOVE);
+        // Keep what history has learned, but let the new position outweigh it
+        for (int i = 0; i < history.length; i++)
+            history[i] >>= 2;
+        if (table != null)
+            table.NewSearch();
+
+        // A finished game has no move to play
+        if (HasPromoted(sideToMove))
+            return new SearchResult(NO_MOVE, WIN_SCORE, 0, 0, System.nanoTime() - start, new int[0]);
+        if (HasPromoted(sideToMove.Opposite()))
+            return new SearchResult(NO_MOVE, -WIN_SCORE, 0, 0, System.nanoTime() - start, new int[0]);
+        int count = board.GenerateMoves(sideToMove, moves[0]);
+        if (count == 0)
+            return new SearchResult(NO_MOVE, 0, 0, 0, System.nanoTime() - start, new int[0]);
+
+        // Until an iteration completes, play the first move in search order
+        SearchResult result = new SearchResult(moves[0][0], board.Evaluate(sideToMove), 0, 0, 0,
+                new int[]{moves[0][0]});
+        for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+            int score = Negamax(sideToMove, depth, 0, -INFINITY, INFINITY);
+            if (stopped)
+                break;
+            result = new SearchResult(pv[0][0], score, depth, nodes, System.nanoTime() - start,
+                    Arrays.copyOf(pv[0], pvLength[0]));
+            if (listener != null)
+                listener.IterationComplete(result);
+            // Deeper searches cannot change a forced result
+            if (Math.abs(score) > WIN_THRESHOLD)
+                break;
+        }
+        this.board = null;
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes,
+                System.nanoTime() - start, result.GetPrincipalVariation());
+    }
+
+    private int Negamax(PieceColor sideToMove, int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (CountNode())
+            return 0;
+
+        // The side that just moved may have promoted
+        if (HasPromoted(sideToMove.Opposite()))
+            return -WIN_SCORE + ply;
+        if (tablebase != null && ply > 0) {
+            int result = tablebase.Probe(board, sideToMove);
+            if (result != PawnTablebase.NOT_FOUND)
+                return result == 0 ? 0 : result > 0 ? WIN_SCORE - ply - result : -WIN_SCORE + ply - result;
+        }
+        if (depth <= 0 || ply == MAX_PLY)
+            return Quiescence(sideToMove, ply, alpha, beta);
+
+        long key = board.GetPositionKey() ^ Zobrist.SideToMoveKey(sideToMove);
+        int ttMove = NO_MOVE;
+        if (table != null) {
+            long data = table.Probe(key);
+            if (data != TranspositionTable.MISS) {
+                ttMove = TranspositionTable.Move(data);
+                int ttScore = FromTableScore(TranspositionTable.Score(data), ply);
+                if (ply > 0 && TranspositionTable.Depth(data) >= depth) {
+                    int bound = TranspositionTable.Bound(data);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || bound == TranspositionTable.BOUND_LOWER && ttScore >= beta
+                            || bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha)
+                        return ttScore;
+                }
+            }
+        }
+
+        int[] plyMoves = moves[ply];
+        int count = board.GenerateMoves(sideToMove, plyMoves);
+        if (count == 0)
+            return 0;
+        OrderMoves(sideToMove, ply, count, ttMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int move = NextMove(ply, i, count);
+            board.MakeMove(move);
+            int score = -Negamax(sideToMove.Opposite(), depth - 1, ply + 1, -beta, -alpha);
+            board.UnmakeMove();
+            if (stopped)
+                return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    UpdatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (!Moves.IsCapture(move))
+                            RecordQuietCutoff(sideToMove, ply, depth, move);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (table != null) {
+            int bound = bestScore <= originalAlpha ? TranspositionTable.BOUND_UPPER
+                    : bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                    : TranspositionTable.BOUND_EXACT;
+            table.Store(key, bestMove, ToTableScore(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    // Searches captures and pushes onto the last rank until the position is quiet,
+    // letting the side to move stand on the static evaluation instead
+    private int Quiescence(PieceColor sideToMove, int ply, int alpha, int beta) {
+        int[] plyMoves = moves[ply];
+        int count = board.GenerateMoves(sideToMove, plyMoves);
+        if (count == 0)
+            return 0;
+        int standPat = board.Evaluate(sideToMove);
+        if (standPat >= beta || ply == MAX_PLY)
+            return standPat;
+        if (standPat > alpha)
+            alpha = standPat;
+
+        long lastRank = PromotionRank(sideToMove);
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            if (!Moves.IsCapture(move) && (Bitboards.Bit(Moves.To(move)) & lastRank) == 0)
+                continue;
+            if (CountNode())
+                return 0;
+
+            board.MakeMove(move);
+            int score = HasPromoted(sideToMove)
+                    ? WIN_SCORE - ply - 1
+                    : -Quiescence(sideToMove.Opposite(), ply + 1, -beta, -alpha);
+            board.UnmakeMove();
+            if (stopped)
+                return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta)
+                    break;
+            }
+        }
+        return alpha;
+    }
+
+    // Counts a node, returning true if the search has run out of nodes or time
+    private boolean CountNode() {
+        nodes++;
+        if (nodes >= maxNodes || (nodes & CHECK_INTERVAL) == 0 && System.nanoTime() >= deadline)
+            stopped = true;
+        return stopped;
+    }
+
+    private void OrderMoves(PieceColor sideToMove, int ply, int count, int ttMove) {
+        int[] plyMoves = moves[ply];
+        int[] plyOrder = order[ply];
+        int[] plyKillers = killers[ply];
+        int historyBase = HistoryBase(sideToMove);
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            if (move == ttMove)
+                plyOrder[i] = TT_MOVE_ORDER;
+            else if (Moves.IsCapture(move))
+                plyOrder[i] = CAPTURE_ORDER;
+            else if (move == plyKillers[0])
+                plyOrder[i] = KILLER_ORDER + 1;
+            else if (move == plyKillers[1])
+                plyOrder[i] = KILLER_ORDER;
+            else
+                plyOrder[i] = history[historyBase + Moves.From(move) * Bitboards.SQUARE_COUNT + Moves.To(move)];
+        }
+    }
+
+    // Swaps the best ordered of the remaining moves into place and returns it,
+    // so that moves after a cutoff are never sorted
+    private int NextMove(int ply, int index, int count) {
+        int[] plyMoves = moves[ply];
+        int[] plyOrder = order[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyOrder[i] > plyOrder[best])
+                best = i;
+        }
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[index];
+        plyMoves[index] = move;
+        int moveOrder = plyOrder[best];
+        plyOrder[best] = plyOrder[index];
+        plyOrder[index] = moveOrder;
+        return move;
+    }
+
+    private void RecordQuietCutoff(PieceColor sideToMove, int ply, int depth, int move) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int index = HistoryBase(sideToMove) + Moves.From(move) * Bitboards.SQUARE_COUNT + Moves.To(move);
+        history[index] = Math.min(history[index] + depth * depth, HISTORY_LIMIT);
+    }
+
+    private void UpdatePrincipalVariation(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private static int HistoryBase(PieceColor sideToMove) {
+        return sideToMove.ordinal() * Bitboards.SQUARE_COUNT * Bitboards.SQUARE_COUNT;
+    }
+
+    private boolean HasPromoted(PieceColor color) {
+        return (board.GetBitboard(PieceType.PAWN, color) & PromotionRank(color)) != 0;
+    }
+
+    private long PromotionRank(PieceColor color) {
+        return color == board.GetPositiveDirectionColor() ? Bitboards.RANK_8 : Bitboards.RANK_1;
+    }
+
+    // Win scores are stored relative to the position rather than the root, so
+    // that they stay correct when the position is reached at another ply
+    private static int ToTableScore(int score, int ply) {
+        if (score > WIN_THRESHOLD)
+            return score + ply;
+        if (score < -WIN_THRESHOLD)
+            return score - ply;
+        return score;
+    }
+
+    private static int FromTableScore(int score, int ply) {
+        if (score > WIN_THRESHOLD)
+            return score - ply;
+        if (score < -WIN_THRESHOLD)
+            return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,108 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+// Runs perft across a ForkJoinPool. The tree is split into one task per move at
+// the root and, while enough depth remains, again at the nodes below it, so idle
+// workers can steal subtrees. Each task works on its own copy of the board with
+// MakeMove/UnmakeMove, and counts are summed as tasks are joined, so workers
+// share no mutable state.
+public final class ParallelPerft {
+    // Subtrees this shallow are counted sequentially rather than split further
+    private static final int DEFAULT_SEQUENTIAL_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final int sequentialDepth;
+
+    public ParallelPerft(ForkJoinPool pool) {
+        this(pool, DEFAULT_SEQUENTIAL_DEPTH);
+    }
+
+    public ParallelPerft(ForkJoinPool pool, int sequentialDepth) {
+        this.pool = pool;
+        this.sequentialDepth = Math.max(sequentialDepth, 1);
+    }
+
+    public long Count(ChessBoard board, PieceColor sideToMove, int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth must not be negative");
+        if (depth <= sequentialDepth)
+            return new Perft(depth).Count(board, sideToMove, depth);
+        return pool.invoke(new PerftTask(new ChessBoard(board), sideToMove, depth));
+    }
+
+    // Counts the subtree below each root move, writing the counts into the supplied
+    // buffer in the order GenerateMoves returns the moves. Returns the number of root moves.
+    public int Divide(ChessBoard board, PieceColor sideToMove, int depth, int[] moves, long[] counts) {
+        // Depth 0 has no root moves to divide the count between
+        if (depth < 1)
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        int count = board.GenerateMoves(sideToMove, moves);
+        PerftTask[] tasks = new PerftTask[count];
+        for (int i = 0; i < count; i++) {
+            ChessBoard child = new ChessBoard(board);
+            child.MakeMove(moves[i]);
+            tasks[i] = new PerftTask(child, sideToMove.Opposite(), depth - 1);
+        }
+        pool.invoke(new JoinAll(tasks));
+        for (int i = 0; i < count; i++)
+            counts[i] = tasks[i].getRawResult();
+        return count;
+    }
+
+    private final class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final ChessBoard board;
+        private final PieceColor sideToMove;
+        private final int depth;
+
+        PerftTask(ChessBoard board, PieceColor sideToMove, int depth) {
+            this.board = board;
+            this.sideToMove = sideToMove;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= sequentialDepth)
+                return new Perft(Math.max(depth, 1)).Count(board, sideToMove, depth);
+
+            int[] moves = new int[Moves.MAX_MOVES];
+            int count = board.GenerateMoves(sideToMove, moves);
+            PerftTask[] tasks = new PerftTask[count];
+            for (int i = 0; i < count; i++) {
+                ChessBoard child = new ChessBoard(board);
+                child.MakeMove(moves[i]);
+                tasks[i] = new PerftTask(child, sideToMove.Opposite(), depth - 1);
+            }
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (PerftTask task : tasks)
+                nodes += task.getRawResult();
+            return nodes;
+        }
+    }
+
+    private static final class JoinAll extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PerftTask[] tasks;
+
+        JoinAll(PerftTask[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+}
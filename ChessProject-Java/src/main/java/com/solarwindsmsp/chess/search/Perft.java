@@ -0,0 +1,42 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+
+// Counts the leaf nodes of the move tree to a fixed depth, with the two colors
+// taking turns. Used to verify move generation and to benchmark board operations.
+public final class Perft {
+    private final int[][] moves;
+
+    public Perft(int maxDepth) {
+        moves = new int[maxDepth][Moves.MAX_MOVES];
+    }
+
+    public long Count(ChessBoard board, PieceColor sideToMove, int depth) {
+        if (depth < 0)
+            throw new IllegalArgumentException("Depth must not be negative");
+        // One move buffer is kept per ply
+        if (depth > moves.length)
+            throw new IllegalArgumentException("Depth " + depth + " is above the maximum of " + moves.length);
+        return CountNodes(board, sideToMove, depth);
+    }
+
+    private long CountNodes(ChessBoard board, PieceColor sideToMove, int depth) {
+        if (depth == 0)
+            return 1;
+
+        int[] buffer = moves[depth - 1];
+        int count = board.GenerateMoves(sideToMove, buffer);
+        if (depth == 1)
+            return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.MakeMove(buffer[i]);
+            nodes += CountNodes(board, sideToMove.Opposite(), depth - 1);
+            board.UnmakeMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,43 @@
+package com.solarwindsmsp.chess.search;
+
+import java.util.concurrent.TimeUnit;
+
+// Bounds on one search. The search stops at whichever is reached first; a
+// limit of 0 means no limit, except that depth is always capped at MAX_PLY.
+public final class SearchLimits {
+    private final int maxDepth;
+    private final long maxNodes;
+    private final long maxTimeNanos;
+
+    public SearchLimits(int maxDepth, long maxNodes, long maxTime, TimeUnit unit) {
+        if (maxDepth < 0 || maxNodes < 0 || maxTime < 0)
+            throw new IllegalArgumentException("Search limits must not be negative");
+        this.maxDepth = maxDepth == 0 ? AlphaBetaSearch.MAX_PLY : Math.min(maxDepth, AlphaBetaSearch.MAX_PLY);
+        this.maxNodes = maxNodes;
+        this.maxTimeNanos = unit.toNanos(maxTime);
+    }
+
+    public static SearchLimits Depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public static SearchLimits Nodes(long maxNodes) {
+        return new SearchLimits(0, maxNodes, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public static SearchLimits Time(long maxTime, TimeUnit unit) {
+        return new SearchLimits(0, 0, maxTime, unit);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getMaxTimeNanos() {
+        return maxTimeNanos;
+    }
+}
@@ -0,0 +1,6 @@
+package com.solarwindsmsp.chess.search;
+
+// Told about each iteration of AlphaBetaSearch as it completes
+public interface SearchListener {
+    void IterationComplete(SearchResult result);
+}
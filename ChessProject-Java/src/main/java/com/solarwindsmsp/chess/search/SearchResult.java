@@ -0,0 +1,88 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.Moves;
+
+import java.util.Arrays;
+
+// Outcome of a search, or of one completed iteration of it. Scores are from the
+// point of view of the side to move, in hundredths of a pawn, with wins and
+// losses scored beyond AlphaBetaSearch.WIN_THRESHOLD.
+public final class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final int[] principalVariation;
+
+    SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.principalVariation = principalVariation;
+    }
+
+    // The move to play (see Moves), or AlphaBetaSearch.NO_MOVE if the game is over
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    // Deepest iteration that completed
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long GetNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+    }
+
+    // Expected line of play, starting with the best move
+    public int[] GetPrincipalVariation() {
+        return Arrays.copyOf(principalVariation, principalVariation.length);
+    }
+
+    public boolean IsWin() {
+        return score > AlphaBetaSearch.WIN_THRESHOLD;
+    }
+
+    public boolean IsLoss() {
+        return score < -AlphaBetaSearch.WIN_THRESHOLD;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("depth ").append(depth)
+                .append(" score ").append(score)
+                .append(" nodes ").append(nodes)
+                .append(" nps ").append(GetNodesPerSecond())
+                .append(" pv");
+        for (int move : principalVariation)
+            builder.append(' ').append(MoveToString(move));
+        return builder.toString();
+    }
+
+    // Coordinate notation, such as "e2e4" or "d4xe5"
+    public static String MoveToString(int move) {
+        return SquareToString(Moves.From(move)) + (Moves.IsCapture(move) ? "x" : "") + SquareToString(Moves.To(move));
+    }
+
+    private static String SquareToString(int square) {
+        return String.valueOf((char) ('a' + Bitboards.FileOf(square))) + (char) ('1' + Bitboards.RankOf(square));
+    }
+}
@@ -0,0 +1,155 @@
+package com.solarwindsmsp.chess.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size hash table of search results shared between threads without locks.
+// Each entry is two longs in one preallocated array: the position key XORed with
+// the data word, followed by the data word itself. Readers only accept an entry
+// whose two halves XOR back to the probed key, so an entry torn by a concurrent
+// writer reads as a miss rather than as another position's data.
+//
+// Entries are grouped in buckets of four (one 64 byte cache line). A store
+// replaces the entry for the same position if there is one, otherwise the entry
+// with the least value, where entries from earlier searches lose value with age.
+public final class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    // Returned by Probe when the position is not in the table
+    public static final long MISS = 0;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_BUCKET = BUCKET_SIZE * LONGS_PER_ENTRY * 8;
+
+    // Data word layout
+    private static final int MOVE_BITS = 24;
+    private static final int SCORE_SHIFT = 24;
+    private static final int DEPTH_SHIFT = 40;
+    private static final int BOUND_SHIFT = 48;
+    private static final int AGE_SHIFT = 50;
+    private static final int AGE_MASK = 0x3F;
+    private static final long VALID = 1L << 56;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    // Allocates the largest power of two number of buckets that fits in the given size
+    public TranspositionTable(int sizeInMegabytes) {
+        if (sizeInMegabytes < 1)
+            throw new IllegalArgumentException("Table size must be at least 1MB");
+        int buckets = Integer.highestOneBit((int) Math.min((long) sizeInMegabytes * 1024 * 1024 / BYTES_PER_BUCKET, 1 << 26));
+        table = new long[buckets * BUCKET_SIZE * LONGS_PER_ENTRY];
+        bucketMask = buckets - 1;
+    }
+
+    public int GetCapacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    // Returns the data word stored for the key, or MISS. Decode it with the static accessors.
+    public long Probe(long key) {
+        int index = BucketIndex(key);
+        boolean occupied = false;
+        for (int i = 0; i < BUCKET_SIZE; i++, index += LONGS_PER_ENTRY) {
+            long check = table[index];
+            long data = table[index + 1];
+            if ((data & VALID) == 0)
+                continue;
+            if ((check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied = true;
+        }
+        misses.increment();
+        if (occupied)
+            collisions.increment();
+        return MISS;
+    }
+
+    public void Store(long key, int move, int score, int depth, int bound) {
+        int currentAge = age;
+        int bucket = BucketIndex(key);
+        int victim = bucket;
+        int victimValue = Integer.MAX_VALUE;
+        for (int i = 0, index = bucket; i < BUCKET_SIZE; i++, index += LONGS_PER_ENTRY) {
+            long data = table[index + 1];
+            if ((data & VALID) == 0 || (table[index] ^ data) == key) {
+                victim = index;
+                break;
+            }
+            int value = Depth(data) - 8 * ((currentAge - Age(data)) & AGE_MASK);
+            if (value < victimValue) {
+                victimValue = value;
+                victim = index;
+            }
+        }
+
+        long data = VALID
+                | (move & ((1L << MOVE_BITS) - 1))
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) Math.min(Math.max(depth, 0), 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+    }
+
+    // Starts a new search generation, so entries from earlier searches are replaced first
+    public void NewSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    public void Clear() {
+        Arrays.fill(table, 0);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    public long GetHits() {
+        return hits.sum();
+    }
+
+    public long GetMisses() {
+        return misses.sum();
+    }
+
+    // Misses where the bucket was filled by other positions
+    public long GetCollisions() {
+        return collisions.sum();
+    }
+
+    public static int Move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    public static int Score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int Depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int Bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int Age(long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    private int BucketIndex(long key) {
+        // Mix the high bits in, since callers may XOR small side keys into the low ones
+        return (int) ((key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+    }
+}
@@ -0,0 +1,39 @@
+package com.solarwindsmsp.chess.selfplay;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+
+import java.util.Random;
+
+// Plays a move onto the last rank if there is one, otherwise a capture if there
+// is one, otherwise any move; ties are broken at random
+public final class GreedyCapturePolicy implements MovePolicy {
+
+    @Override
+    public int ChooseMove(ChessBoard board, PieceColor sideToMove, int[] moves, int count, Random random) {
+        long lastRank = sideToMove == board.GetPositiveDirectionColor() ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        int best = -1;
+        int bestRank = -1;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int rank = (Bitboards.Bit(Moves.To(move)) & lastRank) != 0 ? 2 : Moves.IsCapture(move) ? 1 : 0;
+            if (rank > bestRank) {
+                best = move;
+                bestRank = rank;
+                ties = 1;
+            } else if (rank == bestRank && random.nextInt(++ties) == 0) {
+                // Keeps each of the equally good moves with the same chance
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        return "greedy";
+    }
+}
@@ -0,0 +1,15 @@
+package com.solarwindsmsp.chess.selfplay;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+
+import java.util.Random;
+
+// Picks the move a side plays in self-play. One instance plays every game of
+// its side, on many threads at once, so it must keep no state of its own; all
+// randomness comes from the game's Random, which keeps games reproducible.
+public interface MovePolicy {
+    // Returns one of the count moves (see Moves) that ChessBoard.GenerateMoves
+    // wrote for sideToMove
+    int ChooseMove(ChessBoard board, PieceColor sideToMove, int[] moves, int count, Random random);
+}
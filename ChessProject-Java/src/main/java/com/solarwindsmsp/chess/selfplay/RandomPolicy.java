@@ -0,0 +1,20 @@
+package com.solarwindsmsp.chess.selfplay;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+
+import java.util.Random;
+
+// Plays any legal move, each as likely as the others
+public final class RandomPolicy implements MovePolicy {
+
+    @Override
+    public int ChooseMove(ChessBoard board, PieceColor sideToMove, int[] moves, int count, Random random) {
+        return moves[random.nextInt(count)];
+    }
+
+    @Override
+    public String toString() {
+        return "random";
+    }
+}
@@ -0,0 +1,119 @@
+package com.solarwindsmsp.chess.selfplay;
+
+import com.solarwindsmsp.chess.LatencyHistogram;
+import com.solarwindsmsp.chess.pgn.GameResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Figures for a self-play run, or for one range of its games while it runs.
+// Games stopped at the ply limit are counted as GameResult.UNKNOWN.
+public final class SelfPlayReport {
+    // Violations kept in full; the rest are only counted
+    static final int MAX_VIOLATIONS = 16;
+
+    private final LatencyHistogram moveLatency;
+    long games;
+    long moves;
+    long illegalMovesTried;
+    long violationCount;
+    long allocatedBytes;
+    long elapsedNanos;
+    // Sum of the final position keys, which is the same however the games
+    // were spread over threads
+    long positionChecksum;
+    final long[] results = new long[GameResult.values().length];
+    final List<String> violations = new ArrayList<String>();
+
+    SelfPlayReport(LatencyHistogram moveLatency) {
+        this.moveLatency = moveLatency;
+    }
+
+    void Add(SelfPlayReport other) {
+        games += other.games;
+        moves += other.moves;
+        illegalMovesTried += other.illegalMovesTried;
+        violationCount += other.violationCount;
+        // Unknown if any range could not measure it
+        allocatedBytes = allocatedBytes < 0 || other.allocatedBytes < 0 ? -1 : allocatedBytes + other.allocatedBytes;
+        positionChecksum += other.positionChecksum;
+        for (int i = 0; i < results.length; i++)
+            results[i] += other.results[i];
+        for (String violation : other.violations)
+            AddViolation(violation);
+    }
+
+    void AddViolation(String violation) {
+        if (violations.size() < MAX_VIOLATIONS)
+            violations.add(violation);
+    }
+
+    public long GetGames() {
+        return games;
+    }
+
+    public long GetMoves() {
+        return moves;
+    }
+
+    public long GetResultCount(GameResult result) {
+        return results[result.ordinal()];
+    }
+
+    // Moves the generator did not produce that were tried on the board to check
+    // that it refuses them
+    public long GetIllegalMovesTried() {
+        return illegalMovesTried;
+    }
+
+    public long GetViolationCount() {
+        return violationCount;
+    }
+
+    // The first MAX_VIOLATIONS violations, each naming the game and seed to
+    // replay it with (see SelfPlayRunner.PlayGame)
+    public List<String> GetViolations() {
+        return Collections.unmodifiableList(violations);
+    }
+
+    // Time taken by ChessBoard.TryMove to apply each move played
+    public LatencyHistogram GetMoveLatency() {
+        return moveLatency;
+    }
+
+    // Bytes allocated by the threads playing the games, or -1 if the JVM cannot say
+    public long GetAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long GetElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long GetPositionChecksum() {
+        return positionChecksum;
+    }
+
+    public double GetGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public double GetMovesPerSecond() {
+        return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+    }
+
+    public double GetAllocatedMegabytesPerSecond() {
+        return elapsedNanos == 0 || allocatedBytes < 0 ? 0 : allocatedBytes * 1e3 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d/%d/%d/%d white/black/drawn/unfinished), %d moves, %.0f games/s, %.0f moves/s, "
+                        + "%.1f MB/s allocated, move p50 %d ns, p99 %d ns, %d violations",
+                games, GetResultCount(GameResult.WHITE_WINS), GetResultCount(GameResult.BLACK_WINS),
+                GetResultCount(GameResult.DRAW), GetResultCount(GameResult.UNKNOWN), moves, GetGamesPerSecond(),
+                GetMovesPerSecond(), GetAllocatedMegabytesPerSecond(), moveLatency.GetPercentileNanos(0.5),
+                moveLatency.GetPercentileNanos(0.99), violationCount);
+    }
+}
@@ -0,0 +1,277 @@
+package com.solarwindsmsp.chess.selfplay;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.LatencyHistogram;
+import com.solarwindsmsp.chess.MoveResult;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PawnMoves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.pgn.GameResult;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import com.solarwindsmsp.chess.search.SearchResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Plays games of pawns against each other to stress the board the way a busy
+// server does. Games are spread over a ForkJoinPool, each on its own ChessBoard
+// set up with full pawn ranks, and every move is made through
+// ChessBoard.TryMove, as a player's would be. A game ends when a pawn reaches
+// its last rank, when the side to move has no move (a draw), or at the ply
+// limit.
+//
+// Each game's Random is seeded from the run's seed and the game's number, so a
+// run plays the same games whatever the number of threads, and any one game
+// can be played again alone with PlayGame.
+//
+// With invariant checks on, the board is checked after every move for two
+// pieces on one square, pieces whose coordinates disagree with their square,
+// captured pieces that are still in play or do not add up, and a position key,
+// attack maps or evaluation that differ from ones worked out afresh. Before
+// every move, a move the generator did not produce is tried to check that the
+// board refuses it and is left unchanged. Violations end their game and are
+// reported rather than thrown, so a run at scale finds as many as it can. The
+// checks draw on their own Random, so they do not change the games played.
+public final class SelfPlayRunner {
+    // Games played by one task
+    private static final int RANGE = 16;
+    private static final long GAME_SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+    private static final long CHECK_SEED = 0x5DEECE66DL;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final ForkJoinPool pool;
+    private final int maxPlies;
+    private final boolean checkInvariants;
+
+    public SelfPlayRunner(ForkJoinPool pool, int maxPlies, boolean checkInvariants) {
+        if (maxPlies < 1)
+            throw new IllegalArgumentException("Games need at least one ply");
+        this.pool = pool;
+        this.maxPlies = maxPlies;
+        this.checkInvariants = checkInvariants;
+    }
+
+    public SelfPlayReport Run(int games, long seed, MovePolicy white, MovePolicy black) {
+        long start = System.nanoTime();
+        SelfPlayReport report = pool.invoke(new GameRange(0, games, seed, white, black, new LatencyHistogram()));
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    // Plays the given game of a run again, returning the board as the game left it
+    public ChessBoard PlayGame(int game, long seed, MovePolicy white, MovePolicy black) {
+        return Play(game, seed, white, black, new SelfPlayReport(new LatencyHistogram()));
+    }
+
+    private ChessBoard Play(int game, long seed, MovePolicy white, MovePolicy black, SelfPlayReport report) {
+        long gameSeed = seed + game * GAME_SEED_INCREMENT;
+        Random random = new Random(gameSeed);
+        Random checkRandom = checkInvariants ? new Random(gameSeed ^ CHECK_SEED) : null;
+        ChessBoard board = new ChessBoard();
+        for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+            board.Add(new Pawn(PieceColor.WHITE), x, 1);
+            board.Add(new Pawn(PieceColor.BLACK), x, ChessBoard.MAX_BOARD_HEIGHT - 2);
+        }
+        board.SetEvaluationCheck(checkInvariants);
+
+        int[] moves = new int[Moves.MAX_MOVES];
+        PieceColor sideToMove = PieceColor.WHITE;
+        GameResult result = GameResult.UNKNOWN;
+        for (int ply = 0; ply < maxPlies; ply++) {
+            int count = board.GenerateMoves(sideToMove, moves);
+            if (count == 0) {
+                result = GameResult.DRAW;
+                break;
+            }
+            int move = (sideToMove == PieceColor.WHITE ? white : black).ChooseMove(board, sideToMove, moves, count, random);
+
+            String violation = checkInvariants ? TryUngeneratedMove(board, sideToMove, moves, count, checkRandom, report) : null;
+            if (violation == null) {
+                int from = Moves.From(move);
+                int to = Moves.To(move);
+                ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+                long moveStart = System.nanoTime();
+                MoveResult moved = piece == null ? MoveResult.NOT_ON_BOARD
+                        : board.TryMove(piece, Moves.GetMovementType(move), Bitboards.FileOf(to), Bitboards.RankOf(to));
+                report.GetMoveLatency().Record(System.nanoTime() - moveStart);
+                if (moved != MoveResult.ACCEPTED)
+                    violation = "the board refused " + SearchResult.MoveToString(move) + ": " + moved;
+                else if (checkInvariants)
+                    violation = CheckInvariants(board);
+            }
+            if (violation != null) {
+                report.violationCount++;
+                report.AddViolation("Game " + game + " of seed " + seed + ", ply " + ply + ": " + violation);
+                break;
+            }
+            report.moves++;
+
+            long lastRank = sideToMove == board.GetPositiveDirectionColor() ? Bitboards.RANK_8 : Bitboards.RANK_1;
+            if ((Bitboards.Bit(Moves.To(move)) & lastRank) != 0) {
+                result = sideToMove == PieceColor.WHITE ? GameResult.WHITE_WINS : GameResult.BLACK_WINS;
+                break;
+            }
+            sideToMove = sideToMove.Opposite();
+        }
+        report.games++;
+        report.results[result.ordinal()]++;
+        report.positionChecksum += board.GetPositionKey();
+        return board;
+    }
+
+    // Tries a random move of one of the side's pieces that is not among the
+    // generated moves, returning what went wrong if the board accepts it or
+    // changes in refusing it
+    private static String TryUngeneratedMove(ChessBoard board, PieceColor sideToMove, int[] moves, int count,
+                                             Random random, SelfPlayReport report) {
+        long own = board.GetOccupancy(sideToMove);
+        for (int skip = random.nextInt(Long.bitCount(own)); skip > 0; skip--)
+            own &= own - 1;
+        int from = Long.numberOfTrailingZeros(own);
+        int to = random.nextInt(Bitboards.SQUARE_COUNT);
+        MovementType movementType = random.nextBoolean() ? MovementType.MOVE : MovementType.CAPTURE;
+        int move = Moves.Encode(from, to, movementType);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move)
+                return null;
+        }
+
+        long key = board.GetPositionKey();
+        ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+        MoveResult result = board.TryMove(piece, movementType, Bitboards.FileOf(to), Bitboards.RankOf(to));
+        report.illegalMovesTried++;
+        if (result == MoveResult.ACCEPTED)
+            return "the board accepted " + SearchResult.MoveToString(move) + ", which was not generated";
+        if (board.GetPositionKey() != key)
+            return "refusing " + SearchResult.MoveToString(move) + " changed the position";
+        return null;
+    }
+
+    // Returns what is wrong with the board, or null if nothing is
+    static String CheckInvariants(ChessBoard board) {
+        long white = board.GetOccupancy(PieceColor.WHITE);
+        long black = board.GetOccupancy(PieceColor.BLACK);
+        if ((white & black) != 0)
+            return "two pieces on square " + Long.numberOfTrailingZeros(white & black);
+
+        Set<ChessPiece> seen = Collections.newSetFromMap(new IdentityHashMap<ChessPiece, Boolean>());
+        for (long occupied = white | black; occupied != 0; occupied &= occupied - 1) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            int x = Bitboards.FileOf(square);
+            int y = Bitboards.RankOf(square);
+            PieceColor color = (white & Bitboards.Bit(square)) != 0 ? PieceColor.WHITE : PieceColor.BLACK;
+            ChessPiece piece = board.GetPieceAt(x, y);
+            if (piece == null || piece.getHandle() != square || piece.getPieceColor() != color)
+                return "the piece at (" + x + ", " + y + ") does not match its square";
+            if (!seen.add(piece))
+                return "one piece is on two squares";
+        }
+
+        for (PieceColor capturingColor : PieceColor.values()) {
+            for (ChessPiece piece : board.GetCapturedPieces(capturingColor)) {
+                if (piece.getPieceColor() == capturingColor || piece.getHandle() != ChessBoard.NO_PIECE || !seen.add(piece))
+                    return capturingColor + " has captured a piece that is still in play";
+            }
+            int remaining = Long.bitCount(board.GetOccupancy(capturingColor.Opposite()));
+            if (remaining + board.GetCapturedPieces(capturingColor).size() != ChessBoard.MAX_BOARD_WIDTH)
+                return capturingColor.Opposite() + " pieces on the board and captured do not add up";
+        }
+
+        if (board.GetPositionKey() != new ChessBoard(board).GetPositionKey())
+            return "the position key differs from a copy's";
+        for (PieceColor color : PieceColor.values()) {
+            boolean up = color == board.GetPositiveDirectionColor();
+            if (board.GetAttacks(color) != PawnMoves.CaptureTargets(board.GetOccupancy(color), up))
+                return "the " + color + " attack map is stale";
+        }
+        try {
+            // Checked against a full evaluation (see ChessBoard.SetEvaluationCheck)
+            board.Evaluate(PieceColor.WHITE);
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    // Bytes the current thread has allocated, or -1 if the JVM cannot say
+    private static long AllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private final class GameRange extends RecursiveTask<SelfPlayReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final long seed;
+        private final MovePolicy white;
+        private final MovePolicy black;
+        private final LatencyHistogram moveLatency;
+
+        GameRange(int start, int end, long seed, MovePolicy white, MovePolicy black, LatencyHistogram moveLatency) {
+            this.start = start;
+            this.end = end;
+            this.seed = seed;
+            this.white = white;
+            this.black = black;
+            this.moveLatency = moveLatency;
+        }
+
+        @Override
+        protected SelfPlayReport compute() {
+            if (end - start > RANGE) {
+                int middle = (start + end) >>> 1;
+                GameRange upper = new GameRange(middle, end, seed, white, black, moveLatency);
+                upper.fork();
+                SelfPlayReport report = new GameRange(start, middle, seed, white, black, moveLatency).compute();
+                report.Add(upper.join());
+                return report;
+            }
+
+            SelfPlayReport report = new SelfPlayReport(moveLatency);
+            long allocatedBefore = AllocatedBytes();
+            for (int game = start; game < end; game++)
+                Play(game, seed, white, black, report);
+            long allocatedAfter = AllocatedBytes();
+            report.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+            return report;
+        }
+    }
+
+    private static MovePolicy Policy(String name) {
+        if (name.equals("random"))
+            return new RandomPolicy();
+        if (name.equals("greedy"))
+            return new GreedyCapturePolicy();
+        throw new IllegalArgumentException("Unknown policy " + name + ", expected random or greedy");
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: SelfPlayRunner <games> [seed] [random|greedy] [random|greedy]");
+            System.exit(1);
+        }
+        int games = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        MovePolicy white = Policy(args.length > 2 ? args[2] : "random");
+        MovePolicy black = Policy(args.length > 3 ? args[3] : "random");
+        SelfPlayReport report = new SelfPlayRunner(ForkJoinPool.commonPool(), 200, true).Run(games, seed, white, black);
+        System.out.println("Seed " + seed + ", " + white + " against " + black + ": " + report);
+        for (String violation : report.GetViolations())
+            System.out.println(violation);
+    }
+}
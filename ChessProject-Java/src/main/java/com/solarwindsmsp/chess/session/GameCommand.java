@@ -0,0 +1,9 @@
+package com.solarwindsmsp.chess.session;
+
+import com.solarwindsmsp.chess.ChessBoard;
+
+// Work to run against one game's board. Commands for the same game run one at a
+// time in submission order, so they may use the board without synchronization.
+public interface GameCommand<T> {
+    T Execute(ChessBoard board);
+}
@@ -0,0 +1,184 @@
+package com.solarwindsmsp.chess.session;
+
+import com.solarwindsmsp.chess.ChessBoard;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// One hosted game: its board plus a bounded mailbox of pending commands. The
+// mailbox is drained by at most one executor task at a time. The submitter that
+// takes the pending count from zero schedules the drain, and the drain keeps
+// going until it brings the count back to zero, so no thread is parked per game.
+public final class GameSession {
+    // Commands run per drain before yielding the executor thread to other games
+    private static final int DRAIN_BATCH = 16;
+    // Empty polls yielded through before a drain parks while it waits for a
+    // reserved slot's command to be queued (see Take)
+    private static final int TAKE_YIELDS = 32;
+    private static final long TAKE_PARK_NANOS = 1000;
+
+    private final long gameId;
+    private final ChessBoard board;
+    private final int mailboxCapacity;
+    private final Executor executor;
+    private final SessionStats managerStats;
+    private final ConcurrentLinkedQueue<Envelope<?>> mailbox = new ConcurrentLinkedQueue<Envelope<?>>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            Drain();
+        }
+    };
+
+    // Written only by the drain, which runs on one thread at a time. The count
+    // is volatile and written last so other threads see a consistent total.
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+    private volatile long completedCount;
+    private final AtomicInteger rejectedCount = new AtomicInteger();
+
+    GameSession(long gameId, ChessBoard board, int mailboxCapacity, Executor executor, SessionStats managerStats) {
+        this.gameId = gameId;
+        this.board = board;
+        this.mailboxCapacity = mailboxCapacity;
+        this.executor = executor;
+        this.managerStats = managerStats;
+    }
+
+    public long GetGameId() {
+        return gameId;
+    }
+
+    public int GetPendingCount() {
+        return pending.get();
+    }
+
+    public long GetCompletedCount() {
+        return completedCount;
+    }
+
+    public int GetRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long GetMaxLatencyNanos() {
+        long count = completedCount;
+        return count == 0 ? 0 : maxLatencyNanos;
+    }
+
+    public long GetMeanLatencyNanos() {
+        long count = completedCount;
+        return count == 0 ? 0 : totalLatencyNanos / count;
+    }
+
+    <T> CompletableFuture<T> Submit(GameCommand<T> command) {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+
+        // Reserve a mailbox slot, refusing the command when the game is full
+        int count;
+        do {
+            count = pending.get();
+            if (count >= mailboxCapacity) {
+                rejectedCount.incrementAndGet();
+                managerStats.RecordRejected();
+                future.completeExceptionally(new RejectedExecutionException("Mailbox full for game " + gameId));
+                return future;
+            }
+        } while (!pending.compareAndSet(count, count + 1));
+
+        mailbox.offer(new Envelope<T>(command, future, System.nanoTime()));
+        if (count == 0)
+            Schedule();
+        return future;
+    }
+
+    private void Drain() {
+        boolean more = true;
+        try {
+            for (int i = 0; i < DRAIN_BATCH && more; i++) {
+                Envelope<?> envelope = Take();
+                try {
+                    envelope.Run(board);
+                    long latency = System.nanoTime() - envelope.submitNanos;
+                    totalLatencyNanos += latency;
+                    maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                    completedCount = completedCount + 1;
+                    managerStats.RecordLatency(latency);
+                } finally {
+                    // Completed after the figures and the pending count are
+                    // updated, so callers see them
+                    more = pending.decrementAndGet() != 0;
+                    envelope.Complete();
+                }
+            }
+        } finally {
+            // Also reached when the drain fails, so queued commands still run
+            if (more)
+                Schedule();
+        }
+    }
+
+    // Next command in the mailbox. A slot can be reserved a moment before its
+    // command is queued, so this waits for it, yielding a bounded number of
+    // times before parking.
+    private Envelope<?> Take() {
+        Envelope<?> envelope;
+        for (int attempt = 0; (envelope = mailbox.poll()) == null; attempt++) {
+            if (attempt < TAKE_YIELDS)
+                Thread.yield();
+            else
+                LockSupport.parkNanos(TAKE_PARK_NANOS);
+        }
+        return envelope;
+    }
+
+    private void Schedule() {
+        try {
+            executor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            // The executor is shutting down; fail everything still queued
+            int count = pending.get();
+            while (count > 0) {
+                for (int i = 0; i < count; i++)
+                    Take().future.completeExceptionally(e);
+                count = pending.addAndGet(-count);
+            }
+        }
+    }
+
+    private static final class Envelope<T> {
+        private final GameCommand<T> command;
+        private final CompletableFuture<T> future;
+        private final long submitNanos;
+        private T result;
+        private Throwable failure;
+
+        Envelope(GameCommand<T> command, CompletableFuture<T> future, long submitNanos) {
+            this.command = command;
+            this.future = future;
+            this.submitNanos = submitNanos;
+        }
+
+        // Errors are caught too, so a command that fails in any way fails
+        // only its own future
+        void Run(ChessBoard board) {
+            try {
+                result = command.Execute(board);
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        void Complete() {
+            if (failure != null)
+                future.completeExceptionally(failure);
+            else
+                future.complete(result);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.solarwindsmsp.chess.session;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+// Hosts many games at once, keyed by game id. Commands for one game run in
+// order, one at a time, through that game's mailbox (see GameSession), while
+// different games run in parallel on the shared executor and never contend.
+// Any Executor works: a ForkJoinPool, a fixed pool, or a virtual thread per
+// task executor on JDKs that have one.
+//
+// Mailboxes are bounded. A command submitted to a full mailbox is not queued;
+// its future fails straight away with a RejectedExecutionException, so callers
+// see backpressure instead of unbounded memory growth.
+public final class GameSessionManager {
+    private final Executor executor;
+    private final int mailboxCapacity;
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<Long, GameSession>();
+    private final SessionStats stats = new SessionStats();
+
+    public GameSessionManager(Executor executor, int mailboxCapacity) {
+        if (mailboxCapacity < 1)
+            throw new IllegalArgumentException("Mailbox capacity must be at least 1");
+        this.executor = executor;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    // Starts hosting the board under the given id. Returns false if the id is taken.
+    public boolean CreateGame(long gameId, ChessBoard board) {
+        return sessions.putIfAbsent(gameId, new GameSession(gameId, board, mailboxCapacity, executor, stats)) == null;
+    }
+
+    // Stops hosting the game. Commands already queued still run.
+    public boolean CloseGame(long gameId) {
+        return sessions.remove(gameId) != null;
+    }
+
+    public GameSession GetSession(long gameId) {
+        return sessions.get(gameId);
+    }
+
+    public int GetGameCount() {
+        return sessions.size();
+    }
+
+    public SessionStats GetStats() {
+        return stats;
+    }
+
+    public <T> CompletableFuture<T> Submit(long gameId, GameCommand<T> command) {
+        GameSession session = sessions.get(gameId);
+        if (session == null) {
+            CompletableFuture<T> future = new CompletableFuture<T>();
+            future.completeExceptionally(new IllegalArgumentException("No game with id " + gameId));
+            return future;
+        }
+        return session.Submit(command);
+    }
+
+    // Moves the piece at (x, y), completing with whether the board accepted the move
+    public CompletableFuture<Boolean> SubmitMove(long gameId, final int x, final int y, final MovementType movementType, final int newX, final int newY) {
+        return Submit(gameId, new GameCommand<Boolean>() {
+            @Override
+            public Boolean Execute(ChessBoard board) {
+                ChessPiece piece = board.GetPieceAt(x, y);
+                return piece != null && piece.Move(movementType, newX, newY);
+            }
+        });
+    }
+}
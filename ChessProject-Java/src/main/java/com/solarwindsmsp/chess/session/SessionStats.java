@@ -0,0 +1,35 @@
+package com.solarwindsmsp.chess.session;
+
+import com.solarwindsmsp.chess.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency of commands across all games of a GameSessionManager, measured from
+// submission to completion.
+public final class SessionStats {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    void RecordLatency(long latencyNanos) {
+        latency.Record(latencyNanos);
+        completed.increment();
+    }
+
+    void RecordRejected() {
+        rejected.increment();
+    }
+
+    public long GetCompletedCount() {
+        return completed.sum();
+    }
+
+    public long GetRejectedCount() {
+        return rejected.sum();
+    }
+
+    // Latency that the given fraction (0 to 1) of commands completed within
+    public long GetLatencyPercentileNanos(double fraction) {
+        return latency.GetPercentileNanos(fraction);
+    }
+}
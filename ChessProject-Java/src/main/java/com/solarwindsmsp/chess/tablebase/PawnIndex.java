@@ -0,0 +1,109 @@
+package com.solarwindsmsp.chess.tablebase;
+
+import com.solarwindsmsp.chess.Bitboards;
+
+// Numbers the pawn-only positions of each material, one up pawn count and one
+// down pawn count, without gaps. Each pawn is in one of STATE_COUNT states: a
+// square short of its last rank, and for squares it could still move 2 from,
+// whether it has its first move. A side's pawns are a set of distinct states,
+// numbered by their rank in colex order, and a position's index is its up
+// pawns' number times the number of down pawn sets, plus its down pawns'
+// number. A few indexes name impossible positions, with pawns sharing a square.
+//
+// Squares are taken relative to the pawn's direction of travel, so that moving
+// a pawn forward always raises its state, and so the index of the position.
+final class PawnIndex {
+    static final int MAX_PAWNS = 4;
+    // Squares short of the last rank, and those short of the last two ranks,
+    // where a pawn's first move is a separate state
+    private static final int MOVABLE_SQUARES = Bitboards.SQUARE_COUNT - Bitboards.SIZE;
+    private static final int FIRST_MOVE_SQUARES = MOVABLE_SQUARES - Bitboards.SIZE;
+    static final int STATE_COUNT = MOVABLE_SQUARES + FIRST_MOVE_SQUARES;
+
+    private static final long[][] BINOMIAL = new long[STATE_COUNT + 1][MAX_PAWNS + 1];
+
+    static {
+        for (int n = 0; n <= STATE_COUNT; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_PAWNS); k++)
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+        }
+    }
+
+    private PawnIndex() {
+    }
+
+    // Number of positions of each side to move for the material
+    static int Size(int upCount, int downCount) {
+        return (int) (BINOMIAL[STATE_COUNT][upCount] * BINOMIAL[STATE_COUNT][downCount]);
+    }
+
+    // Index of the position, which must have upCount + downCount <= MAX_PAWNS,
+    // or -1 if a pawn has reached its last rank
+    static long Index(long upPawns, long downPawns, long initialMoves) {
+        long upNumber = Number(true, upPawns, initialMoves);
+        long downNumber = Number(false, downPawns, initialMoves);
+        if (upNumber < 0 || downNumber < 0)
+            return -1;
+        return upNumber * BINOMIAL[STATE_COUNT][Long.bitCount(downPawns)] + downNumber;
+    }
+
+    // Sets position[0] and position[1] to the up and down pawns of the index and
+    // position[2] to the pawns with their first move. The pawn counts are lower
+    // than asked for if the index names an impossible position.
+    static void Position(int upCount, int downCount, long index, long[] position) {
+        long downSets = BINOMIAL[STATE_COUNT][downCount];
+        position[2] = 0;
+        position[0] = Pawns(true, upCount, index / downSets, position);
+        position[1] = Pawns(false, downCount, index % downSets, position);
+    }
+
+    private static long Number(boolean up, long pawns, long initialMoves) {
+        // Relative squares rise from the lowest bit for up pawns and the highest
+        // for down pawns, so either way the states come in ascending order
+        long number = 0;
+        for (int i = 1; pawns != 0; i++) {
+            int square = up ? Long.numberOfTrailingZeros(pawns) : Bitboards.SQUARE_COUNT - 1 - Long.numberOfLeadingZeros(pawns);
+            int relative = Relative(up, square);
+            if (relative >= MOVABLE_SQUARES)
+                return -1;
+            number += BINOMIAL[State(relative, (initialMoves & Bitboards.Bit(square)) != 0)][i];
+            pawns &= ~Bitboards.Bit(square);
+        }
+        return number;
+    }
+
+    private static long Pawns(boolean up, int count, long number, long[] position) {
+        long pawns = 0;
+        int state = STATE_COUNT;
+        for (int i = count; i > 0; i--) {
+            do {
+                state--;
+            } while (BINOMIAL[state][i] > number);
+            number -= BINOMIAL[state][i];
+            int square = Relative(up, RelativeSquare(state));
+            pawns |= Bitboards.Bit(square);
+            if (HasFirstMove(state))
+                position[2] |= Bitboards.Bit(square);
+        }
+        return pawns;
+    }
+
+    // Down pawns see the board turned half way round
+    private static int Relative(boolean up, int square) {
+        return up ? square : Bitboards.SQUARE_COUNT - 1 - square;
+    }
+
+    // A first move is not a separate state where a double step would leave the board
+    private static int State(int relative, boolean initialMove) {
+        return relative < FIRST_MOVE_SQUARES ? 2 * relative + (initialMove ? 1 : 0) : relative + FIRST_MOVE_SQUARES;
+    }
+
+    private static int RelativeSquare(int state) {
+        return state < 2 * FIRST_MOVE_SQUARES ? state >>> 1 : state - FIRST_MOVE_SQUARES;
+    }
+
+    private static boolean HasFirstMove(int state) {
+        return state < 2 * FIRST_MOVE_SQUARES && (state & 1) != 0;
+    }
+}
@@ -0,0 +1,168 @@
+package com.solarwindsmsp.chess.tablebase;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Exact results of pawn-only positions with up to PawnIndex.MAX_PAWNS pawns,
+// memory-mapped from the files TablebaseGenerator writes, one per material.
+// A file is a 24 byte header (MAGIC, VERSION, up pawns, down pawns, bits per
+// entry, unused) followed by an entry for each index (see PawnIndex) with the
+// up side to move, then with the down side to move, packed into as few bits as
+// the material's longest result needs, and 8 bytes of padding so that any
+// entry can be read with a single getLong. Probing computes the index and reads
+// one entry, and may be done from any number of threads.
+//
+// Results are for the side to move, under the search's rules (a pawn reaching
+// its last rank wins, and having no move is a draw): 0 for a draw, n for a win
+// with the winning pawn reaching its last rank n plies from now, or -n for a
+// loss n plies from now.
+public final class PawnTablebase implements Closeable {
+    public static final int MAGIC = 0x50544231;
+    public static final int VERSION = 1;
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+    public static final int MAX_PAWNS = PawnIndex.MAX_PAWNS;
+
+    static final int HEADER_SIZE = 24;
+    static final int PADDING = 8;
+    // Entry values, also used while solving; a result n plies away is DRAW + n,
+    // a win when n is odd, since the side to move makes the last move
+    static final int UNSOLVED = 0;
+    static final int IMPOSSIBLE = 1;
+    static final int DRAW = 2;
+    static final int MAX_VALUE = 255;
+
+    private final Table[][] tables = new Table[MAX_PAWNS + 1][MAX_PAWNS + 1];
+
+    private PawnTablebase() {
+    }
+
+    // Maps whichever material files are in the directory
+    public static PawnTablebase Open(Path directory) throws IOException {
+        PawnTablebase tablebase = new PawnTablebase();
+        for (int upCount = 0; upCount <= MAX_PAWNS; upCount++) {
+            for (int downCount = 0; upCount + downCount <= MAX_PAWNS; downCount++) {
+                Path file = directory.resolve(FileName(upCount, downCount));
+                if (Files.exists(file))
+                    tablebase.tables[upCount][downCount] = Table.Open(file, upCount, downCount);
+            }
+        }
+        return tablebase;
+    }
+
+    static String FileName(int upCount, int downCount) {
+        return "pawns-" + upCount + "-" + downCount + ".ptb";
+    }
+
+    public boolean HasTable(int upCount, int downCount) {
+        return upCount >= 0 && downCount >= 0 && upCount + downCount <= MAX_PAWNS && tables[upCount][downCount] != null;
+    }
+
+    // Result for sideToMove, or NOT_FOUND if the board holds other pieces, too
+    // many pawns, a pawn on its last rank, or material with no table
+    public int Probe(ChessBoard board, PieceColor sideToMove) {
+        PieceColor upColor = board.GetPositiveDirectionColor();
+        long upPawns = board.GetBitboard(PieceType.PAWN, upColor);
+        long downPawns = board.GetBitboard(PieceType.PAWN, upColor.Opposite());
+        if ((upPawns | downPawns) != board.GetOccupancy())
+            return NOT_FOUND;
+        return Probe(upPawns, downPawns, board.GetInitialMoves(), sideToMove == upColor);
+    }
+
+    public int Probe(long upPawns, long downPawns, long initialMoves, boolean upToMove) {
+        int upCount = Long.bitCount(upPawns);
+        int downCount = Long.bitCount(downPawns);
+        if (!HasTable(upCount, downCount))
+            return NOT_FOUND;
+        long index = PawnIndex.Index(upPawns, downPawns, initialMoves);
+        if (index < 0)
+            return NOT_FOUND;
+        Table table = tables[upCount][downCount];
+        int value = table.Value(upToMove ? index : table.size + index);
+        return value < DRAW ? NOT_FOUND : Result(value);
+    }
+
+    public static boolean IsWin(int result) {
+        return result > 0 && result != NOT_FOUND;
+    }
+
+    public static boolean IsLoss(int result) {
+        return result < 0 && result != NOT_FOUND;
+    }
+
+    static int Result(int value) {
+        int distance = value - DRAW;
+        return (distance & 1) != 0 ? distance : -distance;
+    }
+
+    static int Value(int result) {
+        return DRAW + Math.abs(result);
+    }
+
+    static long DataSize(long entries, int bits) {
+        return (entries * bits + 7) >>> 3;
+    }
+
+    // Bits needed to hold every value up to maxValue
+    static int Bits(int maxValue) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(maxValue);
+    }
+
+    @Override
+    public void close() {
+        // Mappings are released when the buffers are collected
+    }
+
+    private static final class Table {
+        private final ByteBuffer entries;
+        private final int bits;
+        private final long size;
+
+        private Table(ByteBuffer entries, int bits, long size) {
+            this.entries = entries;
+            this.bits = bits;
+            this.size = size;
+        }
+
+        static Table Open(Path file, int upCount, int downCount) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                long fileSize = channel.size();
+                if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE)
+                    throw new IOException(file + " is not a pawn tablebase");
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize).order(ByteOrder.BIG_ENDIAN);
+                if (mapped.getInt(0) != MAGIC)
+                    throw new IOException(file + " is not a pawn tablebase");
+                if (mapped.getInt(4) != VERSION)
+                    throw new IOException(file + " is version " + mapped.getInt(4) + ", expected " + VERSION);
+                if (mapped.getInt(8) != upCount || mapped.getInt(12) != downCount)
+                    throw new IOException(file + " holds another material");
+                int bits = mapped.getInt(16);
+                long size = PawnIndex.Size(upCount, downCount);
+                if (bits < 1 || bits > 8 || fileSize != HEADER_SIZE + DataSize(2 * size, bits) + PADDING)
+                    throw new IOException(file + " is truncated");
+                mapped.position(HEADER_SIZE);
+                return new Table(mapped.slice(), bits, size);
+            } finally {
+                // The mapping stays valid after the channel is closed
+                raf.close();
+            }
+        }
+
+        int Value(long entry) {
+            long bit = entry * bits;
+            long word = entries.getLong((int) (bit >>> 3));
+            return (int) ((word << (bit & 7)) >>> (Long.SIZE - bits));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.solarwindsmsp.chess.tablebase;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.PawnTables;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+// Solves every pawn-only material up to a number of pawns by retrograde
+// analysis and writes a PawnTablebase file for each. Pawns never move back, so
+// a move leads either to a position of the same material with a higher index
+// (see PawnIndex) or, by a capture, to a material with one pawn less. Materials
+// are solved smallest first, and a position is settled once every position it
+// leads to is, working back from positions with a winning move or no move at
+// all.
+//
+// Each pass splits the indexes into ranges that are solved in parallel on a
+// ForkJoinPool, each scanned from the top down so that most positions find
+// what they lead to already settled. Passes repeat until every position is.
+// While solving, entries take a byte each on the heap; only the material being
+// solved and those one pawn smaller are kept.
+//
+// Run as a program to write the tables to a directory:
+//   TablebaseGenerator <directory> <max pawns>
+public final class TablebaseGenerator {
+    // Indexes scanned by one task
+    private static final int RANGE = 1 << 12;
+    // Preference of a win over a draw over a loss, whatever their distances
+    private static final int DECIDED = 1 << 10;
+
+    private final ForkJoinPool pool;
+    // Entry values by up pawn count, down pawn count, side to move (up first)
+    // and index
+    private final byte[][][][] values = new byte[PawnTablebase.MAX_PAWNS + 1][PawnTablebase.MAX_PAWNS + 1][][];
+    private int passCount;
+
+    public TablebaseGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Writes the tables of every material of up to maxPawns pawns, replacing
+    // any in the directory, and returns the number of entries written
+    public long Generate(Path directory, int maxPawns) throws IOException {
+        if (maxPawns < 0 || maxPawns > PawnTablebase.MAX_PAWNS)
+            throw new IllegalArgumentException("Tables cover at most " + PawnTablebase.MAX_PAWNS + " pawns");
+        Files.createDirectories(directory);
+        long entries = 0;
+        for (int total = 0; total <= maxPawns; total++) {
+            for (int upCount = 0; upCount <= total; upCount++) {
+                int downCount = total - upCount;
+                Solve(upCount, downCount);
+                Write(directory, upCount, downCount);
+                entries += 2L * PawnIndex.Size(upCount, downCount);
+            }
+            // Captures from the next materials only reach this one
+            for (int upCount = 0; upCount < total; upCount++)
+                values[upCount][total - 1 - upCount] = null;
+        }
+        for (int upCount = 0; upCount <= maxPawns; upCount++)
+            values[upCount][maxPawns - upCount] = null;
+        return entries;
+    }
+
+    // Passes made over all materials so far
+    public int GetPassCount() {
+        return passCount;
+    }
+
+    private void Solve(int upCount, int downCount) {
+        int size = PawnIndex.Size(upCount, downCount);
+        values[upCount][downCount] = new byte[][]{new byte[size], new byte[size]};
+        long unsolved = Long.MAX_VALUE;
+        while (true) {
+            long left = pool.invoke(new SolveRange(upCount, downCount, 0, size));
+            passCount++;
+            if (left == 0)
+                return;
+            if (left == unsolved)
+                throw new IllegalStateException("Positions with " + upCount + " up and " + downCount + " down pawns do not settle");
+            unsolved = left;
+        }
+    }
+
+    // Value of the position for the side to move, or UNSOLVED if it leads to a
+    // position that is not solved yet
+    private int SolvePosition(long upPawns, long downPawns, long initialMoves, boolean upToMove) {
+        long own = upToMove ? upPawns : downPawns;
+        long enemies = upToMove ? downPawns : upPawns;
+        long empty = ~(upPawns | downPawns);
+        long lastRank = upToMove ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        int best = 0;
+        boolean moved = false;
+        boolean waiting = false;
+        for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            long fromBit = Bitboards.Bit(from);
+            // The moves ChessBoard.GenerateMoves would give
+            long targets = PawnTables.PushTargets(upToMove, from) & empty;
+            if ((initialMoves & fromBit) != 0)
+                targets |= PawnTables.DoublePushTargets(upToMove, from) & empty;
+            targets |= PawnTables.CaptureTargets(upToMove, from) & enemies;
+            if ((targets & lastRank) != 0)
+                return PawnTablebase.Value(1);
+
+            for (; targets != 0; targets &= targets - 1) {
+                long toBit = targets & -targets;
+                long movedPawns = own ^ fromBit ^ toBit;
+                long remaining = enemies & ~toBit;
+                int value = Value(upToMove ? movedPawns : remaining, upToMove ? remaining : movedPawns,
+                        initialMoves & ~fromBit & ~toBit, !upToMove);
+                if (value == PawnTablebase.UNSOLVED) {
+                    waiting = true;
+                    continue;
+                }
+                int reply = PawnTablebase.Result(value);
+                int result = reply == 0 ? 0 : reply > 0 ? -(reply + 1) : 1 - reply;
+                if (!moved || Preference(result) > Preference(best))
+                    best = result;
+                moved = true;
+            }
+        }
+        if (waiting)
+            return PawnTablebase.UNSOLVED;
+        if (PawnTablebase.Value(best) > PawnTablebase.MAX_VALUE)
+            throw new IllegalStateException("Result " + best + " is too far away to store");
+        // No move at all is a draw
+        return PawnTablebase.Value(best);
+    }
+
+    private static int Preference(int result) {
+        return result == 0 ? 0 : result > 0 ? DECIDED - result : -DECIDED - result;
+    }
+
+    private int Value(long upPawns, long downPawns, long initialMoves, boolean upToMove) {
+        byte[][] material = values[Long.bitCount(upPawns)][Long.bitCount(downPawns)];
+        int index = (int) PawnIndex.Index(upPawns, downPawns, initialMoves);
+        return material[upToMove ? 0 : 1][index] & 0xFF;
+    }
+
+    private void Write(Path directory, int upCount, int downCount) throws IOException {
+        byte[][] material = values[upCount][downCount];
+        int maxValue = PawnTablebase.DRAW;
+        for (byte[] side : material) {
+            for (byte value : side)
+                maxValue = Math.max(maxValue, value & 0xFF);
+        }
+        int bits = PawnTablebase.Bits(maxValue);
+
+        // Written beside the table and moved over it, so readers never see half a table
+        Path file = directory.resolve(PawnTablebase.FileName(upCount, downCount));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+        try {
+            out.writeInt(PawnTablebase.MAGIC);
+            out.writeInt(PawnTablebase.VERSION);
+            out.writeInt(upCount);
+            out.writeInt(downCount);
+            out.writeInt(bits);
+            out.writeInt(0);
+            long pending = 0;
+            int pendingBits = 0;
+            for (byte[] side : material) {
+                for (byte value : side) {
+                    pending = (pending << bits) | (value & 0xFF);
+                    pendingBits += bits;
+                    if (pendingBits >= 8) {
+                        pendingBits -= 8;
+                        out.write((int) (pending >>> pendingBits));
+                    }
+                }
+            }
+            if (pendingBits > 0)
+                out.write((int) (pending << (8 - pendingBits)));
+            out.write(new byte[PawnTablebase.PADDING]);
+        } finally {
+            out.close();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private final class SolveRange extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int upCount;
+        private final int downCount;
+        private final int start;
+        private final int end;
+
+        SolveRange(int upCount, int downCount, int start, int end) {
+            this.upCount = upCount;
+            this.downCount = downCount;
+            this.start = start;
+            this.end = end;
+        }
+
+        // Returns the number of positions left unsolved
+        @Override
+        protected Long compute() {
+            if (end - start > RANGE) {
+                int middle = (start + end) >>> 1;
+                SolveRange lower = new SolveRange(upCount, downCount, start, middle);
+                lower.fork();
+                long upper = new SolveRange(upCount, downCount, middle, end).compute();
+                return upper + lower.join();
+            }
+
+            byte[][] material = values[upCount][downCount];
+            long[] position = new long[3];
+            long unsolved = 0;
+            for (int index = end - 1; index >= start; index--) {
+                if (material[0][index] != PawnTablebase.UNSOLVED && material[1][index] != PawnTablebase.UNSOLVED)
+                    continue;
+                PawnIndex.Position(upCount, downCount, index, position);
+                if (Long.bitCount(position[0]) != upCount || Long.bitCount(position[1]) != downCount
+                        || (position[0] & position[1]) != 0) {
+                    material[0][index] = PawnTablebase.IMPOSSIBLE;
+                    material[1][index] = PawnTablebase.IMPOSSIBLE;
+                    continue;
+                }
+                for (int side = 0; side < 2; side++) {
+                    if (material[side][index] == PawnTablebase.UNSOLVED) {
+                        int value = SolvePosition(position[0], position[1], position[2], side == 0);
+                        material[side][index] = (byte) value;
+                        if (value == PawnTablebase.UNSOLVED)
+                            unsolved++;
+                    }
+                }
+            }
+            return unsolved;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <max pawns>");
+            System.exit(1);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(ForkJoinPool.commonPool());
+        long start = System.nanoTime();
+        long entries = generator.Generate(Paths.get(args[0]), Integer.parseInt(args[1]));
+        long elapsed = System.nanoTime() - start;
+        System.out.println("Solved " + entries + " positions in " + generator.GetPassCount() + " passes, "
+                + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+    }
+}
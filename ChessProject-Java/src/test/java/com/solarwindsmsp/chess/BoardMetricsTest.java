@@ -0,0 +1,86 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoardMetricsTest {
+
+    @Test
+    public void testCounts_Each_Result_Once_Enabled() {
+        ChessBoard board = new ChessBoard();
+        Pawn pawn = new Pawn(PieceColor.WHITE);
+        // Nothing is recorded before SetMetrics
+        board.Add(pawn, 0, 1);
+        BoardMetrics metrics = new BoardMetrics();
+        board.SetMetrics(metrics);
+
+        assertFalse(board.Add(pawn, 1, 1));
+        assertTrue(board.Add(new Pawn(PieceColor.BLACK), 0, 6));
+        assertFalse(pawn.Move(MovementType.MOVE, 0, 4));
+        assertFalse(pawn.Move(MovementType.CAPTURE, 1, 2));
+        assertTrue(pawn.Move(MovementType.MOVE, 0, 3));
+
+        assertEquals(1, metrics.GetAddCount(MoveResult.ACCEPTED));
+        assertEquals(1, metrics.GetAddCount(MoveResult.ALREADY_ON_BOARD));
+        assertEquals(1, metrics.GetAddRejectedCount());
+        assertEquals(1, metrics.GetMoveCount(MoveResult.ACCEPTED));
+        assertEquals(1, metrics.GetMoveCount(MoveResult.PIECE_RULE));
+        assertEquals(1, metrics.GetMoveCount(MoveResult.TARGET_EMPTY));
+        assertEquals(2, metrics.GetMoveRejectedCount());
+        // The occupancy rule refused the capture before the pawn was asked
+        assertEquals(2, metrics.GetPieceRuleCheckCount());
+
+        board.SetMetrics(null);
+        assertTrue(pawn.Move(MovementType.MOVE, 0, 4));
+        assertEquals(1, metrics.GetMoveCount(MoveResult.ACCEPTED));
+
+        metrics.Reset();
+        assertEquals(0, metrics.GetMoveCount(MoveResult.PIECE_RULE));
+        assertEquals(0, metrics.GetPieceRuleCheckCount());
+    }
+
+    @Test
+    public void testShared_Between_Threads() throws InterruptedException {
+        final BoardMetrics metrics = new BoardMetrics();
+        final int moves = 10000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ChessBoard board = new ChessBoard();
+                    board.SetMetrics(metrics);
+                    Pawn pawn = new Pawn(PieceColor.WHITE, false);
+                    board.Add(pawn, 0, 1);
+                    for (int i = 0; i < moves; i++)
+                        board.TryMove(pawn, MovementType.MOVE, 0, 3);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(threads.length * (long) moves, metrics.GetMoveCount(MoveResult.PIECE_RULE));
+        assertEquals(threads.length, metrics.GetAddCount(MoveResult.ACCEPTED));
+        // Each board times one call in 64, counting its add
+        assertEquals(threads.length * (long) ((moves + 1) / (BoardMetrics.LATENCY_SAMPLE_MASK + 1)),
+                metrics.GetMoveLatency().GetCount());
+        assertTrue(metrics.GetMoveLatency().GetPercentileNanos(1.0) > 0);
+        // Every move reaches the piece rules, which are timed one check in 64
+        assertEquals(threads.length * (long) (moves / (BoardMetrics.LATENCY_SAMPLE_MASK + 1)),
+                metrics.GetPieceRuleLatency().GetCount());
+    }
+
+    @Test
+    public void testPercentiles_Are_Bucket_Upper_Bounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.GetPercentileNanos(0.5));
+        for (int i = 0; i < 99; i++)
+            histogram.Record(100);
+        histogram.Record(5000);
+        assertEquals(127, histogram.GetPercentileNanos(0.5));
+        assertEquals(8191, histogram.GetPercentileNanos(1.0));
+    }
+}
@@ -0,0 +1,134 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class BoardSnapshotTest {
+
+    @Test
+    public void testSnapshot_Reflects_Board() {
+        ChessBoard board = new ChessBoard();
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK);
+        board.Add(white, 3, 2);
+        board.Add(black, 4, 3);
+
+        BoardSnapshot snapshot = board.GetSnapshot();
+        assertSame(white, snapshot.GetPieceAt(3, 2));
+        assertSame(black, snapshot.GetPieceAt(4, 3));
+        assertNull(snapshot.GetPieceAt(8, 0));
+        assertTrue(snapshot.Contains(white));
+        assertEquals(1, snapshot.GetPieceCount(Pawn.class, PieceColor.BLACK));
+        assertEquals(board.GetOccupancy(), snapshot.GetOccupancy());
+        assertEquals(board.GetInitialMoves(), snapshot.GetInitialMoves());
+        assertEquals(board.GetPositionKey(), snapshot.GetPositionKey());
+        assertEquals(board.GetVersion(), snapshot.GetVersion());
+    }
+
+    @Test
+    public void testSnapshot_Is_Not_Affected_By_Later_Moves() {
+        ChessBoard board = new ChessBoard();
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK);
+        board.Add(white, 3, 2);
+        board.Add(black, 4, 3);
+        BoardSnapshot before = board.GetSnapshot();
+
+        assertTrue(white.Move(MovementType.CAPTURE, 4, 3));
+        assertSame(black, before.GetPieceAt(4, 3));
+        assertSame(white, before.GetPieceAt(3, 2));
+        assertTrue(before.GetVersion() < board.GetVersion());
+
+        BoardSnapshot after = board.ReadSnapshot(before);
+        assertSame(before, after);
+        assertSame(white, after.GetPieceAt(4, 3));
+        assertFalse(after.Contains(black));
+    }
+
+    @Test
+    public void testRejected_Move_Does_Not_Change_Version() {
+        ChessBoard board = new ChessBoard();
+        Pawn white = new Pawn(PieceColor.WHITE);
+        board.Add(white, 3, 2);
+        long version = board.GetVersion();
+        assertFalse(white.Move(MovementType.MOVE, 3, 1));
+        assertEquals(version, board.GetVersion());
+    }
+
+    @Test
+    public void testReaders_Never_See_Half_Applied_Capture() throws InterruptedException {
+        // The writer repeatedly captures and takes the capture back; every
+        // snapshot must hold either the position before or after the capture
+        final ChessBoard board = new ChessBoard();
+        for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+            board.Add(new Pawn(PieceColor.WHITE), x, 3);
+            board.Add(new Pawn(PieceColor.BLACK), x, 4);
+        }
+        final int[] captures = new int[Moves.MAX_MOVES];
+        final int captureCount = board.GenerateMoves(PieceColor.WHITE, captures);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    BoardSnapshot snapshot = new BoardSnapshot();
+                    long lastVersion = -1;
+                    while (running.get() && failure.get() == null) {
+                        board.ReadSnapshot(snapshot);
+                        String problem = CheckConsistent(snapshot, board.GetPositiveDirectionColor());
+                        if (problem == null && snapshot.GetVersion() < lastVersion)
+                            problem = "version went backwards";
+                        if (problem != null)
+                            failure.compareAndSet(null, problem);
+                        lastVersion = snapshot.GetVersion();
+                    }
+                }
+            });
+            readers[i].start();
+        }
+
+        for (int round = 0; round < 20000 && failure.get() == null; round++) {
+            board.MakeMove(captures[round % captureCount]);
+            board.UnmakeMove();
+        }
+        running.set(false);
+        for (Thread reader : readers)
+            reader.join();
+        assertNull(failure.get(), failure.get());
+    }
+
+    private static String CheckConsistent(BoardSnapshot snapshot, PieceColor positiveDirectionColor) {
+        int pieces = Long.bitCount(snapshot.GetOccupancy());
+        if (pieces != 16 && pieces != 15)
+            return "unexpected piece count " + pieces;
+        if ((snapshot.GetOccupancy(PieceColor.WHITE) & snapshot.GetOccupancy(PieceColor.BLACK)) != 0)
+            return "square occupied by both colors";
+
+        long key = Zobrist.PositiveDirectionKey(positiveDirectionColor);
+        for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+            ChessPiece piece = snapshot.GetPieceAt(Bitboards.FileOf(square), Bitboards.RankOf(square));
+            boolean occupied = (snapshot.GetOccupancy() & Bitboards.Bit(square)) != 0;
+            if (occupied != (piece != null))
+                return "square " + square + " disagrees with occupancy";
+            if (piece == null)
+                continue;
+            if ((snapshot.GetOccupancy(piece.getPieceColor()) & Bitboards.Bit(square)) == 0)
+                return "square " + square + " holds a piece of the wrong color";
+            key ^= Zobrist.PieceKey(piece.getPieceType(), piece.getPieceColor(), square);
+            if ((snapshot.GetInitialMoves() & Bitboards.Bit(square)) != 0)
+                key ^= Zobrist.InitialMoveKey(square);
+        }
+        if (key != snapshot.GetPositionKey())
+            return "position key does not match pieces";
+        return null;
+    }
+}
@@ -1,11 +1,16 @@
 package com.solarwindsmsp.chess;
 
+import com.solarwindsmsp.chess.pieces.ChessPiece;
 import com.solarwindsmsp.chess.pieces.Pawn;
 import junit.framework.TestCase;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
 public class ChessBoardTest extends TestCase {
 
     private ChessBoard testSubject;
@@ -164,4 +169,484 @@ public class ChessBoardTest extends TestCase {
         Pawn pawn = new Pawn(PieceColor.WHITE);
         assertFalse(testSubject.Remove(pawn));
     }
+
+    @Test
+    public void testGetPieceAt() {
+        Pawn pawn = new Pawn(PieceColor.WHITE);
+        assertTrue(testSubject.Add(pawn, 3, 1));
+        assertSame(pawn, testSubject.GetPieceAt(3, 1));
+        assertNull(testSubject.GetPieceAt(3, 2));
+        assertNull(testSubject.GetPieceAt(-1, 1));
+        assertNull(testSubject.GetPieceAt(3, 8));
+    }
+
+    @Test
+    public void testGetPieceCount() {
+        assertTrue(testSubject.Add(new Pawn(PieceColor.WHITE), 0, 1));
+        assertTrue(testSubject.Add(new Pawn(PieceColor.WHITE), 1, 1));
+        assertTrue(testSubject.Add(new Pawn(PieceColor.BLACK), 0, 6));
+        assertEquals(2, testSubject.GetPieceCount(Pawn.class, PieceColor.WHITE));
+        assertEquals(1, testSubject.GetPieceCount(Pawn.class, PieceColor.BLACK));
+    }
+
+    @Test
+    public void testBitboards_Track_Move_And_Capture() {
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK);
+        assertTrue(testSubject.Add(white, 3, 3));
+        assertTrue(testSubject.Add(black, 4, 4));
+        assertEquals(Bitboards.Bit(Bitboards.Square(3, 3)), testSubject.GetBitboard(PieceType.PAWN, PieceColor.WHITE));
+        assertEquals(Bitboards.Bit(Bitboards.Square(4, 4)), testSubject.GetOccupancy(PieceColor.BLACK));
+
+        assertTrue(white.Move(MovementType.CAPTURE, 4, 4));
+        assertEquals(Bitboards.Bit(Bitboards.Square(4, 4)), testSubject.GetBitboard(PieceType.PAWN, PieceColor.WHITE));
+        assertEquals(0L, testSubject.GetBitboard(PieceType.PAWN, PieceColor.BLACK));
+        assertEquals(Bitboards.Bit(Bitboards.Square(4, 4)), testSubject.GetOccupancy());
+        assertSame(white, testSubject.GetPieceAt(4, 4));
+        assertNull(testSubject.GetPieceAt(3, 3));
+        assertNoPosition(black);
+    }
+
+    @Test
+    public void testRemove_Clears_Square() {
+        Pawn pawn = new Pawn(PieceColor.WHITE);
+        assertTrue(testSubject.Add(pawn, 2, 2));
+        assertTrue(testSubject.Remove(pawn));
+        assertNull(testSubject.GetPieceAt(2, 2));
+        assertEquals(0L, testSubject.GetOccupancy());
+        assertEquals(0, testSubject.GetPieceCount(Pawn.class, PieceColor.WHITE));
+    }
+
+    @Test
+    public void testGenerateMoves_Matches_Move_Rules() {
+        Random random = new Random(42);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int i = 0; i < 500; i++) {
+            ChessBoard board = new ChessBoard(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+            for (int j = 0; j < 24; j++) {
+                PieceColor color = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+                board.Add(new Pawn(color, random.nextBoolean()), random.nextInt(8), random.nextInt(8));
+            }
+
+            for (PieceColor color : PieceColor.values()) {
+                Set<Integer> generated = new HashSet<Integer>();
+                int count = board.GenerateMoves(color, moves);
+                for (int j = 0; j < count; j++)
+                    assertTrue(generated.add(moves[j]));
+                assertEquals(expectedMoves(board, color), generated);
+            }
+        }
+    }
+
+    @Test
+    public void testGenerateMoves_Initial_Move_Used_Up() {
+        Pawn pawn = new Pawn(PieceColor.WHITE);
+        int[] moves = new int[Moves.MAX_MOVES];
+        assertTrue(testSubject.Add(pawn, 4, 1));
+        assertEquals(2, testSubject.GenerateMoves(PieceColor.WHITE, moves));
+        assertTrue(pawn.Move(MovementType.MOVE, 4, 2));
+        assertEquals(1, testSubject.GenerateMoves(PieceColor.WHITE, moves));
+        assertEquals(Moves.Encode(Bitboards.Square(4, 2), Bitboards.Square(4, 3), MovementType.MOVE), moves[0]);
+    }
+
+    @Test
+    public void testCopy_Is_Independent() {
+        Pawn pawn = new Pawn(PieceColor.WHITE, false);
+        assertTrue(testSubject.Add(pawn, 1, 1));
+        ChessBoard copy = new ChessBoard(testSubject);
+
+        ChessPiece copied = copy.GetPieceAt(1, 1);
+        assertNotSame(pawn, copied);
+        assertEquals(PieceColor.WHITE, copied.getPieceColor());
+        assertFalse(copied.isInitialMove());
+
+        assertTrue(copied.Move(MovementType.MOVE, 1, 2));
+        assertSame(pawn, testSubject.GetPieceAt(1, 1));
+        assertNull(testSubject.GetPieceAt(1, 2));
+    }
+
+    @Test
+    public void testMakeMove_Capture_And_UnmakeMove() {
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK, false);
+        assertTrue(testSubject.Add(white, 3, 1));
+        assertTrue(testSubject.Add(black, 4, 2));
+
+        testSubject.MakeMove(Moves.Encode(Bitboards.Square(3, 1), Bitboards.Square(4, 2), MovementType.CAPTURE));
+        assertPosition(white, 4, 2);
+        assertNoPosition(black);
+        assertFalse(white.isInitialMove());
+        assertFalse(testSubject.Contains(black));
+        assertEquals(1, testSubject.GetCapturedPieces(PieceColor.WHITE).size());
+
+        assertTrue(testSubject.UnmakeMove());
+        assertPosition(white, 3, 1);
+        assertPosition(black, 4, 2);
+        assertTrue(white.isInitialMove());
+        assertFalse(black.isInitialMove());
+        assertSame(black, testSubject.GetPieceAt(4, 2));
+        assertTrue(testSubject.GetCapturedPieces(PieceColor.WHITE).isEmpty());
+        assertFalse(testSubject.UnmakeMove());
+    }
+
+    @Test
+    public void testMakeMove_Matches_Move_And_Unwinds() {
+        Random random = new Random(7);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int i = 0; i < 200; i++) {
+            ChessBoard board = new ChessBoard(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+            for (int j = 0; j < 20; j++) {
+                PieceColor color = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+                board.Add(new Pawn(color, random.nextBoolean()), random.nextInt(8), random.nextInt(8));
+            }
+            String initial = describe(board);
+
+            PieceColor sideToMove = PieceColor.WHITE;
+            int made = 0;
+            for (int ply = 0; ply < 12; ply++, sideToMove = sideToMove.Opposite()) {
+                int count = board.GenerateMoves(sideToMove, moves);
+                if (count == 0)
+                    continue;
+                int move = moves[random.nextInt(count)];
+
+                ChessBoard expected = new ChessBoard(board);
+                int from = Moves.From(move);
+                int to = Moves.To(move);
+                assertTrue(expected.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from))
+                        .Move(Moves.GetMovementType(move), Bitboards.FileOf(to), Bitboards.RankOf(to)));
+
+                board.MakeMove(move);
+                made++;
+                assertEquals(describe(expected), describe(board));
+            }
+
+            for (int j = 0; j < made; j++)
+                assertTrue(board.UnmakeMove());
+            assertFalse(board.UnmakeMove());
+            assertEquals(initial, describe(board));
+        }
+    }
+
+    @Test
+    public void testTryAdd_Names_The_Rule_That_Refused() {
+        Pawn pawn = new Pawn(PieceColor.WHITE);
+        assertEquals(MoveResult.ILLEGAL_POSITION, testSubject.TryAdd(pawn, 8, 0));
+        assertEquals(MoveResult.ACCEPTED, testSubject.TryAdd(pawn, 0, 1));
+        assertEquals(MoveResult.ALREADY_ON_BOARD, testSubject.TryAdd(pawn, 1, 1));
+        assertEquals(MoveResult.TARGET_OCCUPIED, testSubject.TryAdd(new Pawn(PieceColor.BLACK), 0, 1));
+        for (int x = 1; x < ChessBoard.MAX_BOARD_WIDTH; x++)
+            testSubject.Add(new Pawn(PieceColor.WHITE), x, 1);
+        assertEquals(MoveResult.INSTANCE_LIMIT, testSubject.TryAdd(new Pawn(PieceColor.WHITE), 0, 3));
+    }
+
+    @Test
+    public void testTryMove_Names_The_Rule_That_Refused() {
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK);
+        Pawn other = new Pawn(PieceColor.WHITE);
+        assertEquals(MoveResult.NOT_ON_BOARD, testSubject.TryMove(white, MovementType.MOVE, 0, 2));
+        testSubject.Add(white, 3, 3);
+        testSubject.Add(black, 3, 4);
+        testSubject.Add(other, 2, 4);
+        assertEquals(MoveResult.ILLEGAL_POSITION, testSubject.TryMove(white, MovementType.MOVE, 3, 8));
+        assertEquals(MoveResult.TARGET_OCCUPIED, testSubject.TryMove(white, MovementType.MOVE, 3, 4));
+        assertEquals(MoveResult.TARGET_EMPTY, testSubject.TryMove(white, MovementType.CAPTURE, 4, 4));
+        assertEquals(MoveResult.TARGET_OWN_PIECE, testSubject.TryMove(white, MovementType.CAPTURE, 2, 4));
+        assertEquals(MoveResult.PIECE_RULE, testSubject.TryMove(white, MovementType.CAPTURE, 3, 4));
+        assertEquals(MoveResult.PIECE_RULE, testSubject.TryMove(black, MovementType.MOVE, 3, 5));
+        testSubject.Add(new Pawn(PieceColor.WHITE), 4, 3);
+        assertEquals(MoveResult.ACCEPTED, testSubject.TryMove(black, MovementType.CAPTURE, 4, 3));
+        assertPosition(black, 4, 3);
+    }
+
+    @Test
+    public void testGetLegalTargets_Matches_Move_Rules() {
+        Random random = new Random(18);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            ChessBoard board = new ChessBoard(game % 2 == 0 ? PieceColor.WHITE : PieceColor.BLACK);
+            for (int i = 0; i < 12; i++)
+                board.AddPiece(i % 2 == 0 ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN, random.nextBoolean(),
+                        random.nextInt(8), random.nextInt(8));
+            PieceColor sideToMove = PieceColor.WHITE;
+            for (int ply = 0; ply < 12; ply++) {
+                // Query every piece, then change the position and query again
+                long occupied = board.GetOccupancy();
+                while (occupied != 0) {
+                    int square = Long.numberOfTrailingZeros(occupied);
+                    occupied &= occupied - 1;
+                    assertEquals(expectedTargets(board, square), board.GetLegalTargets(square));
+                }
+                int count = board.GenerateMoves(sideToMove, moves);
+                if (count == 0)
+                    break;
+                if (random.nextInt(4) == 0)
+                    board.RemovePiece(Moves.From(moves[random.nextInt(count)]));
+                else
+                    board.MakeMove(moves[random.nextInt(count)]);
+                sideToMove = sideToMove.Opposite();
+            }
+        }
+    }
+
+    @Test
+    public void testGetLegalTargets_Keeps_Entries_Away_From_Changes() {
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK);
+        Pawn farAway = new Pawn(PieceColor.BLACK);
+        testSubject.Add(white, 3, 1);
+        testSubject.Add(black, 4, 3);
+        testSubject.Add(farAway, 0, 6);
+        int whiteHandle = testSubject.GetPieceHandleAt(3, 1);
+        int farHandle = testSubject.GetPieceHandleAt(0, 6);
+        assertEquals(Bitboards.Bit(Bitboards.Square(3, 2)) | Bitboards.Bit(Bitboards.Square(3, 3)),
+                testSubject.GetLegalTargets(white));
+        testSubject.GetLegalTargets(farAway);
+        assertTrue(testSubject.IsLegalTargetsCached(whiteHandle));
+
+        // The black pawn lands where the white one can capture
+        assertTrue(black.Move(MovementType.MOVE, 4, 2));
+        assertFalse(testSubject.IsLegalTargetsCached(whiteHandle));
+        assertTrue(testSubject.IsLegalTargetsCached(farHandle));
+        assertEquals(Bitboards.Bit(Bitboards.Square(3, 2)) | Bitboards.Bit(Bitboards.Square(3, 3))
+                | Bitboards.Bit(Bitboards.Square(4, 2)), testSubject.GetLegalTargets(white));
+
+        assertTrue(testSubject.Remove(black));
+        assertEquals(Bitboards.Bit(Bitboards.Square(3, 2)) | Bitboards.Bit(Bitboards.Square(3, 3)),
+                testSubject.GetLegalTargets(white));
+        assertEquals(0, testSubject.GetLegalTargets(black));
+        assertEquals(0, testSubject.GetLegalTargets(ChessBoard.NO_PIECE));
+    }
+
+    @Test
+    public void testAttack_Maps_Follow_Adds_Moves_And_Removes() {
+        Random random = new Random(19);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            ChessBoard board = new ChessBoard(game % 2 == 0 ? PieceColor.WHITE : PieceColor.BLACK);
+            for (int i = 0; i < 12; i++)
+                board.AddPiece(i % 2 == 0 ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN, random.nextBoolean(),
+                        random.nextInt(8), random.nextInt(8));
+            // The undo stack only holds moves, so games with removals are not unwound
+            boolean removals = game / 2 % 2 == 0;
+            PieceColor sideToMove = PieceColor.WHITE;
+            for (int ply = 0; ply < 12; ply++) {
+                for (PieceColor color : PieceColor.values())
+                    assertAttacks(board, color);
+                int count = board.GenerateMoves(sideToMove, moves);
+                if (count == 0)
+                    break;
+                if (removals && random.nextInt(4) == 0)
+                    board.RemovePiece(Moves.From(moves[random.nextInt(count)]));
+                else
+                    board.MakeMove(moves[random.nextInt(count)]);
+                sideToMove = sideToMove.Opposite();
+            }
+            while (!removals && board.UnmakeMove()) {
+                for (PieceColor color : PieceColor.values())
+                    assertAttacks(board, color);
+            }
+        }
+    }
+
+    @Test
+    public void testAttacker_Count_Of_Two_Pawns() {
+        Pawn left = new Pawn(PieceColor.WHITE);
+        Pawn right = new Pawn(PieceColor.WHITE);
+        testSubject.Add(left, 2, 1);
+        testSubject.Add(right, 4, 1);
+        assertEquals(2, testSubject.GetAttackerCount(3, 2, PieceColor.WHITE));
+        assertTrue(testSubject.IsAttacked(3, 2, PieceColor.WHITE));
+        assertFalse(testSubject.IsAttacked(3, 2, PieceColor.BLACK));
+        assertFalse(testSubject.IsAttacked(3, 8, PieceColor.WHITE));
+
+        testSubject.Remove(left);
+        assertEquals(1, testSubject.GetAttackerCount(3, 2, PieceColor.WHITE));
+        assertTrue(right.Move(MovementType.MOVE, 4, 2));
+        assertEquals(0, testSubject.GetAttackerCount(3, 2, PieceColor.WHITE));
+        assertEquals(Bitboards.Bit(Bitboards.Square(3, 3)) | Bitboards.Bit(Bitboards.Square(5, 3)),
+                testSubject.GetAttacks(PieceColor.WHITE));
+    }
+
+    // Attacks found by asking the capture rule about every pair of squares
+    private static void assertAttacks(ChessBoard board, PieceColor color) {
+        long expected = 0;
+        for (int target = 0; target < Bitboards.SQUARE_COUNT; target++) {
+            int attackers = 0;
+            long pieces = board.GetOccupancy(color);
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                PieceKind kind = board.GetPieceKind(square);
+                boolean up = color == board.GetPositiveDirectionColor();
+                if (kind.IsMoveLegal(up, board.IsInitialMove(square), square, MovementType.CAPTURE, target))
+                    attackers++;
+            }
+            assertEquals(attackers, board.GetAttackerCount(target, color));
+            assertEquals(attackers > 0, board.IsAttacked(target, color));
+            if (attackers > 0)
+                expected |= Bitboards.Bit(target);
+        }
+        assertEquals(expected, board.GetAttacks(color));
+    }
+
+    // Targets found by asking the move rules about every square
+    private static long expectedTargets(ChessBoard board, int square) {
+        PieceKind kind = board.GetPieceKind(square);
+        boolean up = kind.getPieceColor() == board.GetPositiveDirectionColor();
+        boolean initialMove = board.IsInitialMove(square);
+        long targets = 0;
+        for (int target = 0; target < Bitboards.SQUARE_COUNT; target++) {
+            PieceKind occupant = board.GetPieceKind(target);
+            MovementType movementType = occupant == null ? MovementType.MOVE : MovementType.CAPTURE;
+            if (occupant != null && occupant.getPieceColor() == kind.getPieceColor())
+                continue;
+            if (kind.IsMoveLegal(up, initialMove, square, movementType, target))
+                targets |= Bitboards.Bit(target);
+        }
+        return targets;
+    }
+
+    @Test
+    public void testAddPiece_Returns_Square_Handles() {
+        int handle = testSubject.AddPiece(PieceKind.WHITE_PAWN, true, 3, 1);
+        assertEquals(Bitboards.Square(3, 1), handle);
+        assertTrue(testSubject.ContainsPiece(handle));
+        assertEquals(PieceKind.WHITE_PAWN, testSubject.GetPieceKind(handle));
+        assertTrue(testSubject.IsInitialMove(handle));
+        assertEquals(handle, testSubject.GetPieceHandleAt(3, 1));
+        assertEquals(ChessBoard.NO_PIECE, testSubject.AddPiece(PieceKind.BLACK_PAWN, true, 3, 1));
+        assertEquals(ChessBoard.NO_PIECE, testSubject.AddPiece(PieceKind.BLACK_PAWN, true, 8, 1));
+        assertEquals(ChessBoard.NO_PIECE, testSubject.GetPieceHandleAt(4, 4));
+        assertFalse(testSubject.ContainsPiece(ChessBoard.NO_PIECE));
+        assertEquals(1, testSubject.GetPieceCount(Pawn.class, PieceColor.WHITE));
+
+        for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++)
+            testSubject.AddPiece(PieceKind.BLACK_PAWN, true, x, 6);
+        assertEquals(ChessBoard.NO_PIECE, testSubject.AddPiece(PieceKind.BLACK_PAWN, true, 0, 5));
+    }
+
+    @Test
+    public void testMovePiece_Follows_Move_Rules() {
+        int white = testSubject.AddPiece(PieceKind.WHITE_PAWN, true, 3, 1);
+        int black = testSubject.AddPiece(PieceKind.BLACK_PAWN, true, 4, 4);
+        assertEquals(ChessBoard.NO_PIECE, testSubject.MovePiece(white, MovementType.MOVE, 3, 4));
+        assertEquals(ChessBoard.NO_PIECE, testSubject.MovePiece(white, MovementType.CAPTURE, 4, 2));
+        white = testSubject.MovePiece(white, MovementType.MOVE, 3, 3);
+        assertEquals(Bitboards.Square(3, 3), white);
+        assertFalse(testSubject.IsInitialMove(white));
+        assertEquals(ChessBoard.NO_PIECE, testSubject.MovePiece(white, MovementType.MOVE, 3, 5));
+
+        white = testSubject.MovePiece(white, MovementType.CAPTURE, 4, 4);
+        assertEquals(Bitboards.Square(4, 4), white);
+        assertEquals(PieceKind.WHITE_PAWN, testSubject.GetPieceKind(black));
+        assertEquals(1, testSubject.GetCapturedPieces(PieceColor.WHITE).size());
+        assertEquals(PieceColor.BLACK, testSubject.GetCapturedPieces(PieceColor.WHITE).get(0).getPieceColor());
+        assertEquals(Zobrist.Compute(testSubject), testSubject.GetPositionKey());
+
+        assertTrue(testSubject.RemovePiece(white));
+        assertFalse(testSubject.RemovePiece(white));
+        assertEquals(0, testSubject.GetOccupancy());
+    }
+
+    @Test
+    public void testPieces_Added_As_Kinds_Match_Piece_Objects() {
+        ChessBoard objects = new ChessBoard();
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            int x = random.nextInt(8);
+            int y = random.nextInt(8);
+            boolean initialMove = random.nextBoolean();
+            PieceKind kind = random.nextBoolean() ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN;
+            boolean added = objects.Add(kind.NewPiece(initialMove), x, y);
+            assertEquals(added, testSubject.AddPiece(kind, initialMove, x, y) != ChessBoard.NO_PIECE);
+        }
+        assertEquals(objects.GetPositionKey(), testSubject.GetPositionKey());
+
+        int[] moves = new int[Moves.MAX_MOVES];
+        int count = testSubject.GenerateMoves(PieceColor.WHITE, moves);
+        int[] objectMoves = new int[Moves.MAX_MOVES];
+        assertEquals(objects.GenerateMoves(PieceColor.WHITE, objectMoves), count);
+        for (int i = 0; i < count; i++) {
+            testSubject.MakeMove(moves[i]);
+            objects.MakeMove(moves[i]);
+            assertEquals(objects.GetPositionKey(), testSubject.GetPositionKey());
+            assertEquals(describe(objects), describe(testSubject));
+            testSubject.UnmakeMove();
+            objects.UnmakeMove();
+            assertEquals(describe(objects), describe(testSubject));
+        }
+    }
+
+    @Test
+    public void testGetPieceAt_Adapts_Kind_Into_Piece() {
+        int handle = testSubject.AddPiece(PieceKind.WHITE_PAWN, true, 2, 1);
+        ChessPiece piece = testSubject.GetPieceAt(2, 1);
+        assertSame(piece, testSubject.GetPieceAt(2, 1));
+        assertTrue(testSubject.Contains(piece));
+        assertTrue(piece.isInitialMove());
+        assertTrue(piece.Move(MovementType.MOVE, 2, 3));
+        assertFalse(testSubject.ContainsPiece(handle));
+        assertEquals(PieceKind.WHITE_PAWN, testSubject.GetPieceKind(Bitboards.Square(2, 3)));
+
+        // Moving by handle keeps an existing object in step
+        assertEquals(Bitboards.Square(2, 4), testSubject.MovePiece(Bitboards.Square(2, 3), MovementType.MOVE, 2, 4));
+        assertPosition((Pawn) piece, 2, 4);
+        assertSame(piece, testSubject.GetPieceAt(2, 4));
+
+        ChessBoard copy = new ChessBoard(testSubject);
+        assertEquals(testSubject.GetPositionKey(), copy.GetPositionKey());
+    }
+
+    @Test
+    public void testPiece_Coordinates_Come_From_Its_Handle() {
+        int handle = testSubject.AddPiece(PieceKind.BLACK_PAWN, false, 3, 4);
+        long version = testSubject.GetVersion();
+        ChessPiece piece = testSubject.GetPieceAt(3, 4);
+        // Creating the piece object leaves the position as it was
+        assertEquals(version, testSubject.GetVersion());
+        assertEquals(handle, piece.getHandle());
+
+        Pawn capturer = new Pawn(PieceColor.WHITE);
+        assertTrue(testSubject.Add(capturer, 2, 3));
+        assertTrue(capturer.Move(MovementType.CAPTURE, 3, 4));
+        assertEquals(ChessBoard.NO_PIECE, piece.getHandle());
+        assertPosition((Pawn) piece, -1, -1);
+        assertEquals(Bitboards.Square(3, 4), capturer.getHandle());
+        assertPosition(capturer, 3, 4);
+    }
+
+    private static String describe(ChessBoard board) {
+        StringBuilder description = new StringBuilder();
+        for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+            ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(square), Bitboards.RankOf(square));
+            if (piece == null)
+                continue;
+            assertTrue(piece.IsAt(Bitboards.FileOf(square), Bitboards.RankOf(square)));
+            description.append(square).append(piece.getPieceColor()).append(piece.isInitialMove()).append(' ');
+        }
+        for (PieceColor color : PieceColor.values())
+            description.append(color).append(board.GetCapturedPieces(color).size());
+        return description.toString();
+    }
+
+    // Brute force every target square through the same checks Move applies
+    private static Set<Integer> expectedMoves(ChessBoard board, PieceColor color) {
+        Set<Integer> expected = new HashSet<Integer>();
+        for (int from = 0; from < Bitboards.SQUARE_COUNT; from++) {
+            ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+            if (piece == null || piece.getPieceColor() != color)
+                continue;
+            for (int to = 0; to < Bitboards.SQUARE_COUNT; to++) {
+                int x = Bitboards.FileOf(to);
+                int y = Bitboards.RankOf(to);
+                ChessPiece target = board.GetPieceAt(x, y);
+                if (target == null && piece.IsMoveLegal(MovementType.MOVE, x, y))
+                    expected.add(Moves.Encode(from, to, MovementType.MOVE));
+                if (target != null && target.getPieceColor() != color && piece.IsMoveLegal(MovementType.CAPTURE, x, y))
+                    expected.add(Moves.Encode(from, to, MovementType.CAPTURE));
+            }
+        }
+        return expected;
+    }
 }
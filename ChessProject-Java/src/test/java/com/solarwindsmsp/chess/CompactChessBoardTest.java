@@ -0,0 +1,119 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompactChessBoardTest {
+
+    @Test
+    public void testAdd_Follows_Board_Rules() {
+        CompactChessBoard board = new CompactChessBoard();
+        assertTrue(board.Add(PieceColor.WHITE, true, 3, 1));
+        assertFalse(board.Add(PieceColor.BLACK, true, 3, 1));
+        assertFalse(board.Add(PieceColor.BLACK, true, 8, 1));
+        assertEquals(PieceColor.WHITE, board.GetPieceColorAt(3, 1));
+        assertTrue(board.IsInitialMove(3, 1));
+        for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++)
+            board.Add(PieceColor.BLACK, true, x, 6);
+        assertFalse(board.Add(PieceColor.BLACK, true, 0, 5));
+        assertEquals(8, board.GetPieceCount(PieceColor.BLACK));
+    }
+
+    @Test
+    public void testCapture_Is_Counted() {
+        CompactChessBoard board = new CompactChessBoard();
+        board.Add(PieceColor.WHITE, true, 3, 2);
+        board.Add(PieceColor.BLACK, true, 4, 3);
+        assertFalse(board.Move(3, 2, MovementType.MOVE, 4, 3));
+        assertTrue(board.Move(3, 2, MovementType.CAPTURE, 4, 3));
+        assertEquals(PieceColor.WHITE, board.GetPieceColorAt(4, 3));
+        assertNull(board.GetPieceColorAt(3, 2));
+        assertEquals(1, board.GetCapturedCount(PieceColor.WHITE));
+        assertEquals(0, board.GetPieceCount(PieceColor.BLACK));
+        assertFalse(board.IsInitialMove(4, 3));
+    }
+
+    @Test
+    public void testRandom_Games_Match_ChessBoard() {
+        Random random = new Random(99);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            PieceColor positiveDirectionColor = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+            ChessBoard board = new ChessBoard(positiveDirectionColor);
+            CompactChessBoard compact = new CompactChessBoard(positiveDirectionColor);
+            for (int i = 0; i < 20; i++) {
+                PieceColor color = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+                boolean initialMove = random.nextBoolean();
+                int x = random.nextInt(9);
+                int y = random.nextInt(8);
+                assertEquals(board.Add(new Pawn(color, initialMove), x, y), compact.Add(color, initialMove, x, y));
+            }
+
+            PieceColor side = PieceColor.WHITE;
+            for (int ply = 0; ply < 40; ply++) {
+                assertSamePosition(board, compact);
+                int move;
+                int count = board.GenerateMoves(side, moves);
+                if (count > 0 && random.nextInt(4) != 0) {
+                    move = moves[random.nextInt(count)];
+                } else {
+                    int from = random.nextInt(64);
+                    move = Moves.Encode(from, random.nextInt(64), random.nextBoolean() ? MovementType.MOVE : MovementType.CAPTURE);
+                }
+                int from = Moves.From(move);
+                int to = Moves.To(move);
+                ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+                boolean accepted = piece != null
+                        && piece.Move(Moves.GetMovementType(move), Bitboards.FileOf(to), Bitboards.RankOf(to));
+                assertEquals(accepted, compact.Move(move));
+                side = side.Opposite();
+            }
+            assertSamePosition(board, compact);
+        }
+    }
+
+    @Test
+    public void testPool_Reuses_Reset_Boards() {
+        CompactChessBoardPool pool = new CompactChessBoardPool(1);
+        CompactChessBoard first = pool.Acquire(PieceColor.WHITE);
+        first.Add(PieceColor.WHITE, true, 0, 1);
+        assertTrue(pool.Release(first));
+        assertFalse(pool.Release(new CompactChessBoard()));
+
+        CompactChessBoard second = pool.Acquire(PieceColor.BLACK);
+        assertSame(first, second);
+        assertEquals(0, second.GetOccupancy());
+        assertEquals(PieceColor.BLACK, second.GetPositiveDirectionColor());
+        assertEquals(new CompactChessBoard(PieceColor.BLACK).GetPositionKey(), second.GetPositionKey());
+        assertEquals(0, pool.GetSize());
+    }
+
+    @Test
+    public void testFootprint() {
+        CompactChessBoard compact = new CompactChessBoard();
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        for (int x = 0; x < ChessBoard.MAX_BOARD_WIDTH; x++) {
+            compact.Add(PieceColor.WHITE, true, x, 1);
+            compact.Add(PieceColor.BLACK, true, x, 6);
+        }
+        long compactBytes = GraphLayout.parseInstance(compact).totalSize();
+        long boardBytes = GraphLayout.parseInstance(board).totalSize();
+        assertTrue(compactBytes <= 64);
+        assertTrue(compactBytes < boardBytes);
+    }
+
+    private static void assertSamePosition(ChessBoard board, CompactChessBoard compact) {
+        assertEquals(board.GetOccupancy(PieceColor.WHITE), compact.GetOccupancy(PieceColor.WHITE));
+        assertEquals(board.GetOccupancy(PieceColor.BLACK), compact.GetOccupancy(PieceColor.BLACK));
+        assertEquals(board.GetInitialMoves(), compact.GetInitialMoves());
+        assertEquals(board.GetPositionKey(), compact.GetPositionKey());
+        assertEquals(board.GetCapturedPieces(PieceColor.WHITE).size(), compact.GetCapturedCount(PieceColor.WHITE));
+        assertEquals(board.GetCapturedPieces(PieceColor.BLACK).size(), compact.GetCapturedCount(PieceColor.BLACK));
+    }
+}
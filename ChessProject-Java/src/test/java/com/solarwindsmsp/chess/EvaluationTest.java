@@ -0,0 +1,80 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EvaluationTest {
+
+    @Test
+    public void testScores_Structure() {
+        ChessBoard board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, true, 3, 1);
+        // Isolated, and passed but not yet advanced
+        assertEquals(Evaluation.PAWN_VALUE - Evaluation.ISOLATED_PENALTY, board.Evaluate(PieceColor.WHITE));
+
+        board.AddPiece(PieceKind.WHITE_PAWN, true, 3, 2);
+        // 100 + 104 for the pawns, 10 for the front one being passed, and
+        // penalties for a doubled pair of isolated pawns
+        assertEquals(204 + 10 - Evaluation.DOUBLED_PENALTY - 2 * Evaluation.ISOLATED_PENALTY,
+                board.Evaluate(PieceColor.WHITE));
+        assertEquals(-board.Evaluate(PieceColor.WHITE), board.Evaluate(PieceColor.BLACK));
+
+        // A black pawn ahead on the next file stops both being passed
+        board.AddPiece(PieceKind.BLACK_PAWN, true, 4, 6);
+        assertEquals(204 - Evaluation.DOUBLED_PENALTY - 2 * Evaluation.ISOLATED_PENALTY
+                - (Evaluation.PAWN_VALUE - Evaluation.ISOLATED_PENALTY), board.Evaluate(PieceColor.WHITE));
+    }
+
+    @Test
+    public void testIncremental_Score_Matches_Recompute() {
+        Random random = new Random(21);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int game = 0; game < 300; game++) {
+            ChessBoard board = new ChessBoard(game % 2 == 0 ? PieceColor.WHITE : PieceColor.BLACK);
+            board.SetEvaluationCheck(true);
+            for (int i = 0; i < 12; i++) {
+                if (i % 3 == 0)
+                    board.Add(new Pawn(i % 2 == 0 ? PieceColor.WHITE : PieceColor.BLACK, random.nextBoolean()),
+                            random.nextInt(8), random.nextInt(8));
+                else
+                    board.AddPiece(i % 2 == 0 ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN, random.nextBoolean(),
+                            random.nextInt(8), random.nextInt(8));
+            }
+            PieceColor sideToMove = PieceColor.WHITE;
+            int made = 0;
+            for (int ply = 0; ply < 16; ply++) {
+                assertEquals(Evaluation.Evaluate(board, PieceColor.BLACK), board.Evaluate(PieceColor.BLACK));
+                int count = board.GenerateMoves(sideToMove, moves);
+                if (count == 0)
+                    break;
+                board.MakeMove(moves[random.nextInt(count)]);
+                made++;
+                // Take some moves back to follow the undo path too
+                if (random.nextInt(5) == 0) {
+                    board.UnmakeMove();
+                    made--;
+                    board.Evaluate(sideToMove);
+                    continue;
+                }
+                sideToMove = sideToMove.Opposite();
+            }
+            while (made-- > 0) {
+                board.UnmakeMove();
+                board.Evaluate(PieceColor.WHITE);
+            }
+
+            // Removing every piece brings the score back to zero
+            long occupied = board.GetOccupancy();
+            while (occupied != 0) {
+                board.RemovePiece(Long.numberOfTrailingZeros(occupied));
+                occupied &= occupied - 1;
+                board.Evaluate(PieceColor.WHITE);
+            }
+            assertEquals(0, board.Evaluate(PieceColor.WHITE));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.solarwindsmsp.chess;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LargeChessBoardTest {
+
+    private static Set<Integer> generated(LargeChessBoard board, PieceColor color) {
+        int[] moves = new int[board.GetMaxMoves()];
+        int count = board.GenerateMoves(color, moves);
+        Set<Integer> set = new HashSet<Integer>();
+        for (int i = 0; i < count; i++)
+            set.add(moves[i]);
+        assertEquals(count, set.size());
+        return set;
+    }
+
+    // Every move IsLegal accepts for the color, found the slow way
+    private static Set<Integer> legal(LargeChessBoard board, PieceColor color) {
+        BoardGeometry geometry = board.GetGeometry();
+        Set<Integer> set = new HashSet<Integer>();
+        for (int from = 0; from < geometry.GetSquareCount(); from++) {
+            if (board.GetPieceColorAt(geometry.FileOf(from), geometry.RankOf(from)) != color)
+                continue;
+            for (int to = 0; to < geometry.GetSquareCount(); to++) {
+                for (MovementType movementType : MovementType.values()) {
+                    int move = LargeChessBoard.EncodeMove(from, to, movementType);
+                    if (board.IsLegal(move))
+                        set.add(move);
+                }
+            }
+        }
+        return set;
+    }
+
+    @Test
+    public void testGeometry_Is_Fixed_And_Checked() {
+        assertSame(BoardGeometry.STANDARD, BoardGeometry.Of(8, 8));
+        assertSame(BoardGeometry.STANDARD, new ChessBoard().GetGeometry());
+        BoardGeometry wide = BoardGeometry.Of(20, 10);
+        assertEquals(BoardGeometry.Of(20, 10), wide);
+        assertEquals("20x10", wide.toString());
+        assertEquals(200, wide.GetSquareCount());
+        assertEquals(20, wide.GetMaxPawns());
+        assertTrue(wide.IsOnBoard(19, 9));
+        assertFalse(wide.IsOnBoard(20, 9));
+        assertFalse(wide.IsOnBoard(19, 10));
+        assertFalse(wide.IsOnBoard(-1, 0));
+        assertFalse(wide.IsOnBoard(0, Integer.MIN_VALUE));
+        for (int[] size : new int[][]{{0, 8}, {8, 2}, {BoardGeometry.MAX_SIZE + 1, 8}}) {
+            try {
+                BoardGeometry.Of(size[0], size[1]);
+                fail(Arrays.toString(size));
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testStandard_Bounds_Are_One_Mask_Test() {
+        for (int x = -20; x < 20; x++) {
+            for (int y = -20; y < 20; y++)
+                assertEquals(BoardGeometry.STANDARD.IsOnBoard(x, y), Bitboards.IsOnBoard(x, y));
+        }
+        assertFalse(Bitboards.IsOnBoard(Integer.MIN_VALUE, 0));
+        assertFalse(Bitboards.IsOnBoard(0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPawn_Limit_Follows_The_Board_Width() {
+        LargeChessBoard board = new LargeChessBoard(BoardGeometry.Of(16, 16));
+        for (int x = 0; x < 16; x++)
+            assertTrue(board.Add(PieceColor.WHITE, true, x, 1));
+        assertFalse(board.Add(PieceColor.WHITE, true, 0, 2));
+        assertTrue(board.Add(PieceColor.BLACK, true, 0, 14));
+        assertEquals(16, board.GetPieceCount(PieceColor.WHITE));
+        assertEquals(Integer.valueOf(16), PieceKind.WHITE_PAWN.GetMaxInstances(board.GetGeometry()));
+        assertFalse(board.Add(PieceColor.BLACK, true, 16, 14));
+    }
+
+    @Test
+    public void testMoves_Across_Word_Boundaries_Do_Not_Wrap() {
+        // Square 63 is the last of the first word on a 16x16 board
+        LargeChessBoard board = new LargeChessBoard(BoardGeometry.Of(16, 16));
+        board.Add(PieceColor.WHITE, false, 15, 3);
+        board.Add(PieceColor.BLACK, false, 14, 4);
+        // Where a capture off the right edge would land if it wrapped
+        board.Add(PieceColor.BLACK, false, 0, 5);
+        Set<Integer> moves = generated(board, PieceColor.WHITE);
+        assertEquals(legal(board, PieceColor.WHITE), moves);
+        assertEquals(2, moves.size());
+        assertFalse(board.Move(15, 3, MovementType.CAPTURE, 0, 5));
+        assertTrue(board.Move(15, 3, MovementType.CAPTURE, 14, 4));
+        assertEquals(1, board.GetCapturedCount(PieceColor.WHITE));
+        assertEquals(PieceColor.WHITE, board.GetPieceColorAt(14, 4));
+
+        // A double step jumps a rank, like ChessBoard's
+        assertTrue(board.Add(PieceColor.BLACK, true, 7, 15));
+        assertTrue(board.Add(PieceColor.WHITE, false, 7, 14));
+        assertTrue(board.Move(7, 15, MovementType.MOVE, 7, 13));
+        assertFalse(board.IsInitialMove(7, 13));
+        assertFalse(board.Move(7, 13, MovementType.MOVE, 7, 11));
+    }
+
+    @Test
+    public void testStandard_Geometry_Matches_ChessBoard() {
+        Random random = new Random(24);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            PieceColor positiveDirectionColor = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+            ChessBoard board = new ChessBoard(positiveDirectionColor);
+            LargeChessBoard large = new LargeChessBoard(BoardGeometry.STANDARD, positiveDirectionColor);
+            for (int i = 0; i < 20; i++) {
+                PieceKind kind = random.nextBoolean() ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN;
+                boolean initialMove = random.nextBoolean();
+                int x = random.nextInt(9);
+                int y = random.nextInt(8);
+                assertEquals(board.AddPiece(kind, initialMove, x, y) != ChessBoard.NO_PIECE,
+                        large.Add(kind.getPieceColor(), initialMove, x, y));
+            }
+
+            PieceColor side = PieceColor.WHITE;
+            for (int ply = 0; ply < 40; ply++) {
+                int count = board.GenerateMoves(side, moves);
+                Set<Integer> expected = new HashSet<Integer>();
+                for (int i = 0; i < count; i++)
+                    expected.add(LargeChessBoard.EncodeMove(Moves.From(moves[i]), Moves.To(moves[i]), Moves.GetMovementType(moves[i])));
+                assertEquals(expected, generated(large, side));
+                if (count == 0)
+                    break;
+                int move = moves[random.nextInt(count)];
+                board.MakeMove(move);
+                assertTrue(large.Move(LargeChessBoard.EncodeMove(Moves.From(move), Moves.To(move), Moves.GetMovementType(move))));
+                side = side.Opposite();
+            }
+            for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+                int x = Bitboards.FileOf(square);
+                int y = Bitboards.RankOf(square);
+                PieceColor color = (board.GetOccupancy(PieceColor.WHITE) & Bitboards.Bit(square)) != 0 ? PieceColor.WHITE
+                        : (board.GetOccupancy(PieceColor.BLACK) & Bitboards.Bit(square)) != 0 ? PieceColor.BLACK : null;
+                assertEquals(color, large.GetPieceColorAt(x, y));
+                assertEquals((board.GetInitialMoves() & Bitboards.Bit(square)) != 0, large.IsInitialMove(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testOdd_Sizes_Generate_Every_Legal_Move() {
+        Random random = new Random(7);
+        for (int game = 0; game < 50; game++) {
+            BoardGeometry geometry = BoardGeometry.Of(1 + random.nextInt(24), 3 + random.nextInt(22));
+            LargeChessBoard board = new LargeChessBoard(geometry, random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+            for (int i = 0; i < geometry.GetSquareCount() / 3; i++) {
+                board.Add(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK, random.nextBoolean(),
+                        random.nextInt(geometry.GetWidth()), random.nextInt(geometry.GetHeight()));
+            }
+            PieceColor side = PieceColor.WHITE;
+            for (int ply = 0; ply < 30; ply++) {
+                Set<Integer> moves = generated(board, side);
+                assertEquals(geometry.toString(), legal(board, side), moves);
+                if (moves.isEmpty())
+                    break;
+                Integer[] choices = moves.toArray(new Integer[0]);
+                Arrays.sort(choices);
+                assertTrue(board.Move(choices[random.nextInt(choices.length)]));
+                side = side.Opposite();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+// Exhaustive comparison of the table driven pawn rules with the displacement
+// rules Pawn.IsMoveLegal used before the tables
+public class PawnTablesTest {
+
+    private static boolean referenceIsMoveLegal(boolean up, boolean initialMove, int x, int y,
+                                                MovementType movementType, int newX, int newY) {
+        int yDisplacement = (newY - y) * (up ? 1 : -1);
+        switch (movementType) {
+            case MOVE:
+                if (newX != x || yDisplacement <= 0)
+                    return false;
+                return yDisplacement <= (initialMove ? 2 : 1);
+            case CAPTURE:
+                int xDisplacement = newX - x;
+                return (xDisplacement == 1 || xDisplacement == -1) && yDisplacement == 1;
+        }
+        return false;
+    }
+
+    @Test
+    public void testPawn_IsMoveLegal_Matches_Reference_For_Every_Square() {
+        for (PieceColor positiveDirectionColor : PieceColor.values()) {
+            for (PieceColor color : PieceColor.values()) {
+                for (boolean initialMove : new boolean[]{true, false}) {
+                    boolean up = color == positiveDirectionColor;
+                    for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+                        int x = Bitboards.FileOf(square);
+                        int y = Bitboards.RankOf(square);
+                        ChessBoard board = new ChessBoard(positiveDirectionColor);
+                        Pawn pawn = new Pawn(color, initialMove);
+                        assertTrue(board.Add(pawn, x, y));
+
+                        // Include targets off the board, which bypass the tables
+                        for (int newX = -2; newX < ChessBoard.MAX_BOARD_WIDTH + 2; newX++) {
+                            for (int newY = -2; newY < ChessBoard.MAX_BOARD_HEIGHT + 2; newY++) {
+                                for (MovementType movementType : MovementType.values()) {
+                                    assertEquals(color + " pawn at " + x + "," + y + " " + movementType + " to " + newX + "," + newY,
+                                            referenceIsMoveLegal(up, initialMove, x, y, movementType, newX, newY),
+                                            pawn.IsMoveLegal(movementType, newX, newY));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTables_Match_Reference_For_Every_Square() {
+        for (boolean up : new boolean[]{true, false}) {
+            for (int from = 0; from < Bitboards.SQUARE_COUNT; from++) {
+                int x = Bitboards.FileOf(from);
+                int y = Bitboards.RankOf(from);
+                for (int to = 0; to < Bitboards.SQUARE_COUNT; to++) {
+                    long bit = Bitboards.Bit(to);
+                    int newX = Bitboards.FileOf(to);
+                    int newY = Bitboards.RankOf(to);
+                    boolean push = referenceIsMoveLegal(up, false, x, y, MovementType.MOVE, newX, newY);
+                    boolean anyPush = referenceIsMoveLegal(up, true, x, y, MovementType.MOVE, newX, newY);
+                    assertEquals(push, (PawnTables.PushTargets(up, from) & bit) != 0);
+                    assertEquals(anyPush && !push, (PawnTables.DoublePushTargets(up, from) & bit) != 0);
+                    assertEquals(referenceIsMoveLegal(up, false, x, y, MovementType.CAPTURE, newX, newY),
+                            (PawnTables.CaptureTargets(up, from) & bit) != 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPawn_Direction_Follows_Board() {
+        ChessBoard board = new ChessBoard(PieceColor.BLACK);
+        Pawn white = new Pawn(PieceColor.WHITE);
+        board.Add(white, 3, 3);
+        assertTrue(white.IsMoveLegal(MovementType.MOVE, 3, 2));
+        assertFalse(white.IsMoveLegal(MovementType.MOVE, 3, 4));
+        // Copies pick up the direction of the board they are added to
+        Pawn copy = (Pawn) white.Copy();
+        new ChessBoard(PieceColor.WHITE).Add(copy, 3, 3);
+        assertTrue(copy.IsMoveLegal(MovementType.MOVE, 3, 4));
+    }
+}
@@ -255,4 +255,11 @@ public class PawnTest {
         assertPosition(testSubject,6, 3);
         assertTrue(chessBoard.Contains(targetPiece));
     }
+
+    @Test
+    public void testToString_Includes_Position_And_Color() {
+        chessBoard.Add(testSubject, 6, 3);
+        String eol = System.lineSeparator();
+        assertEquals("Current X: 6" + eol + "Current Y: 3" + eol + "Piece Color: BLACK", testSubject.toString());
+    }
 }
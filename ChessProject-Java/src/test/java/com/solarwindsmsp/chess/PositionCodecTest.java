@@ -0,0 +1,146 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PositionCodecTest {
+
+    private static final String START = "8/pppppppp/8/8/8/8/PPPPPPPP/8 w a2b2c2d2e2f2g2h2a7b7c7d7e7f7g7h7";
+
+    private static CompactChessBoard randomBoard(Random random) {
+        CompactChessBoard board = new CompactChessBoard(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+        int pawns = random.nextInt(20);
+        for (int i = 0; i < pawns; i++)
+            board.Add(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK, random.nextBoolean(), random.nextInt(8), random.nextInt(8));
+        return board;
+    }
+
+    private static void assertSamePosition(CompactChessBoard expected, CompactChessBoard actual) {
+        assertEquals(expected.GetOccupancy(PieceColor.WHITE), actual.GetOccupancy(PieceColor.WHITE));
+        assertEquals(expected.GetOccupancy(PieceColor.BLACK), actual.GetOccupancy(PieceColor.BLACK));
+        assertEquals(expected.GetInitialMoves(), actual.GetInitialMoves());
+        assertEquals(expected.GetPositiveDirectionColor(), actual.GetPositiveDirectionColor());
+    }
+
+    @Test
+    public void testBinary_Round_Trips() {
+        Random random = new Random(12);
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.ENCODED_SIZE);
+        CompactChessBoard decoded = new CompactChessBoard();
+        for (int i = 0; i < 1000; i++) {
+            CompactChessBoard board = randomBoard(random);
+            buffer.clear();
+            PositionCodec.Encode(board, buffer);
+            assertEquals(PositionCodec.ENCODED_SIZE, buffer.position());
+            buffer.flip();
+            PositionCodec.Decode(buffer, decoded);
+            assertSamePosition(board, decoded);
+        }
+    }
+
+    @Test
+    public void testBinary_Decodes_To_ChessBoard() {
+        ChessBoard board = new ChessBoard(PieceColor.BLACK);
+        board.Add(new Pawn(PieceColor.WHITE), 1, 1);
+        board.Add(new Pawn(PieceColor.BLACK, false), 2, 5);
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.ENCODED_SIZE);
+        PositionCodec.Encode(board, buffer);
+        buffer.flip();
+
+        ChessBoard decoded = PositionCodec.Decode(buffer);
+        assertEquals(board.GetPositionKey(), decoded.GetPositionKey());
+        assertEquals(PieceColor.BLACK, decoded.GetPositiveDirectionColor());
+        assertFalse(decoded.GetPieceAt(2, 5).isInitialMove());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinary_Rejects_Overlapping_Colors() {
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.ENCODED_SIZE);
+        buffer.putLong(1).putLong(1).putLong(0).put((byte) 1).flip();
+        PositionCodec.Decode(buffer, new CompactChessBoard());
+    }
+
+    @Test
+    public void testFen_Writes_Starting_Position() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        StringBuilder text = new StringBuilder();
+        new FenCodec().Write(board, text);
+        assertEquals(START, text.toString());
+    }
+
+    @Test
+    public void testFen_Round_Trips() {
+        Random random = new Random(34);
+        FenCodec codec = new FenCodec();
+        StringBuilder text = new StringBuilder();
+        ByteBuffer buffer = ByteBuffer.allocate(FenCodec.MAX_LENGTH + 1);
+        CompactChessBoard decoded = new CompactChessBoard();
+        for (int i = 0; i < 1000; i++) {
+            CompactChessBoard board = randomBoard(random);
+            text.setLength(0);
+            codec.Write(board, text);
+            assertTrue(text.length() <= FenCodec.MAX_LENGTH);
+            codec.Read(text, decoded);
+            assertSamePosition(board, decoded);
+
+            buffer.clear();
+            codec.Write(board, buffer);
+            buffer.put((byte) '\n').flip();
+            codec.Read(buffer, decoded);
+            assertFalse(buffer.hasRemaining());
+            assertSamePosition(board, decoded);
+        }
+    }
+
+    @Test
+    public void testFen_Reads_Crlf_Lines() {
+        String text = "8/8/8/3p4/4P3/8/8/8 b e4";
+        ByteBuffer buffer = ByteBuffer.wrap((text + "\r\n" + text + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        FenCodec codec = new FenCodec();
+        CompactChessBoard expected = new CompactChessBoard();
+        codec.Read(text, expected);
+        CompactChessBoard decoded = new CompactChessBoard();
+        for (int line = 0; line < 2; line++) {
+            codec.Read(buffer, decoded);
+            assertSamePosition(expected, decoded);
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testFen_Reads_ChessBoard() {
+        ChessBoard board = new FenCodec().Read("8/8/8/3p4/4P3/8/8/8 b e4");
+        assertEquals(PieceColor.BLACK, board.GetPositiveDirectionColor());
+        assertTrue(board.GetPieceAt(4, 3).isInitialMove());
+        assertFalse(board.GetPieceAt(3, 4).isInitialMove());
+        assertEquals(PieceColor.BLACK, board.GetPieceAt(3, 4).getPieceColor());
+    }
+
+    @Test
+    public void testFen_Rejects_Malformed_Text() {
+        String[] invalid = {
+                "8/8/8/8/8/8/8 w -",
+                "9/8/8/8/8/8/8/8 w -",
+                "8/8/8/8/8/8/8/7k w -",
+                "8/8/8/8/8/8/8/8 x -",
+                "8/8/8/8/8/8/8/8 w a1",
+                "8/8/8/8/8/8/8/8 w - extra",
+                "8/8/8/8/8/8/8/8 w",
+        };
+        FenCodec codec = new FenCodec();
+        for (String text : invalid) {
+            try {
+                codec.Read(text, new CompactChessBoard());
+                fail("Expected '" + text + "' to be rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.Pawn;
+
+// Positions shared by the tests and benchmarks
+public final class TestBoards {
+    public static final int NEAR_PAWN_RANK = 1;
+    public static final int FAR_PAWN_RANK = ChessBoard.MAX_BOARD_HEIGHT - 2;
+
+    private TestBoards() {
+    }
+
+    // A full rank of pawns for each color on its starting rank
+    public static ChessBoard PawnRanks(PieceColor positiveDirectionColor) {
+        return PawnRanks(positiveDirectionColor, ChessBoard.MAX_BOARD_WIDTH);
+    }
+
+    // Pawns on each color's starting rank in the first files only, filled from
+    // the queen's side
+    public static ChessBoard PawnRanks(PieceColor positiveDirectionColor, int files) {
+        ChessBoard board = new ChessBoard(positiveDirectionColor);
+        for (int x = 0; x < files; x++) {
+            board.Add(new Pawn(positiveDirectionColor), x, NEAR_PAWN_RANK);
+            board.Add(new Pawn(positiveDirectionColor.Opposite()), x, FAR_PAWN_RANK);
+        }
+        return board;
+    }
+}
@@ -0,0 +1,99 @@
+package com.solarwindsmsp.chess;
+
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ZobristTest {
+
+    @Test
+    public void testKeys_Are_Stable_Across_Runs() {
+        // Persisted keys depend on these exact values
+        ChessBoard board = new ChessBoard();
+        assertEquals(0xfc3e6b4e37710b9bL, board.GetPositionKey());
+        board.Add(new Pawn(PieceColor.WHITE), 4, 1);
+        board.Add(new Pawn(PieceColor.BLACK, false), 3, 6);
+        assertEquals(0x5fe4858e6992b7f6L, board.GetPositionKey());
+    }
+
+    @Test
+    public void testKey_Includes_Positive_Direction_Color() {
+        assertNotEquals(new ChessBoard(PieceColor.WHITE).GetPositionKey(), new ChessBoard(PieceColor.BLACK).GetPositionKey());
+    }
+
+    @Test
+    public void testKey_Includes_Initial_Move_State() {
+        ChessBoard unmoved = new ChessBoard();
+        ChessBoard moved = new ChessBoard();
+        unmoved.Add(new Pawn(PieceColor.WHITE, true), 2, 2);
+        moved.Add(new Pawn(PieceColor.WHITE, false), 2, 2);
+        assertNotEquals(unmoved.GetPositionKey(), moved.GetPositionKey());
+    }
+
+    @Test
+    public void testTransposed_Move_Orders_Give_Same_Key() {
+        ChessBoard first = new ChessBoard();
+        ChessBoard second = new ChessBoard();
+        Pawn firstA = new Pawn(PieceColor.WHITE);
+        Pawn firstB = new Pawn(PieceColor.WHITE);
+        Pawn secondA = new Pawn(PieceColor.WHITE);
+        Pawn secondB = new Pawn(PieceColor.WHITE);
+        first.Add(firstA, 0, 1);
+        first.Add(firstB, 1, 1);
+        second.Add(secondA, 0, 1);
+        second.Add(secondB, 1, 1);
+
+        assertTrue(firstA.Move(MovementType.MOVE, 0, 2));
+        assertTrue(firstB.Move(MovementType.MOVE, 1, 3));
+        assertTrue(secondB.Move(MovementType.MOVE, 1, 3));
+        assertTrue(secondA.Move(MovementType.MOVE, 0, 2));
+        assertEquals(first.GetPositionKey(), second.GetPositionKey());
+    }
+
+    @Test
+    public void testIncremental_Key_Matches_Recompute() {
+        Random random = new Random(11);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int i = 0; i < 200; i++) {
+            ChessBoard board = new ChessBoard(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+            long emptyKey = board.GetPositionKey();
+            List<ChessPiece> added = new ArrayList<ChessPiece>();
+            for (int j = 0; j < 20; j++) {
+                PieceColor color = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+                Pawn pawn = new Pawn(color, random.nextBoolean());
+                if (board.Add(pawn, random.nextInt(8), random.nextInt(8)))
+                    added.add(pawn);
+                assertEquals(Zobrist.Compute(board), board.GetPositionKey());
+            }
+
+            PieceColor sideToMove = PieceColor.WHITE;
+            for (int ply = 0; ply < 10; ply++, sideToMove = sideToMove.Opposite()) {
+                int count = board.GenerateMoves(sideToMove, moves);
+                if (count == 0)
+                    continue;
+                int move = moves[random.nextInt(count)];
+                long before = board.GetPositionKey();
+                board.MakeMove(move);
+                assertEquals(Zobrist.Compute(board), board.GetPositionKey());
+                board.UnmakeMove();
+                assertEquals(before, board.GetPositionKey());
+
+                int from = Moves.From(move);
+                int to = Moves.To(move);
+                ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+                assertTrue(piece.Move(Moves.GetMovementType(move), Bitboards.FileOf(to), Bitboards.RankOf(to)));
+                assertEquals(Zobrist.Compute(board), board.GetPositionKey());
+            }
+
+            for (ChessPiece piece : added)
+                board.Remove(piece);
+            assertEquals(emptyKey, board.GetPositionKey());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.solarwindsmsp.chess.batch;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+// Differential tests of the batch kernels against the ChessBoard and Pawn rules.
+// Run with -Pvector to include the Vector API kernel.
+public class PawnBatchKernelTest {
+
+    private static final int BATCH_SIZE = 1021;
+
+    private Random random;
+    private ChessBoard[] boards;
+    private PawnBatch batch;
+
+    @Before
+    public void setUp() {
+        random = new Random(2024);
+        boards = new ChessBoard[BATCH_SIZE];
+        batch = new PawnBatch(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            boards[i] = randomBoard();
+            assertEquals(i, batch.Add(boards[i]));
+        }
+    }
+
+    private ChessBoard randomBoard() {
+        ChessBoard board = new ChessBoard(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+        int pawns = random.nextInt(24);
+        for (int j = 0; j < pawns; j++) {
+            PieceColor color = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+            board.Add(new Pawn(color, random.nextBoolean()), random.nextInt(8), random.nextInt(8));
+        }
+        return board;
+    }
+
+    private int randomMove(ChessBoard board) {
+        MovementType movementType = random.nextBoolean() ? MovementType.MOVE : MovementType.CAPTURE;
+        switch (random.nextInt(3)) {
+            case 0:
+                // A move the board generates, so legal moves are well represented
+                int[] moves = new int[Moves.MAX_MOVES];
+                int count = board.GenerateMoves(random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK, moves);
+                if (count > 0)
+                    return moves[random.nextInt(count)];
+                return Moves.Encode(random.nextInt(64), random.nextInt(64), movementType);
+            case 1:
+                // A nearby target, to exercise the file and rank edges
+                int from = random.nextInt(64);
+                int to = from + random.nextInt(35) - 17;
+                return Moves.Encode(from, to < 0 || to >= 64 ? from : to, movementType);
+            default:
+                return Moves.Encode(random.nextInt(256), random.nextInt(256), movementType);
+        }
+    }
+
+    // What ChessBoard.Move makes of the move, tried on a copy of the board
+    private static boolean moveAccepted(ChessBoard board, int move) {
+        int from = Moves.From(move);
+        int to = Moves.To(move);
+        if (from >= Bitboards.SQUARE_COUNT || to >= Bitboards.SQUARE_COUNT)
+            return false;
+        ChessBoard copy = new ChessBoard(board);
+        ChessPiece piece = copy.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+        return piece != null && piece.Move(Moves.GetMovementType(move), Bitboards.FileOf(to), Bitboards.RankOf(to));
+    }
+
+    // Pawn.IsMoveLegal plus the board's target occupation rule
+    private static boolean pawnRuleAccepts(ChessBoard board, int move) {
+        int from = Moves.From(move);
+        int to = Moves.To(move);
+        if (from >= Bitboards.SQUARE_COUNT || to >= Bitboards.SQUARE_COUNT)
+            return false;
+        ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+        if (piece == null)
+            return false;
+        ChessPiece target = board.GetPieceAt(Bitboards.FileOf(to), Bitboards.RankOf(to));
+        MovementType movementType = Moves.GetMovementType(move);
+        boolean occupationLegal = movementType == MovementType.MOVE
+                ? target == null
+                : target != null && target.getPieceColor() != piece.getPieceColor();
+        return occupationLegal && piece.IsMoveLegal(movementType, Bitboards.FileOf(to), Bitboards.RankOf(to));
+    }
+
+    private void assertValidateMatches(PawnBatchKernel kernel) {
+        for (int round = 0; round < 20; round++) {
+            int[] moves = new int[BATCH_SIZE];
+            for (int i = 0; i < BATCH_SIZE; i++)
+                moves[i] = randomMove(boards[i]);
+
+            boolean[] results = new boolean[BATCH_SIZE];
+            kernel.ValidateMoves(batch, moves, results);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                assertEquals("board " + i + " move " + moves[i], moveAccepted(boards[i], moves[i]), results[i]);
+                assertEquals(pawnRuleAccepts(boards[i], moves[i]), results[i]);
+            }
+        }
+    }
+
+    private void assertGenerateMatches(PawnBatchKernel kernel) {
+        int[] moves = new int[Moves.MAX_MOVES];
+        long[] pushTargets = new long[BATCH_SIZE];
+        long[] captureTargets = new long[BATCH_SIZE];
+        for (PieceColor color : PieceColor.values()) {
+            kernel.GenerateTargets(batch, color, pushTargets, captureTargets);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                long expectedPushes = 0;
+                long expectedCaptures = 0;
+                int count = boards[i].GenerateMoves(color, moves);
+                for (int j = 0; j < count; j++) {
+                    if (Moves.IsCapture(moves[j]))
+                        expectedCaptures |= Bitboards.Bit(Moves.To(moves[j]));
+                    else
+                        expectedPushes |= Bitboards.Bit(Moves.To(moves[j]));
+                }
+                assertEquals(expectedPushes, pushTargets[i]);
+                assertEquals(expectedCaptures, captureTargets[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testScalar_ValidateMoves_Matches_Board() {
+        assertValidateMatches(new ScalarPawnBatchKernel());
+    }
+
+    @Test
+    public void testScalar_GenerateTargets_Matches_Board() {
+        assertGenerateMatches(new ScalarPawnBatchKernel());
+    }
+
+    @Test
+    public void testBest_ValidateMoves_Matches_Board() {
+        assertValidateMatches(PawnBatchKernels.Best());
+    }
+
+    @Test
+    public void testBest_GenerateTargets_Matches_Board() {
+        assertGenerateMatches(PawnBatchKernels.Best());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAdd_Beyond_Capacity() {
+        batch.Add(new ChessBoard());
+    }
+}
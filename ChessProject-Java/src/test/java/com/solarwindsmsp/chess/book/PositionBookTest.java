@@ -0,0 +1,219 @@
+package com.solarwindsmsp.chess.book;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+import com.solarwindsmsp.chess.pgn.GameResult;
+import com.solarwindsmsp.chess.pgn.PgnImporter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PositionBookTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int move(int x, int y, int newX, int newY, MovementType movementType) {
+        return Moves.Encode(Bitboards.Square(x, y), Bitboards.Square(newX, newY), movementType);
+    }
+
+    private static ChessBoard play(int... moves) {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        for (int move : moves)
+            board.MakeMove(move);
+        return board;
+    }
+
+    private static final int E2E4 = move(4, 1, 4, 3, MovementType.MOVE);
+    private static final int D2D4 = move(3, 1, 3, 3, MovementType.MOVE);
+    private static final int D7D5 = move(3, 6, 3, 4, MovementType.MOVE);
+    private static final int E4XD5 = move(4, 3, 3, 4, MovementType.CAPTURE);
+
+    private PositionBook build(PositionBookBuilder builder) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("book.bin");
+        builder.Write(file, 1);
+        return PositionBook.Open(file);
+    }
+
+    @Test
+    public void testBook_Holds_Weighted_Moves_From_Games() throws IOException {
+        PositionBookBuilder builder = new PositionBookBuilder(2);
+        ChessBoard game = play(E2E4, D7D5, E4XD5);
+        long key = game.GetPositionKey();
+        builder.AddGame(game, PieceColor.WHITE, GameResult.WHITE_WINS);
+        builder.AddGame(play(E2E4, D7D5), PieceColor.WHITE, GameResult.DRAW);
+        builder.AddGame(play(D2D4, D7D5), PieceColor.WHITE, GameResult.BLACK_WINS);
+        // The board is left at the end of the game
+        assertEquals(key, game.GetPositionKey());
+        assertEquals(3, game.GetMoveHistoryLength());
+        assertEquals(3, builder.GetGameCount());
+        assertEquals(3, builder.GetPositionCount());
+
+        PositionBook book = build(builder);
+        // d2d4 lost every game it was played in, so it is left out
+        assertEquals(3, book.GetEntryCount());
+        int[] moves = new int[4];
+        int[] weights = new int[4];
+        assertEquals(1, book.Probe(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, moves, weights));
+        assertEquals(E2E4, moves[0]);
+        assertEquals(3, weights[0]);
+
+        // Moves past the covered plies are not in the book
+        assertEquals(0, book.Probe(play(E2E4, D7D5), PieceColor.WHITE, moves, weights));
+        // Nor is the same position with the other side to move
+        assertEquals(0, book.Probe(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.BLACK, moves, weights));
+        book.close();
+    }
+
+    @Test
+    public void testChooses_Legal_Moves_In_Proportion_To_Weight() throws IOException {
+        PositionBookBuilder builder = new PositionBookBuilder(1);
+        builder.AddGame(play(E2E4), PieceColor.WHITE, GameResult.WHITE_WINS);
+        builder.AddGame(play(E2E4), PieceColor.WHITE, GameResult.WHITE_WINS);
+        builder.AddGame(play(E2E4), PieceColor.WHITE, GameResult.WHITE_WINS);
+        builder.AddGame(play(D2D4), PieceColor.WHITE, GameResult.DRAW);
+        PositionBook book = build(builder);
+
+        int[] moves = new int[1];
+        int[] weights = new int[1];
+        // Only as many as fit are copied, best first
+        assertEquals(1, book.Probe(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, moves, weights));
+        assertEquals(E2E4, moves[0]);
+        assertEquals(6, weights[0]);
+
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        Random random = new Random(42);
+        int e4 = 0;
+        for (int i = 0; i < 7000; i++) {
+            int chosen = book.ChooseMove(board, PieceColor.WHITE, random);
+            assertTrue(chosen == E2E4 || chosen == D2D4);
+            if (chosen == E2E4)
+                e4++;
+        }
+        assertEquals(6000, e4, 200);
+        assertEquals(PositionBook.NO_MOVE, book.ChooseMove(board, PieceColor.BLACK, random));
+    }
+
+    @Test
+    public void testNever_Chooses_Moves_The_Board_Refuses() throws IOException {
+        // As if another position's moves had been stored under the same key
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        Path file = folder.getRoot().toPath().resolve("collided.bin");
+        DataOutputStream out = new DataOutputStream(Files.newOutputStream(file));
+        out.writeInt(PositionBook.MAGIC);
+        out.writeInt(PositionBook.VERSION);
+        out.writeInt(3);
+        out.writeInt(0);
+        long key = PositionBook.Key(board, PieceColor.WHITE);
+        int[] moves = {move(4, 1, 4, 4, MovementType.MOVE), move(3, 6, 3, 4, MovementType.MOVE), D2D4};
+        for (int move : moves) {
+            out.writeLong(key);
+            out.writeInt(move);
+            out.writeInt(100);
+        }
+        out.close();
+
+        PositionBook book = PositionBook.Open(file);
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++)
+            assertEquals(D2D4, book.ChooseMove(board, PieceColor.WHITE, random));
+    }
+
+    @Test
+    public void testFind_Agrees_With_A_Scan() throws IOException {
+        Random random = new Random(7);
+        int count = 100000;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++)
+            keys[i] = random.nextLong();
+        // Some runs of equal keys, as for positions with several moves
+        for (int i = 1; i < count; i += 17)
+            keys[i] = keys[i - 1];
+        Arrays.sort(keys);
+
+        Path file = folder.getRoot().toPath().resolve("random.bin");
+        DataOutputStream out = new DataOutputStream(Files.newOutputStream(file));
+        out.writeInt(PositionBook.MAGIC);
+        out.writeInt(PositionBook.VERSION);
+        out.writeInt(count);
+        out.writeInt(0);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(keys[i]);
+            out.writeInt(i);
+            out.writeInt(1);
+        }
+        out.close();
+
+        PositionBook book = PositionBook.Open(file);
+        for (int i = 0; i < 2000; i++) {
+            long key = random.nextBoolean() ? keys[random.nextInt(count)] : random.nextLong();
+            int expected = 0;
+            while (expected < count && keys[expected] < key)
+                expected++;
+            assertEquals(expected, book.Find(key));
+        }
+        assertEquals(0, book.Find(Long.MIN_VALUE));
+        assertEquals(count, book.Find(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testImported_Games_Build_A_Book() throws IOException {
+        Path games = folder.getRoot().toPath().resolve("games.pgn");
+        Files.write(games, ("[Result \"1-0\"]\n\n1. e4 d5 2. exd5 1-0\n\n" +
+                "[Result \"1/2-1/2\"]\n\n1. d4 d5 1/2-1/2\n").getBytes(StandardCharsets.US_ASCII));
+        PositionBookBuilder builder = new PositionBookBuilder(4);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new PgnImporter(pool, builder).Import(games);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2, builder.GetGameCount());
+
+        PositionBook book = build(builder);
+        int[] moves = new int[4];
+        int[] weights = new int[4];
+        assertEquals(2, book.Probe(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, moves, weights));
+        assertEquals(E2E4, moves[0]);
+        assertEquals(2, weights[0]);
+        assertEquals(D2D4, moves[1]);
+        // Black lost after 1. e4 d5, so only the drawn game's reply is kept
+        assertEquals(0, book.Probe(play(E2E4), PieceColor.BLACK, moves, weights));
+        assertEquals(1, book.Probe(play(D2D4), PieceColor.BLACK, moves, weights));
+        assertEquals(D7D5, moves[0]);
+        assertEquals(1, weights[0]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejects_Files_That_Are_Not_Books() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("other.bin");
+        Files.write(file, new byte[PositionBook.HEADER_SIZE + PositionBook.ENTRY_SIZE]);
+        PositionBook.Open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejects_Truncated_Books() throws IOException {
+        PositionBookBuilder builder = new PositionBookBuilder(2);
+        builder.AddGame(play(E2E4, D7D5), PieceColor.WHITE, GameResult.DRAW);
+        Path file = folder.getRoot().toPath().resolve("book.bin");
+        builder.Write(file, 1);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        PositionBook.Open(file);
+    }
+}
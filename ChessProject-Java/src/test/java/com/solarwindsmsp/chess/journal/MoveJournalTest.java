@@ -0,0 +1,226 @@
+package com.solarwindsmsp.chess.journal;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class MoveJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Plays a short game with pushes, a capture and a removal: 9 records
+    private static ChessBoard playGame(MoveJournal journal, long gameId) throws IOException {
+        ChessBoard board = journal.CreateGame(gameId, PieceColor.WHITE);
+        Pawn white = new Pawn(PieceColor.WHITE);
+        Pawn black = new Pawn(PieceColor.BLACK);
+        Pawn spare = new Pawn(PieceColor.BLACK, false);
+        assertTrue(journal.Add(gameId, board, white, 3, 1));
+        assertTrue(journal.Add(gameId, board, black, 4, 6));
+        assertTrue(journal.Add(gameId, board, spare, 0, 5));
+        assertTrue(journal.Move(gameId, white, MovementType.MOVE, 3, 3));
+        assertTrue(journal.Move(gameId, black, MovementType.MOVE, 4, 4));
+        // Rejected moves are not recorded
+        assertFalse(journal.Move(gameId, white, MovementType.MOVE, 3, 5));
+        assertTrue(journal.Move(gameId, white, MovementType.CAPTURE, 4, 4));
+        assertTrue(journal.Remove(gameId, board, spare));
+        assertTrue(journal.Move(gameId, white, MovementType.MOVE, 4, 5));
+        assertFalse(journal.Remove(gameId, board, spare));
+        return board;
+    }
+
+    private static int Records(File segment) {
+        return (int) (segment.length() / JournalRecords.SIZE);
+    }
+
+    @Test
+    public void testReplay_After_Restart_Restores_Games() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MoveJournal journal = MoveJournal.Open(directory, 1024, 0);
+        ChessBoard first = playGame(journal, 1);
+        ChessBoard second = playGame(journal, 2);
+        journal.FinishGame(2);
+        journal.close();
+
+        MoveJournal reopened = MoveJournal.Open(directory, 1024, 0);
+        Map<Long, ChessBoard> boards = reopened.Replay();
+        assertEquals(1, boards.size());
+        assertEquals(first.GetPositionKey(), boards.get(1L).GetPositionKey());
+        assertNotEquals(second.GetPositionKey(), new ChessBoard().GetPositionKey());
+        assertEquals(1, reopened.GetLiveGameCount());
+
+        // Appends continue after the existing records
+        ChessBoard third = playGame(reopened, 3);
+        boards = reopened.Replay();
+        assertEquals(2, boards.size());
+        assertEquals(third.GetPositionKey(), boards.get(3L).GetPositionKey());
+    }
+
+    @Test
+    public void testTorn_Record_Ends_The_Journal() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MoveJournal journal = MoveJournal.Open(directory, 1024, 1);
+        ChessBoard board = journal.CreateGame(9, PieceColor.WHITE);
+        Pawn pawn = new Pawn(PieceColor.WHITE);
+        journal.Add(9, board, pawn, 0, 1);
+        journal.Move(9, pawn, MovementType.MOVE, 0, 2);
+        journal.close();
+
+        // Damage the last record as if the process died while writing it
+        File segment = directory.resolve("journal-0000000000000000.log").toFile();
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        file.seek(2 * JournalRecords.SIZE + 4);
+        file.writeInt(0x7FFFFFFF);
+        file.close();
+
+        MoveJournal reopened = MoveJournal.Open(directory, 1024, 1);
+        ChessBoard replayed = reopened.Replay().get(9L);
+        assertTrue(replayed.GetPieceAt(0, 1).isInitialMove());
+        assertNull(replayed.GetPieceAt(0, 2));
+
+        // The damaged record is overwritten by the next append
+        Pawn again = (Pawn) replayed.GetPieceAt(0, 1);
+        assertTrue(reopened.Move(9, again, MovementType.MOVE, 0, 3));
+        assertNotNull(reopened.Replay().get(9L).GetPieceAt(0, 3));
+    }
+
+    @Test
+    public void testSegments_Roll_And_Finished_Games_Are_Deleted() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MoveJournal journal = MoveJournal.Open(directory, 4, 0);
+        playGame(journal, 1);
+        ChessBoard live = playGame(journal, 2);
+        File[] segments = folder.getRoot().listFiles();
+        assertEquals(5, segments.length);
+        for (File segment : segments)
+            assertEquals(4, Records(segment));
+
+        // Game 2 started in segment 2, so only segments 0 and 1 can go once game 1 ends
+        assertEquals(0, journal.DeleteFinishedSegments());
+        journal.FinishGame(1);
+        assertEquals(2, journal.DeleteFinishedSegments());
+        Map<Long, ChessBoard> boards = journal.Replay();
+        assertEquals(1, boards.size());
+        assertEquals(live.GetPositionKey(), boards.get(2L).GetPositionKey());
+
+        // The segment being written is kept even when every game in it is finished
+        journal.FinishGame(2);
+        assertEquals(2, journal.DeleteFinishedSegments());
+        assertEquals(1, folder.getRoot().list().length);
+        assertTrue(journal.Replay().isEmpty());
+    }
+
+    @Test
+    public void testFailed_Append_Leaves_The_Board_Unchanged() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        // Two records fill the first segment
+        MoveJournal journal = MoveJournal.Open(directory, 2, 0);
+        ChessBoard board = journal.CreateGame(1, PieceColor.WHITE);
+        Pawn white = new Pawn(PieceColor.WHITE);
+        assertTrue(journal.Add(1, board, white, 3, 1));
+        long key = board.GetPositionKey();
+
+        // The next segment cannot be created once the directory is gone
+        for (File file : folder.getRoot().listFiles())
+            assertTrue(file.delete());
+        assertTrue(folder.getRoot().delete());
+        try {
+            journal.Move(1, white, MovementType.MOVE, 3, 3);
+            fail("Expected the append to fail");
+        } catch (IOException e) {
+            // Expected
+        }
+        assertEquals(key, board.GetPositionKey());
+        assertTrue(white.IsAt(3, 1));
+        try {
+            journal.Remove(1, board, white);
+            fail("Expected the append to fail");
+        } catch (IOException e) {
+            // Expected
+        }
+        assertTrue(board.Contains(white));
+    }
+
+    @Test
+    public void testReplay_Restores_Many_Games() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        MoveJournal journal = MoveJournal.Open(directory, 1 << 16, 0);
+        int games = 20000;
+        for (long id = 0; id < games; id++)
+            playGame(journal, id);
+        journal.close();
+
+        Map<Long, ChessBoard> boards = MoveJournal.Open(directory, 1 << 16, 0).Replay();
+        assertEquals(games, boards.size());
+    }
+
+    @Test
+    public void testConcurrent_Appends_Overlap_Syncs() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        // Small segments and batches, so appends race with rolls and forces
+        final MoveJournal journal = MoveJournal.Open(directory, 64, 8);
+        final Map<Long, Long> keys = new ConcurrentHashMap<Long, Long>();
+        final AtomicBoolean playing = new AtomicBoolean(true);
+        int threads = 4;
+        final int gamesPerThread = 100;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> syncer = pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    while (playing.get())
+                        journal.Sync();
+                    return null;
+                }
+            });
+            List<Future<?>> players = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                final long first = (long) t * gamesPerThread;
+                players.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        for (long id = first; id < first + gamesPerThread; id++)
+                            keys.put(id, playGame(journal, id).GetPositionKey());
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> player : players)
+                player.get(60, TimeUnit.SECONDS);
+            playing.set(false);
+            syncer.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        journal.Sync();
+        assertEquals(9L * threads * gamesPerThread, journal.GetSyncedRecordCount());
+        journal.close();
+
+        Map<Long, ChessBoard> boards = MoveJournal.Open(directory, 64, 8).Replay();
+        assertEquals(keys.size(), boards.size());
+        for (Map.Entry<Long, Long> entry : keys.entrySet())
+            assertEquals((long) entry.getValue(), boards.get(entry.getKey()).GetPositionKey());
+    }
+}
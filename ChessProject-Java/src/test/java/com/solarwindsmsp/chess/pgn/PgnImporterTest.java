@@ -0,0 +1,131 @@
+package com.solarwindsmsp.chess.pgn;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.FenCodec;
+import com.solarwindsmsp.chess.PieceColor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PgnImporterTest {
+
+    private static final String GAMES =
+            "[Event \"Pawn game\"]\n" +
+            "[Result \"1-0\"]\n" +
+            "\n" +
+            "1. e4 d5 2. exd5 {takes} c6 3. dxc6 $1 bxc6 (3... b6 4. c7) 1-0\n" +
+            "\n" +
+            "[Event \"Knight move\"]\n" +
+            "\n" +
+            "1. e4 Nf6 2. e5 0-1\n" +
+            "\n" +
+            "[Event \"Custom start\"]\n" +
+            "[FEN \"8/8/8/3p4/4P3/8/8/8 w e4\"]\n" +
+            "\n" +
+            "1. exd5 ; white captures\n" +
+            "1/2-1/2\n" +
+            "\n" +
+            "[Event \"Illegal push\"]\n" +
+            "\n" +
+            "1. e5 *\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private Path write(String name, String text) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    // Records the final position of each game, keyed by its FEN text
+    private static final class Recorder implements GameListener {
+        final Map<String, Boolean> games = new ConcurrentHashMap<String, Boolean>();
+
+        public void MoveImported(ChessBoard board, PieceColor sideToMove, int move) {
+        }
+
+        public void GameImported(ChessBoard board, GameResult result, int moveCount, boolean valid) {
+            StringBuilder text = new StringBuilder();
+            new FenCodec().Write(board, text);
+            games.put(result + " " + moveCount + " " + text, valid);
+        }
+    }
+
+    @Test
+    public void testImport_Counts_And_Applies_Games() throws IOException {
+        Recorder recorder = new Recorder();
+        ImportStats stats = new PgnImporter(pool, 1 << 20, recorder).Import(write("games.pgn", GAMES));
+
+        assertEquals(4, stats.GetGames());
+        assertEquals(2, stats.GetInvalidGames());
+        assertEquals(6 + 1 + 1, stats.GetMoves());
+        assertEquals(1, stats.GetResultCount(GameResult.WHITE_WINS));
+        assertEquals(1, stats.GetResultCount(GameResult.BLACK_WINS));
+        assertEquals(1, stats.GetResultCount(GameResult.DRAW));
+        assertEquals(1, stats.GetResultCount(GameResult.UNKNOWN));
+        assertEquals(GAMES.length(), stats.GetBytes());
+
+        assertEquals(Boolean.TRUE, recorder.games.get("WHITE_WINS 6 8/p3pppp/2p5/8/8/8/PPPP1PPP/8 w a2b2c2d2f2g2h2a7e7f7g7h7"));
+        assertEquals(Boolean.FALSE, recorder.games.get("BLACK_WINS 1 8/pppppppp/8/8/4P3/8/PPPP1PPP/8 w a2b2c2d2f2g2h2a7b7c7d7e7f7g7h7"));
+        assertEquals(Boolean.TRUE, recorder.games.get("DRAW 1 8/8/8/3P4/8/8/8/8 w -"));
+        assertEquals(Boolean.FALSE, recorder.games.get("UNKNOWN 0 8/pppppppp/8/8/8/8/PPPPPPPP/8 w a2b2c2d2e2f2g2h2a7b7c7d7e7f7g7h7"));
+    }
+
+    @Test
+    public void testSmall_Chunks_Give_Same_Result() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+            text.append(i % 2 == 0 ? GAMES : GAMES.replace("\n", "\r\n")).append("\n");
+        Path file = write("many.pgn", text.toString());
+
+        ImportStats whole = new PgnImporter(pool, 1 << 20, null).Import(file);
+        ImportStats chunked = new PgnImporter(pool, 97, null).Import(file);
+        assertEquals(800, whole.GetGames());
+        assertEquals(whole.GetGames(), chunked.GetGames());
+        assertEquals(whole.GetInvalidGames(), chunked.GetInvalidGames());
+        assertEquals(whole.GetMoves(), chunked.GetMoves());
+        assertEquals(whole.GetBytes(), chunked.GetBytes());
+        for (GameResult result : GameResult.values())
+            assertEquals(whole.GetResultCount(result), chunked.GetResultCount(result));
+    }
+
+    @Test
+    public void testImport_Reports_Each_File() throws IOException {
+        Path first = write("first.pgn", GAMES);
+        Path second = write("second.pgn", GAMES + "\n" + GAMES);
+        List<ImportStats> stats = new PgnImporter(pool).Import(Arrays.asList(first, second));
+        assertEquals(2, stats.size());
+        assertEquals(first, stats.get(0).GetFile());
+        assertEquals(4, stats.get(0).GetGames());
+        assertEquals(8, stats.get(1).GetGames());
+        assertTrue(stats.get(1).GetElapsedNanos() > 0);
+        assertTrue(stats.get(1).toString().startsWith("second.pgn: 8 games (4 invalid)"));
+    }
+}
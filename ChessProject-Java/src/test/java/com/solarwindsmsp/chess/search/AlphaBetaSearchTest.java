@@ -0,0 +1,154 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+import com.solarwindsmsp.chess.PieceKind;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AlphaBetaSearchTest {
+
+    private static int move(int x, int y, int newX, int newY, MovementType movementType) {
+        return Moves.Encode(Bitboards.Square(x, y), Bitboards.Square(newX, newY), movementType);
+    }
+
+    @Test
+    public void testPromotes_When_It_Can() {
+        ChessBoard board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 2, 6);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 6, 1);
+        SearchResult result = new AlphaBetaSearch().Search(board, PieceColor.WHITE, SearchLimits.Depth(6));
+        assertEquals(move(2, 6, 2, 7, MovementType.MOVE), result.getBestMove());
+        assertTrue(result.IsWin());
+        assertEquals(1, result.getDepth());
+    }
+
+    @Test
+    public void testCaptures_A_Pawn_About_To_Promote() {
+        ChessBoard board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 3, 0);
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 7, 3);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 4, 1);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 0, 6);
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(1))
+                .Search(board, PieceColor.WHITE, SearchLimits.Depth(6));
+        assertEquals(move(3, 0, 4, 1, MovementType.CAPTURE), result.getBestMove());
+        assertFalse(result.IsLoss());
+    }
+
+    @Test
+    public void testSees_A_Lost_Race() {
+        // Black promotes first whatever white does
+        ChessBoard board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 0, 3);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 7, 2);
+        SearchResult result = new AlphaBetaSearch().Search(board, PieceColor.WHITE, SearchLimits.Depth(10));
+        assertTrue(result.IsLoss());
+        assertEquals(-AlphaBetaSearch.WIN_SCORE + 4, result.getScore());
+    }
+
+    @Test
+    public void testFinished_Games_Have_No_Move() {
+        ChessBoard board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 0, 7);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 3, 3);
+        SearchResult result = new AlphaBetaSearch().Search(board, PieceColor.BLACK, SearchLimits.Depth(4));
+        assertEquals(AlphaBetaSearch.NO_MOVE, result.getBestMove());
+        assertTrue(result.IsLoss());
+
+        // Blocked pawns cannot move, which is a draw
+        board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 3, 3);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 3, 4);
+        result = new AlphaBetaSearch().Search(board, PieceColor.WHITE, SearchLimits.Depth(4));
+        assertEquals(AlphaBetaSearch.NO_MOVE, result.getBestMove());
+        assertEquals(0, result.getScore());
+    }
+
+    @Test
+    public void testLeaves_The_Board_As_It_Was() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        long key = board.GetPositionKey();
+        new AlphaBetaSearch(new TranspositionTable(1)).Search(board, PieceColor.WHITE, SearchLimits.Depth(5));
+        assertEquals(key, board.GetPositionKey());
+        assertFalse(board.UnmakeMove());
+    }
+
+    @Test
+    public void testReports_Each_Iteration_With_A_Playable_Line() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        final List<SearchResult> iterations = new ArrayList<SearchResult>();
+        AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(1));
+        search.SetListener(new SearchListener() {
+            @Override
+            public void IterationComplete(SearchResult result) {
+                iterations.add(result);
+            }
+        });
+        SearchResult result = search.Search(board, PieceColor.WHITE, SearchLimits.Depth(6));
+        assertEquals(6, iterations.size());
+        for (int i = 0; i < iterations.size(); i++)
+            assertEquals(i + 1, iterations.get(i).getDepth());
+        assertEquals(6, result.getDepth());
+        assertTrue(result.getNodes() > 0);
+
+        // The line starts with the best move and every move in it is legal in turn
+        int[] line = result.GetPrincipalVariation();
+        assertTrue(line.length > 0);
+        assertEquals(result.getBestMove(), line[0]);
+        PieceColor sideToMove = PieceColor.WHITE;
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (int move : line) {
+            int count = board.GenerateMoves(sideToMove, moves);
+            boolean found = false;
+            for (int i = 0; i < count; i++)
+                found |= moves[i] == move;
+            assertTrue(SearchResult.MoveToString(move), found);
+            board.MakeMove(move);
+            sideToMove = sideToMove.Opposite();
+        }
+    }
+
+    @Test
+    public void testStops_At_The_Node_Limit() {
+        SearchResult result = new AlphaBetaSearch().Search(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, SearchLimits.Nodes(5000));
+        assertEquals(5000, result.getNodes());
+        assertNotEquals(AlphaBetaSearch.NO_MOVE, result.getBestMove());
+        assertTrue(result.getDepth() >= 1);
+    }
+
+    @Test
+    public void testAnswers_Within_A_Millisecond_Budget() {
+        AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(16));
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        // Let the JIT see the search before timing it
+        search.Search(board, PieceColor.WHITE, SearchLimits.Time(200, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        SearchResult result = search.Search(board, PieceColor.WHITE, SearchLimits.Time(2, TimeUnit.MILLISECONDS));
+        long elapsed = System.nanoTime() - start;
+        assertNotEquals(AlphaBetaSearch.NO_MOVE, result.getBestMove());
+        assertTrue(result.getDepth() >= 1);
+        assertTrue("Took " + elapsed + " ns", elapsed < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testPrints_Moves_In_Coordinate_Notation() {
+        assertEquals("e2e4", SearchResult.MoveToString(move(4, 1, 4, 3, MovementType.MOVE)));
+        assertEquals("d4xe5", SearchResult.MoveToString(move(3, 3, 4, 4, MovementType.CAPTURE)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejects_Negative_Limits() {
+        new SearchLimits(-1, 0, 0, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,71 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelPerftTest {
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testCount_Matches_Sequential_Perft() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        Perft perft = new Perft(5);
+        for (int depth = 0; depth <= 5; depth++) {
+            long expected = perft.Count(board, PieceColor.WHITE, depth);
+            assertEquals(expected, new ParallelPerft(pool, 1).Count(board, PieceColor.WHITE, depth));
+            assertEquals(expected, new ParallelPerft(pool).Count(board, PieceColor.WHITE, depth));
+        }
+    }
+
+    @Test
+    public void testCount_Leaves_Source_Board_Unchanged() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        long key = board.GetPositionKey();
+        new ParallelPerft(pool, 1).Count(board, PieceColor.WHITE, 4);
+        assertEquals(key, board.GetPositionKey());
+    }
+
+    @Test
+    public void testDivide_Sums_To_Count() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        int[] moves = new int[Moves.MAX_MOVES];
+        long[] counts = new long[Moves.MAX_MOVES];
+        int count = new ParallelPerft(pool).Divide(board, PieceColor.WHITE, 4, moves, counts);
+        assertEquals(16, count);
+
+        long total = 0;
+        for (int i = 0; i < count; i++)
+            total += counts[i];
+        assertEquals(new Perft(4).Count(board, PieceColor.WHITE, 4), total);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDivide_Rejects_Depth_Below_One() {
+        new ParallelPerft(pool).Divide(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, 0, new int[Moves.MAX_MOVES], new long[Moves.MAX_MOVES]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCount_Rejects_Negative_Depth() {
+        new ParallelPerft(pool).Count(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, -1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.solarwindsmsp.chess.search;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+import com.solarwindsmsp.chess.pieces.ChessPiece;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerftTest {
+
+    // Reference count which tries every piece, target and movement type through Move
+    private static long naivePerft(ChessBoard board, PieceColor sideToMove, int depth) {
+        if (depth == 0)
+            return 1;
+
+        long nodes = 0;
+        for (int from = 0; from < Bitboards.SQUARE_COUNT; from++) {
+            ChessPiece piece = board.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+            if (piece == null || piece.getPieceColor() != sideToMove)
+                continue;
+            for (int to = 0; to < Bitboards.SQUARE_COUNT; to++) {
+                for (MovementType movementType : MovementType.values()) {
+                    ChessBoard child = new ChessBoard(board);
+                    ChessPiece childPiece = child.GetPieceAt(Bitboards.FileOf(from), Bitboards.RankOf(from));
+                    if (childPiece.Move(movementType, Bitboards.FileOf(to), Bitboards.RankOf(to)))
+                        nodes += naivePerft(child, sideToMove.Opposite(), depth - 1);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testPerft_Pawn_Ranks_Shallow_Depths() {
+        Perft perft = new Perft(2);
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        assertEquals(1, perft.Count(board, PieceColor.WHITE, 0));
+        assertEquals(16, perft.Count(board, PieceColor.WHITE, 1));
+        assertEquals(256, perft.Count(board, PieceColor.WHITE, 2));
+    }
+
+    @Test
+    public void testPerft_Matches_Naive_Enumeration() {
+        Perft perft = new Perft(3);
+        for (PieceColor color : PieceColor.values()) {
+            ChessBoard board = TestBoards.PawnRanks(color);
+            assertEquals(naivePerft(board, color, 3), perft.Count(board, color, 3));
+        }
+    }
+
+    @Test
+    public void testPerft_Leaves_Board_Unchanged() {
+        ChessBoard board = TestBoards.PawnRanks(PieceColor.WHITE);
+        long occupancy = board.GetOccupancy();
+        new Perft(3).Count(board, PieceColor.WHITE, 3);
+        assertEquals(occupancy, board.GetOccupancy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPerft_Rejects_Negative_Depth() {
+        new Perft(2).Count(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPerft_Rejects_Depth_Above_Maximum() {
+        new Perft(2).Count(TestBoards.PawnRanks(PieceColor.WHITE), PieceColor.WHITE, 3);
+    }
+}
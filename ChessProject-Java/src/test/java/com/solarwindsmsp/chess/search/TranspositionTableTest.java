@@ -0,0 +1,103 @@
+package com.solarwindsmsp.chess.search;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testStore_And_Probe() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.Store(0x1234567890ABCDEFL, 0x1FFFF, -1234, 7, TranspositionTable.BOUND_LOWER);
+
+        long data = table.Probe(0x1234567890ABCDEFL);
+        assertNotEquals(TranspositionTable.MISS, data);
+        assertEquals(0x1FFFF, TranspositionTable.Move(data));
+        assertEquals(-1234, TranspositionTable.Score(data));
+        assertEquals(7, TranspositionTable.Depth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.Bound(data));
+        assertEquals(1, table.GetHits());
+
+        assertEquals(TranspositionTable.MISS, table.Probe(42));
+        assertEquals(1, table.GetMisses());
+    }
+
+    @Test
+    public void testStore_Same_Key_Overwrites() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.Store(99, 1, 10, 5, TranspositionTable.BOUND_EXACT);
+        table.Store(99, 2, 20, 3, TranspositionTable.BOUND_UPPER);
+        assertEquals(2, TranspositionTable.Move(table.Probe(99)));
+    }
+
+    @Test
+    public void testReplacement_Prefers_Deep_Entries() {
+        TranspositionTable table = new TranspositionTable(1);
+        long stride = table.GetCapacity() / 4;
+        // Five keys sharing one bucket, the shallowest of the first four gets replaced
+        for (int i = 0; i < 4; i++)
+            table.Store(i * stride, i, 0, i == 2 ? 1 : 10, TranspositionTable.BOUND_EXACT);
+        table.Store(4 * stride, 4, 0, 5, TranspositionTable.BOUND_EXACT);
+
+        assertEquals(TranspositionTable.MISS, table.Probe(2 * stride));
+        assertEquals(4, TranspositionTable.Move(table.Probe(4 * stride)));
+        assertEquals(1, table.GetCollisions());
+        for (int i : new int[]{0, 1, 3})
+            assertEquals(i, TranspositionTable.Move(table.Probe(i * stride)));
+    }
+
+    @Test
+    public void testReplacement_Prefers_Current_Search() {
+        TranspositionTable table = new TranspositionTable(1);
+        long stride = table.GetCapacity() / 4;
+        for (int i = 0; i < 4; i++)
+            table.Store(i * stride, i, 0, 10, TranspositionTable.BOUND_EXACT);
+        table.NewSearch();
+        table.Store(0, 0, 0, 10, TranspositionTable.BOUND_EXACT);
+        table.Store(4 * stride, 4, 0, 5, TranspositionTable.BOUND_EXACT);
+
+        assertEquals(0, TranspositionTable.Move(table.Probe(0)));
+        assertEquals(4, TranspositionTable.Move(table.Probe(4 * stride)));
+    }
+
+    @Test
+    public void testConcurrent_Readers_Never_See_Foreign_Data() throws Exception {
+        final TranspositionTable table = new TranspositionTable(1);
+        final AtomicLong corrupt = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?>[] futures = new Future<?>[4];
+        for (int t = 0; t < futures.length; t++) {
+            final long seed = t;
+            futures[t] = executor.submit(new Runnable() {
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 500000; i++) {
+                        // A small key space forces threads to fight over the same buckets
+                        long key = random.nextInt(1 << 16) * 0x9E3779B97F4A7C15L;
+                        if (random.nextBoolean()) {
+                            table.Store(key, (int) (key >>> 40), 0, random.nextInt(20), TranspositionTable.BOUND_EXACT);
+                        } else {
+                            long data = table.Probe(key);
+                            if (data != TranspositionTable.MISS && TranspositionTable.Move(data) != (int) (key >>> 40))
+                                corrupt.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Future<?> future : futures)
+            future.get();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, corrupt.get());
+        assertTrue(table.GetHits() > 0);
+    }
+}
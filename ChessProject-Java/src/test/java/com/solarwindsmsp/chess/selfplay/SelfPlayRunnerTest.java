@@ -0,0 +1,122 @@
+package com.solarwindsmsp.chess.selfplay;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.Moves;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceKind;
+import com.solarwindsmsp.chess.pgn.GameResult;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SelfPlayRunnerTest {
+
+    private static int move(int x, int y, int newX, int newY, MovementType movementType) {
+        return Moves.Encode(Bitboards.Square(x, y), Bitboards.Square(newX, newY), movementType);
+    }
+
+    private static SelfPlayReport run(int threads, int games, long seed, MovePolicy white, MovePolicy black) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new SelfPlayRunner(pool, 200, true).Run(games, seed, white, black);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPlays_Every_Game_Without_Violations() {
+        SelfPlayReport report = run(2, 200, 42, new RandomPolicy(), new GreedyCapturePolicy());
+        assertEquals(report.GetViolations().toString(), 0, report.GetViolationCount());
+        assertEquals(200, report.GetGames());
+        long finished = 0;
+        for (GameResult result : GameResult.values())
+            finished += report.GetResultCount(result);
+        assertEquals(200, finished);
+        assertTrue(report.GetResultCount(GameResult.WHITE_WINS) + report.GetResultCount(GameResult.BLACK_WINS) > 0);
+        assertTrue(report.GetMoves() > 0);
+        assertEquals(report.GetMoves(), report.GetMoveLatency().GetCount());
+        assertTrue(report.GetIllegalMovesTried() > 0);
+    }
+
+    @Test
+    public void testSame_Seed_Plays_Same_Games_On_Any_Number_Of_Threads() {
+        SelfPlayReport one = run(1, 100, 7, new RandomPolicy(), new RandomPolicy());
+        SelfPlayReport four = run(4, 100, 7, new RandomPolicy(), new RandomPolicy());
+        assertEquals(one.GetPositionChecksum(), four.GetPositionChecksum());
+        assertEquals(one.GetMoves(), four.GetMoves());
+        for (GameResult result : GameResult.values())
+            assertEquals(one.GetResultCount(result), four.GetResultCount(result));
+
+        SelfPlayReport other = run(1, 100, 8, new RandomPolicy(), new RandomPolicy());
+        assertNotEquals(one.GetPositionChecksum(), other.GetPositionChecksum());
+    }
+
+    @Test
+    public void testReplays_A_Single_Game() {
+        SelfPlayRunner runner = new SelfPlayRunner(ForkJoinPool.commonPool(), 200, false);
+        ChessBoard first = runner.PlayGame(3, 11, new RandomPolicy(), new RandomPolicy());
+        ChessBoard second = runner.PlayGame(3, 11, new RandomPolicy(), new RandomPolicy());
+        assertEquals(first.GetPositionKey(), second.GetPositionKey());
+        assertNull(SelfPlayRunner.CheckInvariants(first));
+
+        // Checks draw on their own Random, so they do not change the game
+        ChessBoard checked = new SelfPlayRunner(ForkJoinPool.commonPool(), 200, true)
+                .PlayGame(3, 11, new RandomPolicy(), new RandomPolicy());
+        assertEquals(first.GetPositionKey(), checked.GetPositionKey());
+    }
+
+    @Test
+    public void testGreedy_Policy_Prefers_The_Last_Rank_Then_Captures() {
+        ChessBoard board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 2, 6);
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 4, 3);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 5, 4);
+        int[] moves = new int[Moves.MAX_MOVES];
+        int count = board.GenerateMoves(PieceColor.WHITE, moves);
+        MovePolicy greedy = new GreedyCapturePolicy();
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++)
+            assertEquals(move(2, 6, 2, 7, MovementType.MOVE), greedy.ChooseMove(board, PieceColor.WHITE, moves, count, random));
+
+        board = new ChessBoard();
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 2, 2);
+        board.AddPiece(PieceKind.WHITE_PAWN, false, 4, 3);
+        board.AddPiece(PieceKind.BLACK_PAWN, false, 5, 4);
+        count = board.GenerateMoves(PieceColor.WHITE, moves);
+        for (int i = 0; i < 20; i++)
+            assertEquals(move(4, 3, 5, 4, MovementType.CAPTURE), greedy.ChooseMove(board, PieceColor.WHITE, moves, count, random));
+    }
+
+    @Test
+    public void testReports_Moves_The_Board_Refuses() {
+        // Always tries to move the first piece onto a square that is taken
+        MovePolicy broken = new MovePolicy() {
+            @Override
+            public int ChooseMove(ChessBoard board, PieceColor sideToMove, int[] moves, int count, Random random) {
+                int from = Moves.From(moves[0]);
+                return Moves.Encode(from, from, MovementType.MOVE);
+            }
+        };
+        SelfPlayReport report = run(2, 40, 3, broken, new RandomPolicy());
+        assertEquals(40, report.GetViolationCount());
+        assertEquals(SelfPlayReport.MAX_VIOLATIONS, report.GetViolations().size());
+        assertTrue(report.GetViolations().get(0), report.GetViolations().get(0).contains("refused"));
+        assertEquals(40, report.GetResultCount(GameResult.UNKNOWN));
+    }
+
+    @Test
+    public void testReports_Throughput() {
+        SelfPlayReport report = new SelfPlayRunner(ForkJoinPool.commonPool(), 200, false)
+                .Run(2000, 1, new RandomPolicy(), new RandomPolicy());
+        assertEquals(0, report.GetViolationCount());
+        assertTrue(report.GetGamesPerSecond() > 0);
+        assertTrue(report.GetMovesPerSecond() > report.GetGamesPerSecond());
+        assertTrue(report.GetMoveLatency().GetPercentileNanos(0.99) >= report.GetMoveLatency().GetPercentileNanos(0.5));
+    }
+}
@@ -0,0 +1,167 @@
+package com.solarwindsmsp.chess.session;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.MovementType;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.TestBoards;
+import com.solarwindsmsp.chess.pieces.Pawn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GameSessionManagerTest {
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // Holds tasks until the test runs them
+    private static final class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void RunAll() {
+            while (!tasks.isEmpty())
+                tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    public void testCommands_For_A_Game_Run_In_Order() throws Exception {
+        GameSessionManager manager = new GameSessionManager(pool, 64);
+        assertTrue(manager.CreateGame(1, TestBoards.PawnRanks(PieceColor.WHITE)));
+        assertFalse(manager.CreateGame(1, TestBoards.PawnRanks(PieceColor.WHITE)));
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<CompletableFuture<Boolean>>();
+        for (int y = 1; y < 5; y++)
+            results.add(manager.SubmitMove(1, 0, y, MovementType.MOVE, 0, y + 1));
+        results.add(manager.SubmitMove(1, 0, 5, MovementType.MOVE, 0, 6));
+        for (int i = 0; i < 4; i++)
+            assertTrue(results.get(i).get(5, TimeUnit.SECONDS));
+        assertFalse(results.get(4).get(5, TimeUnit.SECONDS));
+
+        GameSession session = manager.GetSession(1);
+        assertEquals(5, session.GetCompletedCount());
+        assertTrue(session.GetMaxLatencyNanos() >= session.GetMeanLatencyNanos());
+        assertEquals(0, session.GetPendingCount());
+    }
+
+    @Test
+    public void testFull_Mailbox_Rejects_Commands() {
+        ManualExecutor executor = new ManualExecutor();
+        GameSessionManager manager = new GameSessionManager(executor, 2);
+        manager.CreateGame(7, TestBoards.PawnRanks(PieceColor.WHITE));
+
+        CompletableFuture<Boolean> first = manager.SubmitMove(7, 0, 1, MovementType.MOVE, 0, 2);
+        CompletableFuture<Boolean> second = manager.SubmitMove(7, 1, 1, MovementType.MOVE, 1, 2);
+        CompletableFuture<Boolean> third = manager.SubmitMove(7, 2, 1, MovementType.MOVE, 2, 2);
+        try {
+            third.join();
+            fail("Expected the third command to be rejected");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, manager.GetSession(7).GetRejectedCount());
+        assertEquals(1, manager.GetStats().GetRejectedCount());
+
+        executor.RunAll();
+        assertTrue(first.join());
+        assertTrue(second.join());
+        // Room again once the mailbox has drained
+        assertFalse(manager.SubmitMove(7, 2, 1, MovementType.MOVE, 2, 2).isDone());
+        executor.RunAll();
+        assertEquals(3, manager.GetSession(7).GetCompletedCount());
+    }
+
+    @Test
+    public void testUnknown_Game_And_Failing_Command() throws Exception {
+        GameSessionManager manager = new GameSessionManager(pool, 4);
+        try {
+            manager.SubmitMove(3, 0, 1, MovementType.MOVE, 0, 2).get();
+            fail("Expected unknown game to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        manager.CreateGame(3, TestBoards.PawnRanks(PieceColor.WHITE));
+        CompletableFuture<Object> failing = manager.Submit(3, new GameCommand<Object>() {
+            @Override
+            public Object Execute(ChessBoard board) {
+                throw new IllegalStateException("boom");
+            }
+        });
+        try {
+            failing.get();
+            fail("Expected command to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        CompletableFuture<Object> erroring = manager.Submit(3, new GameCommand<Object>() {
+            @Override
+            public Object Execute(ChessBoard board) {
+                throw new AssertionError("bang");
+            }
+        });
+        try {
+            erroring.get(5, TimeUnit.SECONDS);
+            fail("Expected command to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+        // The game keeps running after a command fails
+        assertTrue(manager.SubmitMove(3, 0, 1, MovementType.MOVE, 0, 2).join());
+        assertTrue(manager.CloseGame(3));
+        assertEquals(0, manager.GetGameCount());
+    }
+
+    @Test
+    public void testLoad_100k_Concurrent_Games() throws Exception {
+        final int games = 100000;
+        GameSessionManager manager = new GameSessionManager(pool, 8);
+        for (long id = 0; id < games; id++) {
+            ChessBoard board = new ChessBoard();
+            board.Add(new Pawn(PieceColor.WHITE), (int) (id & 7), 1);
+            board.Add(new Pawn(PieceColor.BLACK), (int) (id & 7), 6);
+            manager.CreateGame(id, board);
+        }
+
+        // Every game plays four moves, all submitted before any has finished
+        List<CompletableFuture<Boolean>> results = new ArrayList<CompletableFuture<Boolean>>(games * 4);
+        for (long id = 0; id < games; id++) {
+            int x = (int) (id & 7);
+            results.add(manager.SubmitMove(id, x, 1, MovementType.MOVE, x, 3));
+            results.add(manager.SubmitMove(id, x, 6, MovementType.MOVE, x, 4));
+            results.add(manager.SubmitMove(id, x, 3, MovementType.MOVE, x, 4));
+            results.add(manager.SubmitMove(id, x, 4, MovementType.MOVE, x, 3));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+
+        for (int i = 0; i < results.size(); i++)
+            assertEquals(i % 4 < 2, results.get(i).join());
+        SessionStats stats = manager.GetStats();
+        assertEquals(games * 4L, stats.GetCompletedCount());
+        assertEquals(0, stats.GetRejectedCount());
+    }
+}
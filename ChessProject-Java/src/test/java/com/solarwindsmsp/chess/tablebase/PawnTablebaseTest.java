@@ -0,0 +1,172 @@
+package com.solarwindsmsp.chess.tablebase;
+
+import com.solarwindsmsp.chess.ChessBoard;
+import com.solarwindsmsp.chess.PieceColor;
+import com.solarwindsmsp.chess.PieceKind;
+import com.solarwindsmsp.chess.search.AlphaBetaSearch;
+import com.solarwindsmsp.chess.search.SearchLimits;
+import com.solarwindsmsp.chess.search.SearchResult;
+import com.solarwindsmsp.chess.search.TranspositionTable;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PawnTablebaseTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static Path directory;
+    private static PawnTablebase tablebase;
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        directory = folder.getRoot().toPath().resolve("tables");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TablebaseGenerator generator = new TablebaseGenerator(pool);
+            assertTrue(generator.Generate(directory, 3) > 0);
+            assertTrue(generator.GetPassCount() > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+        tablebase = PawnTablebase.Open(directory);
+    }
+
+    private static ChessBoard board(PieceColor positiveDirectionColor, int[]... pawns) {
+        ChessBoard board = new ChessBoard(positiveDirectionColor);
+        for (int[] pawn : pawns) {
+            PieceKind kind = pawn[0] == 0 ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN;
+            assertNotEquals(ChessBoard.NO_PIECE, board.AddPiece(kind, pawn[3] != 0, pawn[1], pawn[2]));
+        }
+        return board;
+    }
+
+    // {color (0 white), x, y, first move}
+    private static ChessBoard board(int[]... pawns) {
+        return board(PieceColor.WHITE, pawns);
+    }
+
+    @Test
+    public void testIndex_Numbers_Each_Position_Once() {
+        long[] position = new long[3];
+        int size = PawnIndex.Size(2, 1);
+        boolean[] seen = new boolean[size];
+        int possible = 0;
+        for (int index = 0; index < size; index++) {
+            PawnIndex.Position(2, 1, index, position);
+            if (Long.bitCount(position[0]) != 2 || Long.bitCount(position[1]) != 1 || (position[0] & position[1]) != 0)
+                continue;
+            int again = (int) PawnIndex.Index(position[0], position[1], position[2]);
+            assertEquals(index, again);
+            assertFalse(seen[again]);
+            seen[again] = true;
+            possible++;
+        }
+        assertTrue(possible > size * 9 / 10);
+    }
+
+    @Test
+    public void testKnows_Simple_Endings() {
+        // A pawn a step from its last rank wins at once
+        ChessBoard board = board(new int[]{0, 2, 6, 0}, new int[]{1, 6, 1, 0});
+        assertEquals(1, tablebase.Probe(board, PieceColor.WHITE));
+        assertEquals(1, tablebase.Probe(board, PieceColor.BLACK));
+
+        // Black promotes first whatever white does
+        board = board(new int[]{0, 0, 3, 0}, new int[]{1, 7, 2, 0});
+        assertEquals(-4, tablebase.Probe(board, PieceColor.WHITE));
+        assertTrue(PawnTablebase.IsLoss(tablebase.Probe(board, PieceColor.WHITE)));
+
+        // Blocked pawns cannot move, which is a draw
+        board = board(new int[]{0, 3, 3, 0}, new int[]{1, 3, 4, 0});
+        assertEquals(0, tablebase.Probe(board, PieceColor.WHITE));
+
+        // The first move's double step wins the race
+        board = board(new int[]{0, 0, 1, 1}, new int[]{1, 7, 1, 0});
+        assertTrue(PawnTablebase.IsWin(tablebase.Probe(board, PieceColor.BLACK)));
+        board = board(new int[]{0, 0, 1, 1}, new int[]{1, 7, 5, 0});
+        assertEquals(9, tablebase.Probe(board, PieceColor.WHITE));
+        board = board(new int[]{0, 0, 1, 0}, new int[]{1, 7, 5, 0});
+        assertEquals(-10, tablebase.Probe(board, PieceColor.WHITE));
+
+        // The same race with black moving up the board
+        board = board(PieceColor.BLACK, new int[]{1, 0, 1, 1}, new int[]{0, 7, 5, 0});
+        assertEquals(9, tablebase.Probe(board, PieceColor.BLACK));
+    }
+
+    @Test
+    public void testAgrees_With_A_Full_Search() {
+        Random random = new Random(23);
+        AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(4));
+        for (int game = 0; game < 150; game++) {
+            ChessBoard board = new ChessBoard();
+            int pawns = 1 + random.nextInt(3);
+            while (Long.bitCount(board.GetOccupancy()) < pawns) {
+                PieceKind kind = random.nextBoolean() ? PieceKind.WHITE_PAWN : PieceKind.BLACK_PAWN;
+                int x = random.nextInt(8);
+                int y = 1 + random.nextInt(6);
+                if (board.GetPieceAt(x, y) == null)
+                    board.AddPiece(kind, random.nextBoolean(), x, y);
+            }
+            PieceColor sideToMove = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+
+            int result = tablebase.Probe(board, sideToMove);
+            SearchResult searched = search.Search(board, sideToMove, SearchLimits.Depth(24));
+            String position = Arrays.toString(new long[]{board.GetOccupancy(PieceColor.WHITE),
+                    board.GetOccupancy(PieceColor.BLACK), board.GetInitialMoves()}) + " " + sideToMove;
+            if (result == 0)
+                assertTrue(position, Math.abs(searched.getScore()) <= AlphaBetaSearch.WIN_THRESHOLD);
+            else if (result > 0)
+                assertEquals(position, AlphaBetaSearch.WIN_SCORE - result, searched.getScore());
+            else
+                assertEquals(position, -AlphaBetaSearch.WIN_SCORE - result, searched.getScore());
+        }
+    }
+
+    @Test
+    public void testSearch_Scores_Covered_Positions_From_The_Tablebase() {
+        ChessBoard board = board(new int[]{0, 0, 1, 1}, new int[]{1, 7, 5, 0}, new int[]{1, 3, 6, 0});
+        SearchResult searched = new AlphaBetaSearch().Search(board, PieceColor.WHITE, SearchLimits.Depth(24));
+        AlphaBetaSearch probing = new AlphaBetaSearch();
+        probing.SetTablebase(tablebase);
+        SearchResult probed = probing.Search(board, PieceColor.WHITE, SearchLimits.Depth(24));
+        assertEquals(searched.getScore(), probed.getScore());
+        assertTrue(Math.abs(probed.getScore()) > AlphaBetaSearch.WIN_THRESHOLD);
+        // Every reply is known exactly, so one iteration is enough
+        assertEquals(1, probed.getDepth());
+        assertTrue(probed.getNodes() < searched.getNodes());
+    }
+
+    @Test
+    public void testNot_Found_Outside_The_Tables() {
+        // Four pawns
+        ChessBoard board = board(new int[]{0, 0, 1, 1}, new int[]{0, 1, 1, 1}, new int[]{1, 0, 6, 1}, new int[]{1, 1, 6, 1});
+        assertEquals(PawnTablebase.NOT_FOUND, tablebase.Probe(board, PieceColor.WHITE));
+        // A game already over
+        board = board(new int[]{0, 0, 7, 0}, new int[]{1, 7, 5, 0});
+        assertEquals(PawnTablebase.NOT_FOUND, tablebase.Probe(board, PieceColor.BLACK));
+        assertFalse(tablebase.HasTable(2, 2));
+        assertTrue(tablebase.HasTable(0, 0));
+        assertEquals(0, tablebase.Probe(new ChessBoard(), PieceColor.WHITE));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejects_Truncated_Tables() throws IOException {
+        Path damaged = folder.newFolder("damaged").toPath();
+        Path file = directory.resolve(PawnTablebase.FileName(1, 1));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(damaged.resolve(file.getFileName()), Arrays.copyOf(bytes, bytes.length - 1));
+        PawnTablebase.Open(damaged);
+    }
+}
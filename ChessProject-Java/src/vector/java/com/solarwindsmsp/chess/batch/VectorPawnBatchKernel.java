@@ -0,0 +1,104 @@
+package com.solarwindsmsp.chess.batch;
+
+import com.solarwindsmsp.chess.Bitboards;
+import com.solarwindsmsp.chess.PieceColor;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API kernel, processing one position per long lane. Only compiled by the
+// 'vector' Maven profile; PawnBatchKernels loads it reflectively when available.
+//
+// Selections are done with all-ones/all-zeros lane masks held in ordinary long
+// lanes (select = (a & m) | (b & ~m)) rather than VectorMask, which JDK 17 does
+// not compile to mask registers and which cost more than the rest of the kernel.
+public final class VectorPawnBatchKernel implements PawnBatchKernel {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private static final long NOT_FILE_A = ~Bitboards.FILE_A;
+    private static final long NOT_FILE_H = ~Bitboards.FILE_H;
+
+    public void ValidateMoves(PawnBatch batch, int[] moves, boolean[] results) {
+        int size = batch.GetSize();
+        int end = LONGS.loopBound(size);
+        // Widen the moves with a plain loop first; JDK 17 does not intrinsify the
+        // int to long vector conversion and would box every vector instead
+        long[] legal = batch.scratch;
+        for (int i = 0; i < end; i++)
+            legal[i] = moves[i];
+
+        LongVector one = LongVector.broadcast(LONGS, 1);
+        for (int i = 0; i < end; i += LONGS.length()) {
+            LongVector move = LongVector.fromArray(LONGS, legal, i);
+            LongVector from = move.and(0xFF);
+            LongVector to = move.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+            LongVector capture = LaneMask(move.lanewise(VectorOperators.LSHR, 16));
+            // All ones when both squares are on the board (below 64)
+            LongVector inRange = from.or(to).lanewise(VectorOperators.LSHR, 6).sub(1)
+                    .lanewise(VectorOperators.ASHR, 63);
+
+            LongVector fromBit = one.lanewise(VectorOperators.LSHL, from);
+            LongVector toBit = one.lanewise(VectorOperators.LSHL, to).and(inRange);
+            LongVector white = LongVector.fromArray(LONGS, batch.whitePawns, i);
+            LongVector black = LongVector.fromArray(LONGS, batch.blackPawns, i);
+            LongVector whiteUp = LongVector.fromArray(LONGS, batch.whiteUp, i);
+
+            LongVector moverWhite = LaneMask(white.lanewise(VectorOperators.LSHR, from));
+            LongVector moverBlack = LaneMask(black.lanewise(VectorOperators.LSHR, from));
+            LongVector up = moverWhite.and(whiteUp).or(moverBlack.and(whiteUp.not()));
+            LongVector down = moverWhite.or(moverBlack).and(up.not());
+            LongVector enemy = black.and(moverWhite).or(white.and(moverBlack));
+
+            LongVector leftBit = fromBit.and(NOT_FILE_A);
+            LongVector rightBit = fromBit.and(NOT_FILE_H);
+            LongVector captureUp = leftBit.lanewise(VectorOperators.LSHL, 7).or(rightBit.lanewise(VectorOperators.LSHL, 9));
+            LongVector captureDown = leftBit.lanewise(VectorOperators.LSHR, 9).or(rightBit.lanewise(VectorOperators.LSHR, 7));
+            LongVector captureOk = captureUp.and(up).or(captureDown.and(down)).and(enemy);
+
+            LongVector unmoved = LaneMask(LongVector.fromArray(LONGS, batch.initialMoves, i).lanewise(VectorOperators.LSHR, from));
+            LongVector pushUp = fromBit.lanewise(VectorOperators.LSHL, 8)
+                    .or(fromBit.lanewise(VectorOperators.LSHL, 16).and(unmoved));
+            LongVector pushDown = fromBit.lanewise(VectorOperators.LSHR, 8)
+                    .or(fromBit.lanewise(VectorOperators.LSHR, 16).and(unmoved));
+            LongVector moveOk = pushUp.and(up).or(pushDown.and(down)).and(white.or(black).not());
+
+            captureOk.and(capture).or(moveOk.and(capture.not())).and(toBit).intoArray(legal, i);
+        }
+        for (int i = 0; i < end; i++)
+            results[i] = legal[i] != 0;
+        ScalarPawnBatchKernel.ValidateMoves(batch, moves, results, end, size);
+    }
+
+    public void GenerateTargets(PawnBatch batch, PieceColor color, long[] pushTargets, long[] captureTargets) {
+        int size = batch.GetSize();
+        int end = LONGS.loopBound(size);
+        boolean white = color == PieceColor.WHITE;
+        for (int i = 0; i < end; i += LONGS.length()) {
+            LongVector whitePawns = LongVector.fromArray(LONGS, batch.whitePawns, i);
+            LongVector blackPawns = LongVector.fromArray(LONGS, batch.blackPawns, i);
+            LongVector own = white ? whitePawns : blackPawns;
+            LongVector enemy = white ? blackPawns : whitePawns;
+            LongVector empty = whitePawns.or(blackPawns).not();
+            LongVector unmoved = own.and(LongVector.fromArray(LONGS, batch.initialMoves, i));
+            LongVector whiteUp = LongVector.fromArray(LONGS, batch.whiteUp, i);
+            LongVector up = white ? whiteUp : whiteUp.not();
+            LongVector down = up.not();
+
+            LongVector pushUp = own.lanewise(VectorOperators.LSHL, 8).or(unmoved.lanewise(VectorOperators.LSHL, 16));
+            LongVector pushDown = own.lanewise(VectorOperators.LSHR, 8).or(unmoved.lanewise(VectorOperators.LSHR, 16));
+            pushUp.and(up).or(pushDown.and(down)).and(empty).intoArray(pushTargets, i);
+
+            LongVector left = own.and(NOT_FILE_A);
+            LongVector right = own.and(NOT_FILE_H);
+            LongVector captureUp = left.lanewise(VectorOperators.LSHL, 7).or(right.lanewise(VectorOperators.LSHL, 9));
+            LongVector captureDown = left.lanewise(VectorOperators.LSHR, 9).or(right.lanewise(VectorOperators.LSHR, 7));
+            captureUp.and(up).or(captureDown.and(down)).and(enemy).intoArray(captureTargets, i);
+        }
+        ScalarPawnBatchKernel.GenerateTargets(batch, color, pushTargets, captureTargets, end, size);
+    }
+
+    // All ones in lanes whose lowest bit is set, zero elsewhere
+    private static LongVector LaneMask(LongVector bits) {
+        return bits.and(1).neg();
+    }
+}